@@ -0,0 +1,388 @@
+package game;
+
+import participant.Athlete;
+import participant.Cycling;
+import participant.MultiEventAthlete;
+import participant.Sprinter;
+import participant.SuperAthlete;
+import participant.Swimmer;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads an archive written by ArchiveWriter.
+ *
+ * Only the index is read when the archive is opened. A scan reads and
+ * decodes the blocks one at a time into a reused column block, skipping the
+ * blocks of other events, and hands the matching rows to a visitor without
+ * creating games or athletes.
+ */
+public class ArchiveReader implements Closeable {
+
+    // Size of an index entry: event, games, rows, offset and length.
+    private static final int INDEX_ENTRY = 1 + 4 + 4 + 8 + 4;
+
+    // The archive file.
+    private final FileChannel channel;
+
+    // Event of each block, by ordinal.
+    private final byte[] blockEvents;
+
+    // Number of games of each block.
+    private final int[] blockGames;
+
+    // Offset and length of each block in the file.
+    private final long[] blockOffsets;
+    private final int[] blockLengths;
+
+    // Offset of the roster in the file.
+    private final long rosterOffset;
+
+    // Length of the roster in the file.
+    private final int rosterLength;
+
+    // Roster, once read.
+    private byte[] roster;
+
+    // Start of each athlete in the roster.
+    private int[] rosterStarts;
+
+    // Id of each athlete in the roster.
+    private int[] rosterIds;
+
+    // Points of each athlete in the roster.
+    private int[] rosterPoints;
+
+    // Encoded block being read, reused.
+    private byte[] buffer = new byte[1 << 16];
+
+    // Block decoded by scans, reused.
+    private final ColumnBlock block = new ColumnBlock(EventType.values()[0]);
+
+    // Number of blocks decoded.
+    private long blocksRead;
+
+    // Number of blocks skipped by scans.
+    private long blocksSkipped;
+
+    /**
+     * Constructor.
+     *
+     * @param file the archive file.
+     * @throws IOException if the file cannot be read.
+     */
+    public ArchiveReader(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            ByteBuffer header = size < 20 ? null : read(0, 8);
+            if (header == null || header.getInt() != ArchiveWriter.MAGIC) {
+                throw new GameException("Not an archive: " + file);
+            }
+            if (header.getInt() != ArchiveWriter.VERSION) {
+                throw new GameException("Unsupported archive version: "
+                        + file);
+            }
+            ByteBuffer trailer = read(size - 12, 12);
+            long indexOffset = trailer.getLong();
+            if (trailer.getInt() != ArchiveWriter.MAGIC || indexOffset < 8
+                    || indexOffset > size - 16) {
+                throw new GameException("Corrupt archive: " + file);
+            }
+
+            ByteBuffer index = read(indexOffset, 4);
+            int numBlocks = index.getInt();
+            if (numBlocks < 0
+                    || numBlocks > (size - indexOffset) / INDEX_ENTRY) {
+                throw new GameException("Corrupt archive: " + file);
+            }
+            blockEvents = new byte[numBlocks];
+            blockGames = new int[numBlocks];
+            blockOffsets = new long[numBlocks];
+            blockLengths = new int[numBlocks];
+            index = read(indexOffset + 4, numBlocks * INDEX_ENTRY);
+            for (int b = 0; b < numBlocks; b++) {
+                blockEvents[b] = index.get();
+                blockGames[b] = index.getInt();
+                index.getInt();
+                blockOffsets[b] = index.getLong();
+                blockLengths[b] = index.getInt();
+                if (blockEvents[b] < 0
+                        || blockEvents[b] >= EventType.values().length) {
+                    throw new GameException("Corrupt archive: " + file);
+                }
+            }
+            rosterOffset = indexOffset + 4 + numBlocks * (long) INDEX_ENTRY;
+            rosterLength = (int) (size - 12 - rosterOffset);
+        } catch (GameException | IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads bytes of the file.
+     *
+     * @param offset offset of the bytes.
+     * @param length number of bytes.
+     * @return the bytes read.
+     * @throws IOException if the bytes cannot be read.
+     */
+    private ByteBuffer read(long offset, int length) throws IOException {
+        if (length > buffer.length) {
+            buffer = new byte[Math.max(length, buffer.length * 2)];
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, length);
+        while (bytes.hasRemaining()) {
+            if (channel.read(bytes, offset + bytes.position()) < 0) {
+                throw new GameException("Truncated archive.");
+            }
+        }
+        bytes.flip();
+        return bytes;
+    }
+
+    /**
+     * Visits the rows of an event whose time is in a range. Blocks of other
+     * events are not read.
+     *
+     * @param event   event of the rows, or null for any event.
+     * @param from    the lower bound of the time.
+     * @param to      the upper bound of the time.
+     * @param visitor the visitor of the rows.
+     * @return the number of rows visited.
+     * @throws IOException if a block cannot be read.
+     */
+    public long scan(EventType event, int from, int to,
+                     ArchiveVisitor visitor) throws IOException {
+        long visited = 0;
+        for (int b = 0; b < blockEvents.length; b++) {
+            if (event != null && blockEvents[b] != event.ordinal()) {
+                blocksSkipped++;
+                continue;
+            }
+            readBlock(b, block);
+            visited += block.scan(from, to, visitor);
+        }
+        return visited;
+    }
+
+    /**
+     * Reads and decodes a block.
+     *
+     * @param b    index of the block.
+     * @param into the column block decoded into.
+     * @throws IOException if the block cannot be read.
+     */
+    void readBlock(int b, ColumnBlock into) throws IOException {
+        read(blockOffsets[b], blockLengths[b]);
+        into.decode(getEvent(b), buffer, blockLengths[b]);
+        blocksRead++;
+    }
+
+    /**
+     * Reads the roster into memory as bytes, with the start of each record,
+     * unless it is read already.
+     *
+     * @throws IOException if the roster cannot be read.
+     */
+    private void loadRoster() throws IOException {
+        if (roster != null) {
+            return;
+        }
+        byte[] bytes = Arrays.copyOf(read(rosterOffset, rosterLength).array(),
+                rosterLength);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(
+                bytes));
+        int count = in.readInt();
+        if (count < 0 || count > rosterLength) {
+            throw new GameException("Corrupt archive roster.");
+        }
+        int[] starts = new int[count];
+        int[] ids = new int[count];
+        int[] points = new int[count];
+        for (int i = 0; i < count; i++) {
+            starts[i] = rosterLength - in.available();
+            in.readUTF();
+            ids[i] = in.readInt();
+            in.readUTF();
+            in.readInt();
+            in.readUTF();
+            in.readLong();
+            points[i] = in.readInt();
+        }
+        rosterStarts = starts;
+        rosterIds = ids;
+        rosterPoints = points;
+        roster = bytes;
+    }
+
+    /**
+     * @return the number of athletes of the archive.
+     * @throws IOException if the roster cannot be read.
+     */
+    public int getAthleteCount() throws IOException {
+        loadRoster();
+        return rosterIds.length;
+    }
+
+    /**
+     * @param id id of an athlete.
+     * @return the index of the athlete in the roster, or -1 if the athlete
+     * is not in the archive.
+     * @throws IOException if the roster cannot be read.
+     */
+    public int findAthlete(int id) throws IOException {
+        loadRoster();
+        int index = Arrays.binarySearch(rosterIds, id);
+        return index < 0 ? -1 : index;
+    }
+
+    /**
+     * Ranks the athletes of the archive by their points without reading
+     * them, most points first and by id on a tie.
+     *
+     * @return the index in the roster of each athlete, by rank.
+     * @throws IOException if the roster cannot be read.
+     */
+    public int[] rankAthletes() throws IOException {
+        loadRoster();
+        long[] keys = new long[rosterPoints.length];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = -(long) rosterPoints[i] << 32 | i;
+        }
+        Arrays.sort(keys);
+        int[] ranked = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            ranked[i] = (int) keys[i];
+        }
+        return ranked;
+    }
+
+    /**
+     * Reads an athlete of the archive, with its points when the archive was
+     * written.
+     *
+     * @param index index of the athlete in the roster.
+     * @return the athlete.
+     * @throws IOException if the roster cannot be read.
+     */
+    public Athlete readAthlete(int index) throws IOException {
+        loadRoster();
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(
+                roster, rosterStarts[index], roster.length
+                - rosterStarts[index]));
+        String type = in.readUTF();
+        int id = in.readInt();
+        String name = in.readUTF();
+        int age = in.readInt();
+        String state = in.readUTF();
+        long capabilities = in.readLong();
+        int points = in.readInt();
+
+        Athlete athlete;
+        switch (type) {
+            case "Swimmer":
+                athlete = new Swimmer(id, name, age, state);
+                break;
+            case "Sprinter":
+                athlete = new Sprinter(id, name, age, state);
+                break;
+            case "Cycling":
+                athlete = new Cycling(id, name, age, state);
+                break;
+            case "SuperAthlete":
+                athlete = new SuperAthlete(id, name, age, state);
+                break;
+            default:
+                athlete = new MultiEventAthlete(id, name, age, state,
+                        capabilities);
+                break;
+        }
+        athlete.addPoints(points);
+        return athlete;
+    }
+
+    /**
+     * Reads the athletes of the archive, with their points when the archive
+     * was written.
+     *
+     * @return the athletes.
+     * @throws IOException if the roster cannot be read.
+     */
+    public List<Athlete> readAthletes() throws IOException {
+        List<Athlete> athletes = new ArrayList<>(getAthleteCount());
+        for (int i = 0; i < rosterIds.length; i++) {
+            athletes.add(readAthlete(i));
+        }
+        return athletes;
+    }
+
+    /**
+     * @return the number of blocks.
+     */
+    public int getBlocks() {
+        return blockEvents.length;
+    }
+
+    /**
+     * @param b index of a block.
+     * @return the event of the block.
+     */
+    public EventType getEvent(int b) {
+        return EventType.values()[blockEvents[b]];
+    }
+
+    /**
+     * @param b index of a block.
+     * @return the number of games of the block.
+     */
+    public int getGames(int b) {
+        return blockGames[b];
+    }
+
+    /**
+     * @return the number of games of the archive.
+     */
+    public long getGames() {
+        long games = 0;
+        for (int count : blockGames) {
+            games += count;
+        }
+        return games;
+    }
+
+    /**
+     * @return the number of blocks decoded.
+     */
+    public long getBlocksRead() {
+        return blocksRead;
+    }
+
+    /**
+     * @return the number of blocks skipped by scans.
+     */
+    public long getBlocksSkipped() {
+        return blocksSkipped;
+    }
+
+    /**
+     * Closes the file.
+     *
+     * @throws IOException if the file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,19 @@
+package game;
+
+/**
+ * Visitor of the rows of an archive, each the result of an athlete in a
+ * game, decoded without creating games or athletes.
+ */
+public interface ArchiveVisitor {
+
+    /**
+     * Visits a row.
+     *
+     * @param game      number of the game.
+     * @param event     event of the game.
+     * @param athleteId id of the athlete.
+     * @param time      time of the athlete.
+     * @param rank      rank of the athlete.
+     */
+    void visit(int game, EventType event, int athleteId, int time, int rank);
+}
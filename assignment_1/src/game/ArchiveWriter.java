@@ -0,0 +1,179 @@
+package game;
+
+import participant.Athlete;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Writes finished games to a compressed columnar archive.
+ *
+ * Games are collected per event into column blocks, and a block is written
+ * as soon as it is full, so only one block per event is held in memory
+ * however many games are archived. The file is laid out as:
+ * <pre>
+ *   magic, version
+ *   blocks
+ *   index: per block its event, games, rows, offset and length
+ *   roster: per athlete its type, id, name, age, state, capabilities and
+ *           points
+ *   offset of the index, magic
+ * </pre>
+ * A block holds the games of one event, so the index lets a reader skip the
+ * blocks of other events without reading them. Times are random within an
+ * event, so per-block time ranges would skip nothing and are not kept.
+ */
+public class ArchiveWriter implements Closeable {
+
+    // Magic number of an archive.
+    static final int MAGIC = 0x4F5A4152;
+
+    // Version of the archive format.
+    static final int VERSION = 2;
+
+    // The output.
+    private final DataOutputStream out;
+
+    // Number of bytes written.
+    private long position;
+
+    // Block being filled, by event.
+    private final ColumnBlock[] blocks;
+
+    // Index of the blocks written.
+    private final DataOutputStream index;
+
+    // Bytes of the index.
+    private final ByteArrayOutputStream indexBytes =
+            new ByteArrayOutputStream();
+
+    // Number of blocks written.
+    private int numBlocks;
+
+    // Athletes of the games, by id.
+    private Athlete[] athletes = new Athlete[64];
+
+    // Number of games archived.
+    private long numGames;
+
+    /**
+     * Constructor.
+     *
+     * @param file the file to be written.
+     * @throws IOException if the file cannot be created.
+     */
+    public ArchiveWriter(Path file) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(file), 1 << 16));
+        this.index = new DataOutputStream(indexBytes);
+        this.blocks = new ColumnBlock[EventType.values().length];
+        for (EventType event : EventType.values()) {
+            blocks[event.ordinal()] = new ColumnBlock(event);
+        }
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        position = 8;
+    }
+
+    /**
+     * Archives the results of a game that has just been run.
+     *
+     * @param game the game.
+     * @throws IOException if a block cannot be written.
+     */
+    public void add(Game game) throws IOException {
+        if (!game.isFinished()) {
+            throw new GameException("The game is not finished: "
+                    + game.getId());
+        }
+        for (Athlete athlete : game.getAthletes()) {
+            if (athlete.getId() >= athletes.length) {
+                athletes = Arrays.copyOf(athletes, Math.max(athlete.getId()
+                        + 1, athletes.length * 2));
+            }
+            athletes[athlete.getId()] = athlete;
+        }
+        ColumnBlock block = blocks[game.getEvent().ordinal()];
+        block.add(game);
+        numGames++;
+        if (block.isFull()) {
+            writeBlock(block);
+        }
+    }
+
+    /**
+     * Writes a block and empties it.
+     *
+     * @param block the block.
+     * @throws IOException if the block cannot be written.
+     */
+    private void writeBlock(ColumnBlock block) throws IOException {
+        int length = block.encode();
+        out.write(block.getBuffer(), 0, length);
+
+        index.writeByte(block.getEvent().ordinal());
+        index.writeInt(block.getGames());
+        index.writeInt(block.getRows());
+        index.writeLong(position);
+        index.writeInt(length);
+        numBlocks++;
+
+        position += length;
+        block.clear(block.getEvent());
+    }
+
+    /**
+     * @return the number of games archived.
+     */
+    public long getGames() {
+        return numGames;
+    }
+
+    /**
+     * Writes the blocks left, the index and the roster, and closes the file.
+     *
+     * @throws IOException if the file cannot be written.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            for (ColumnBlock block : blocks) {
+                if (block.getGames() > 0) {
+                    writeBlock(block);
+                }
+            }
+            long indexOffset = position;
+            out.writeInt(numBlocks);
+            indexBytes.writeTo(out);
+
+            int count = 0;
+            for (Athlete athlete : athletes) {
+                if (athlete != null) {
+                    count++;
+                }
+            }
+            out.writeInt(count);
+            for (Athlete athlete : athletes) {
+                if (athlete != null) {
+                    out.writeUTF(athlete.getClass().getSimpleName());
+                    out.writeInt(athlete.getId());
+                    out.writeUTF(athlete.getName());
+                    out.writeInt(athlete.getAge());
+                    out.writeUTF(athlete.getState());
+                    out.writeLong(athlete.getCapabilities());
+                    out.writeInt(athlete.getPoints());
+                }
+            }
+            out.writeLong(indexOffset);
+            out.writeInt(MAGIC);
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,389 @@
+package game;
+
+import participant.Athlete;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Game data of an archive, read on demand.
+ *
+ * The games and athletes are list views of the archive: a game or athlete
+ * is only read and created when the list is asked for it, and the ones
+ * created last are kept in LRU caches of a bounded size, so a season of any
+ * number of games is browsed in a small heap. The games are listed block by
+ * block, as they are stored, and are all finished. A block holds the games
+ * of one event, written when it fills up, so the games are not in the order
+ * of their ids. Referees are not archived, so the games have none. Athletes
+ * evicted from the cache are created again when needed, so the same athlete
+ * may be given by different objects over time. Athletes are ranked by
+ * points from the roster without creating them, so a page of the ranking
+ * only reads its own athletes. The games and athletes held are accounted
+ * for in the memory of the context, and the cache entries, decoded block
+ * and ranking as caches.
+ */
+public class ArchivedGameData extends GameData implements Closeable {
+
+    // Default number of games and of athletes kept in the caches.
+    public static final int CACHE_SIZE = 10000;
+
+    // Storage of the game data.
+    private final Pages pages;
+
+    /**
+     * Constructor.
+     *
+     * @param pages storage of the game data.
+     */
+    private ArchivedGameData(Pages pages) {
+        super(pages.context, new AthleteList(pages), new GameList(pages));
+        this.pages = pages;
+    }
+
+    /**
+     * Opens the game data of an archive.
+     *
+     * @param file      the archive file.
+     * @param cacheSize number of games and of athletes kept in the caches.
+     * @return the game data.
+     * @throws IOException if the archive cannot be read.
+     */
+    public static ArchivedGameData open(Path file, int cacheSize)
+            throws IOException {
+        ArchiveReader archive = new ArchiveReader(file);
+        try {
+            return new ArchivedGameData(new Pages(archive, cacheSize));
+        } catch (GameException | IOException e) {
+            archive.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Archived games are not indexed, since indexing would read them all.
+     *
+     * @return never.
+     */
+    @Override
+    public GameQuery getQuery() {
+        throw new GameException("Archived games cannot be queried.");
+    }
+
+    /**
+     * @return a view of the athletes, most points first, reading only the
+     * athletes asked for.
+     */
+    @Override
+    public List<Athlete> getAthletesByPoints() {
+        return new RankedList(pages);
+    }
+
+    /**
+     * @return the number of games read from the archive so far.
+     */
+    public long getGamesRead() {
+        return pages.gamesRead;
+    }
+
+    /**
+     * Closes the archive.
+     *
+     * @throws IOException if the archive cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        pages.archive.close();
+    }
+
+    /**
+     * Creates a map keeping the entries used last, up to a capacity.
+     *
+     * @param capacity the maximum number of entries.
+     * @param evicted  called with the values evicted.
+     * @return the map.
+     */
+    private static <K, V> Map<K, V> lru(int capacity, Consumer<V> evicted) {
+        return new LinkedHashMap<K, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                if (size() <= capacity) {
+                    return false;
+                }
+                evicted.accept(eldest.getValue());
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Games and athletes of the archive, created on demand and cached.
+     */
+    private static class Pages {
+
+        // Context of the games created.
+        private final SimulationContext context = new SimulationContext(0,
+                0);
+
+        // The archive.
+        private final ArchiveReader archive;
+
+        // Index of the first game of each block, and the number of games.
+        private final long[] firstGames;
+
+        // Games created, by index.
+        private final Map<Integer, Game> games;
+
+        // Athletes created, by index in the roster.
+        private final Map<Integer, Athlete> athletes;
+
+        // Accounting of the memory of the context.
+        private final MemoryAccounting memory = context.getMemory();
+
+        // Block decoded last, and its index.
+        private final ColumnBlock block = new ColumnBlock(
+                EventType.values()[0]);
+        private int blockIndex = -1;
+
+        // Estimated bytes of the block as accounted for.
+        private int blockSize;
+
+        // Athletes and times of the game being created.
+        private final List<Athlete> field = new ArrayList<>(
+                Game.MAX_ATHLETES);
+        private final int[] times = new int[Game.MAX_ATHLETES];
+
+        // Index in the roster of each athlete by rank, once ranked.
+        private int[] ranked;
+
+        // Number of games created.
+        private long gamesRead;
+
+        Pages(ArchiveReader archive, int cacheSize) throws IOException {
+            this.archive = archive;
+            this.firstGames = new long[archive.getBlocks() + 1];
+            for (int b = 0; b < archive.getBlocks(); b++) {
+                firstGames[b + 1] = firstGames[b] + archive.getGames(b);
+            }
+            if (firstGames[archive.getBlocks()] > Integer.MAX_VALUE) {
+                throw new GameException("Too many games in the archive.");
+            }
+            archive.getAthleteCount();
+            this.games = lru(cacheSize, game -> {
+                game.discard();
+                memory.release(Subsystem.CACHES, MemoryAccounting.MAP_ENTRY);
+            });
+            this.athletes = lru(cacheSize, athlete -> {
+                memory.release(Subsystem.ATHLETES, size(athlete));
+                memory.release(Subsystem.CACHES, MemoryAccounting.MAP_ENTRY);
+            });
+            this.blockSize = block.estimateSize();
+            memory.allocate(Subsystem.CACHES, blockSize);
+        }
+
+        /**
+         * @param athlete an athlete read from the archive.
+         * @return the estimated bytes of the athlete and its strings.
+         */
+        private static int size(Athlete athlete) {
+            return MemoryAccounting.ATHLETE
+                    + MemoryAccounting.string(athlete.getName())
+                    + MemoryAccounting.string(athlete.getState());
+        }
+
+        /**
+         * @return the number of games.
+         */
+        int size() {
+            return (int) firstGames[firstGames.length - 1];
+        }
+
+        /**
+         * @return the number of athletes.
+         */
+        int athleteCount() {
+            try {
+                return archive.getAthleteCount();
+            } catch (IOException e) {
+                throw new GameException("Cannot read archive: "
+                        + e.getMessage());
+            }
+        }
+
+        /**
+         * @param index index of a game.
+         * @return the game.
+         */
+        synchronized Game game(int index) {
+            Game game = games.get(index);
+            if (game != null) {
+                return game;
+            }
+            try {
+                // Find the block of the game by binary search.
+                int low = 0;
+                int high = firstGames.length - 2;
+                while (low < high) {
+                    int mid = (low + high + 1) >>> 1;
+                    if (firstGames[mid] <= index) {
+                        low = mid;
+                    } else {
+                        high = mid - 1;
+                    }
+                }
+                if (low != blockIndex) {
+                    blockIndex = -1;
+                    archive.readBlock(low, block);
+                    blockIndex = low;
+                    int size = block.estimateSize();
+                    memory.resize(Subsystem.CACHES, size - blockSize);
+                    blockSize = size;
+                }
+
+                int g = (int) (index - firstGames[low]);
+                field.clear();
+                for (int i = 0; i < block.getSize(g); i++) {
+                    int row = block.getOffset(g) + i;
+                    int athlete = archive.findAthlete(block.getId(row));
+                    if (athlete < 0) {
+                        throw new GameException("Unknown athlete in archive: "
+                                + block.getId(row));
+                    }
+                    field.add(athlete(athlete));
+                    times[i] = block.getTime(row);
+                }
+                game = new Game(context, block.getEvent(), block.getNumber(g),
+                        field, times);
+            } catch (IOException e) {
+                throw new GameException("Cannot read archive: "
+                        + e.getMessage());
+            }
+            gamesRead++;
+            memory.allocate(Subsystem.CACHES, MemoryAccounting.MAP_ENTRY);
+            games.put(index, game);
+            return game;
+        }
+
+        /**
+         * @param rank a rank, from 0.
+         * @return the index in the roster of the athlete of the rank.
+         */
+        synchronized int ranked(int rank) {
+            if (ranked == null) {
+                try {
+                    ranked = archive.rankAthletes();
+                } catch (IOException e) {
+                    throw new GameException("Cannot read archive: "
+                            + e.getMessage());
+                }
+                memory.allocate(Subsystem.CACHES,
+                        MemoryAccounting.array(4, ranked.length));
+            }
+            return ranked[rank];
+        }
+
+        /**
+         * @param index index of an athlete in the roster.
+         * @return the athlete.
+         */
+        synchronized Athlete athlete(int index) {
+            Athlete athlete = athletes.get(index);
+            if (athlete == null) {
+                try {
+                    athlete = archive.readAthlete(index);
+                } catch (IOException e) {
+                    throw new GameException("Cannot read archive: "
+                            + e.getMessage());
+                }
+                memory.allocate(Subsystem.ATHLETES, size(athlete));
+                memory.allocate(Subsystem.CACHES, MemoryAccounting.MAP_ENTRY);
+                athletes.put(index, athlete);
+            }
+            return athlete;
+        }
+    }
+
+    /**
+     * Read-only list of the games of an archive.
+     */
+    private static class GameList extends AbstractList<Game> {
+
+        // Storage of the games.
+        private final Pages pages;
+
+        GameList(Pages pages) {
+            this.pages = pages;
+        }
+
+        @Override
+        public Game get(int index) {
+            if (index < 0 || index >= pages.size()) {
+                throw new IndexOutOfBoundsException("No game " + index);
+            }
+            return pages.game(index);
+        }
+
+        @Override
+        public int size() {
+            return pages.size();
+        }
+    }
+
+    /**
+     * Read-only list of the athletes of an archive.
+     */
+    private static class AthleteList extends AbstractList<Athlete> {
+
+        // Storage of the athletes.
+        private final Pages pages;
+
+        AthleteList(Pages pages) {
+            this.pages = pages;
+        }
+
+        @Override
+        public Athlete get(int index) {
+            if (index < 0 || index >= pages.athleteCount()) {
+                throw new IndexOutOfBoundsException("No athlete " + index);
+            }
+            return pages.athlete(index);
+        }
+
+        @Override
+        public int size() {
+            return pages.athleteCount();
+        }
+    }
+
+    /**
+     * Read-only list of the athletes of an archive, most points first.
+     */
+    private static class RankedList extends AbstractList<Athlete> {
+
+        // Storage of the athletes.
+        private final Pages pages;
+
+        RankedList(Pages pages) {
+            this.pages = pages;
+        }
+
+        @Override
+        public Athlete get(int index) {
+            if (index < 0 || index >= pages.athleteCount()) {
+                throw new IndexOutOfBoundsException("No athlete " + index);
+            }
+            return pages.athlete(pages.ranked(index));
+        }
+
+        @Override
+        public int size() {
+            return pages.athleteCount();
+        }
+    }
+}
@@ -0,0 +1,701 @@
+package game;
+
+import participant.Athlete;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs Ozlympic without the menu, from command line options or a script.
+ *
+ * A script has one command per line; blank lines and lines starting with #
+ * are ignored. The commands are:
+ * <pre>
+ *   seed SEED                      repeatable random numbers
+ *   generate ATHLETES GAMES        create the game data
+ *   run                            run all games not finished yet
+ *   stream ATHLETES GAMES          run games without keeping them
+ *   seasons N ATHLETES GAMES T     stream N separate seasons on T threads
+ *   shards N ATHLETES GAMES        split a season over N worker processes
+ *   register ATHLETES GAMES ENTRIES SLOTS
+ *                                  register random entries to empty games
+ *                                  spread over time slots
+ *   pipeline ATHLETES GAMES P B FILE [STAGE=PxB ...]
+ *                                  run games through a pipeline simulating
+ *                                  on P threads with batches of B, writing
+ *                                  the results to a CSV file; a stage such
+ *                                  as simulate=4x128 or persist=1x16 can be
+ *                                  given its own threads and batch size
+ *   live ATHLETES B                run a mass-start event of a random type,
+ *                                  feeding finish times in batches of B
+ *   timeline ATHLETES SESSIONS VENUES DAYS
+ *                                  schedule sessions released over DAYS
+ *                                  days on VENUES venues, each hosting one
+ *                                  event, playing games if ATHLETES is not 0
+ *   archive ATHLETES GAMES FILE    stream games into an archive file
+ *   scan FILE EVENT FROM TO        count the archived results of an event,
+ *                                  or of any event, with a time in a range
+ *   load ATHLETES T RATE SECONDS FILE [MIX [MIN MAX]]
+ *                                  run games arriving at RATE per second
+ *                                  (0 for no limit) on T threads for a
+ *                                  time once warmed up and write the
+ *                                  report as JSON, with an event mix such
+ *                                  as S2,C1,R1 and games
+ *                                  of MIN to MAX athletes
+ *   stats                          display the season statistics
+ *   memory                         display the estimated memory of the
+ *                                  game data by subsystem
+ *   dump FILE                      write the game results to a CSV file
+ *   serve PORT                     serve the results over HTTP on localhost
+ * </pre>
+ * Once serve is run, the process keeps serving after the batch ends until
+ * it is killed.
+ * The options are turned into the same commands:
+ * <pre>
+ *   -f FILE   run the script in the file
+ *   -s SEED   seed SEED
+ *   -a N      number of athletes (default 25)
+ *   -g N      generate N games and run them
+ *   -m N      stream N games
+ *   -o FILE   dump FILE
+ * </pre>
+ */
+public class Batch {
+
+    // Game data of the batch.
+    private GameData data;
+
+    // Statistics of the games run.
+    private final SeasonStats stats = new SeasonStats();
+
+    // Seed of the contexts created, or null for random seeds.
+    private Long seed;
+
+    // Number of games run, including separate seasons.
+    private long numGames;
+
+    /**
+     * Runs the batch described by the command line arguments.
+     *
+     * @param args the command line arguments.
+     * @return true if all commands succeeded or false otherwise.
+     */
+    public static boolean run(String[] args) {
+        Batch batch = new Batch();
+        long start = System.nanoTime();
+        List<String> commands;
+        try {
+            commands = parse(args);
+        } catch (GameException | IOException e) {
+            System.out.println("Error: " + e.getMessage());
+            return false;
+        }
+        for (String command : commands) {
+            try {
+                batch.execute(command);
+            } catch (IOException | RuntimeException e) {
+                System.out.println("Error: " + command + ": "
+                        + (e.getMessage() == null ? e.toString()
+                        : e.getMessage()));
+                return false;
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Total: %d games in %.3f s (%.0f games/s)\n",
+                batch.numGames, seconds, batch.numGames / seconds);
+        return true;
+    }
+
+    /**
+     * Turns the command line arguments into commands.
+     *
+     * @param args the command line arguments.
+     * @return the commands.
+     * @throws IOException if the script cannot be read.
+     */
+    private static List<String> parse(String[] args) throws IOException {
+        List<String> commands = new ArrayList<>();
+        String seed = null;
+        String athletes = String.valueOf(SimulationContext.NUM_ATHLETES);
+        String games = null;
+        String stream = null;
+        String output = null;
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if (i + 1 >= args.length) {
+                throw new GameException("Missing value of " + option);
+            }
+            String value = args[++i];
+            switch (option) {
+                case "-f":
+                    for (String line : Files.readAllLines(Paths.get(value),
+                            StandardCharsets.UTF_8)) {
+                        line = line.trim();
+                        if (!line.isEmpty() && !line.startsWith("#")) {
+                            commands.add(line);
+                        }
+                    }
+                    break;
+                case "-s":
+                    seed = value;
+                    break;
+                case "-a":
+                    athletes = value;
+                    break;
+                case "-g":
+                    games = value;
+                    break;
+                case "-m":
+                    stream = value;
+                    break;
+                case "-o":
+                    output = value;
+                    break;
+                default:
+                    throw new GameException("Unknown option: " + option);
+            }
+        }
+
+        List<String> options = new ArrayList<>();
+        if (seed != null) {
+            options.add("seed " + seed);
+        }
+        if (games != null) {
+            options.add("generate " + athletes + " " + games);
+            options.add("run");
+        }
+        if (stream != null) {
+            options.add("stream " + athletes + " " + stream);
+        }
+        if (output != null) {
+            options.add("dump " + output);
+        }
+        if (games != null || stream != null) {
+            options.add("stats");
+        }
+        commands.addAll(0, options);
+        return commands;
+    }
+
+    /**
+     * Executes a command and displays the time used.
+     *
+     * @param command the command.
+     * @throws IOException if a file cannot be written.
+     */
+    private void execute(String command) throws IOException {
+        String[] words = command.trim().split("\\s+");
+        long start = System.nanoTime();
+        switch (words[0]) {
+            case "seed":
+                seed = parseLong(words, 1);
+                break;
+            case "generate":
+                data = new GameData(context(parseInt(words, 1),
+                        parseInt(words, 2), 0));
+                break;
+            case "run":
+                runGames();
+                break;
+            case "stream":
+                streamCommand(words);
+                break;
+            case "seasons":
+                seasonsCommand(words);
+                break;
+            case "register":
+                registerCommand(words);
+                break;
+            case "pipeline":
+                pipelineCommand(words);
+                break;
+            case "shards":
+                shardsCommand(words);
+                break;
+            case "live":
+                liveCommand(words);
+                break;
+            case "timeline":
+                timelineCommand(words);
+                break;
+            case "archive":
+                archiveCommand(words);
+                break;
+            case "scan":
+                scanCommand(words);
+                break;
+            case "load":
+                loadCommand(words);
+                break;
+            case "stats":
+                stats.displayStats();
+                break;
+            case "memory":
+                data().getContext().getMemory().getReport().displayReport();
+                break;
+            case "dump":
+                dump(argument(words, 1));
+                break;
+            case "serve":
+                serveCommand(words);
+                break;
+            default:
+                throw new GameException("Unknown command: " + command);
+        }
+        System.out.printf("%s: %.3f ms\n", command,
+                (System.nanoTime() - start) / 1e6);
+    }
+
+    /**
+     * Runs all games not finished yet.
+     */
+    private void runGames() {
+        for (Game game : data().getGames()) {
+            if (!game.isFinished()) {
+                game.startGame(false);
+                data.gameFinished(game);
+                stats.record(game);
+                numGames++;
+            }
+        }
+    }
+
+    /**
+     * Runs the stream command: stream ATHLETES GAMES.
+     *
+     * @param words the words of the command.
+     */
+    private void streamCommand(String[] words) {
+        long games = parseLong(words, 2);
+        new StreamingSeason(context(parseInt(words, 1), 0, 0))
+                .run(games, stats);
+        numGames += games;
+    }
+
+    /**
+     * Runs the seasons command, streaming separate seasons side by side on a
+     * shared executor: seasons N ATHLETES GAMES T.
+     *
+     * @param words the words of the command.
+     */
+    private void seasonsCommand(String[] words) {
+        int numSeasons = parseInt(words, 1);
+        int numAthletes = parseInt(words, 2);
+        long games = parseLong(words, 3);
+        int numThreads = parseInt(words, 4);
+        if (numThreads < 1) {
+            throw new GameException("At least 1 thread is required.");
+        }
+        List<StreamingSeason> seasons = new ArrayList<>(numSeasons);
+        for (int i = 0; i < numSeasons; i++) {
+            seasons.add(new StreamingSeason(context(numAthletes, 0, i)));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try {
+            for (SeasonStats season : StreamingSeason.runAll(seasons, games,
+                    executor)) {
+                stats.merge(season);
+            }
+        } finally {
+            executor.shutdown();
+        }
+        numGames += numSeasons * games;
+    }
+
+    /**
+     * Runs the register command, registering random entries to empty games in
+     * bulk: register ATHLETES GAMES ENTRIES SLOTS.
+     *
+     * @param words the words of the command.
+     */
+    private void registerCommand(String[] words) {
+        int numAthletes = parseInt(words, 1);
+        int games = parseInt(words, 2);
+        int numEntries = parseInt(words, 3);
+        int numSlots = parseInt(words, 4);
+        if (games < 1 || numSlots < 1) {
+            throw new GameException("At least 1 game and slot is required.");
+        }
+        SimulationContext context = context(numAthletes, games, 0);
+        List<Athlete> athletes = new ArrayList<>(numAthletes);
+        for (int i = 0; i < numAthletes; i++) {
+            athletes.add(context.getFactory().createAthlete());
+        }
+        List<Game> gameList = new ArrayList<>(games);
+        int[] slots = new int[games];
+        for (int g = 0; g < games; g++) {
+            Game game = new Game(context, EventType.random(
+                    context.getRandom()));
+            game.setReferee(context.getFactory().createOfficial());
+            gameList.add(game);
+            slots[g] = g % numSlots;
+        }
+
+        int[] gameIndexes = new int[numEntries];
+        int[] athleteIds = new int[numEntries];
+        for (int i = 0; i < numEntries; i++) {
+            gameIndexes[i] = context.getRandom().generate(0, games - 1);
+            athleteIds[i] = athletes.get(context.getRandom().generate(0,
+                    numAthletes - 1)).getId();
+        }
+
+        long start = System.nanoTime();
+        RegistrationReport report = new BulkRegistration(gameList, slots,
+                athletes).register(gameIndexes, athleteIds);
+        System.out.printf("%s (%.0f entries/s)\n", report,
+                numEntries / ((System.nanoTime() - start) / 1e9));
+    }
+
+    /**
+     * Runs the pipeline command, writing the results to a file: pipeline
+     * ATHLETES GAMES P B FILE [STAGE=PxB ...].
+     *
+     * @param words the words of the command.
+     * @throws IOException if the file cannot be written.
+     */
+    private void pipelineCommand(String[] words)
+            throws IOException {
+        SimulationPipeline pipeline = new SimulationPipeline(
+                context(parseInt(words, 1), 0, 0),
+                parseInt(words, 3), parseInt(words, 4));
+        for (int i = 6; i < words.length; i++) {
+            String[] setting = words[i].split("[=x]");
+            SimulationPipeline.Stage stage = null;
+            for (SimulationPipeline.Stage s : SimulationPipeline.Stage
+                    .values()) {
+                if (s.toString().equalsIgnoreCase(setting[0])) {
+                    stage = s;
+                }
+            }
+            if (stage == null || setting.length != 3) {
+                throw new GameException("Invalid stage setting: "
+                        + words[i]);
+            }
+            pipeline.configure(stage, parseInt(setting, 1),
+                    parseInt(setting, 2));
+        }
+        try (Writer out = Files.newBufferedWriter(Paths.get(
+                argument(words, 5)), StandardCharsets.UTF_8)) {
+            stats.merge(pipeline.run(parseLong(words, 2),
+                    out));
+        }
+        for (StageMetrics metrics : pipeline.getMetrics()) {
+            System.out.println(metrics);
+        }
+        pipeline.getMemory().displayReport();
+        numGames += pipeline.getPersisted();
+    }
+
+    /**
+     * Runs the shards command, splitting a season over worker processes: shards
+     * N ATHLETES GAMES.
+     *
+     * @param words the words of the command.
+     * @throws IOException if a worker cannot be started or read.
+     */
+    private void shardsCommand(String[] words)
+            throws IOException {
+        ShardCoordinator coordinator = new ShardCoordinator(
+                parseInt(words, 1), parseInt(words, 2),
+                parseLong(words, 3), getSeed());
+        coordinator.run();
+        coordinator.displayLeaderboard(10);
+        numGames += coordinator.getGamesMerged();
+    }
+
+    /**
+     * Runs the live command, feeding the finish times of a mass-start event to
+     * a live ranker in batches and looking up the leader after each batch: live
+     * ATHLETES B.
+     *
+     * @param words the words of the command.
+     */
+    private void liveCommand(String[] words) {
+        int numAthletes = parseInt(words, 1);
+        int batchSize = parseInt(words, 2);
+        if (batchSize < 1) {
+            throw new GameException("At least 1 time per batch is required.");
+        }
+        SimulationContext context = context(numAthletes, 1, 0);
+        EventType event = EventType.random(context.getRandom());
+        List<Athlete> athletes = new ArrayList<>(numAthletes);
+        for (int i = 0; i < numAthletes; i++) {
+            athletes.add(context.getFactory().createAthlete(event.getMask()));
+        }
+
+        LiveRanker ranker = new LiveRanker(event);
+        int[] times = new int[batchSize];
+        long start = System.nanoTime();
+        for (int from = 0; from < numAthletes; from += batchSize) {
+            int to = Math.min(from + batchSize, numAthletes);
+            if (to - from != times.length) {
+                times = new int[to - from];
+            }
+            for (int i = 0; i < times.length; i++) {
+                times[i] = event.getTime(context.getRandom());
+            }
+            ranker.record(athletes.subList(from, to), times);
+            ranker.getTime(1);
+        }
+        ranker.close();
+        System.out.printf("%d finish times (%.0f times/s)\n", numAthletes,
+                numAthletes / ((System.nanoTime() - start) / 1e9));
+        ranker.displayLeaders(3);
+    }
+
+    /**
+     * Runs the timeline command, scheduling sessions of random events released
+     * in the first half of each day and running the timeline: timeline ATHLETES
+     * SESSIONS VENUES DAYS. No game is played if ATHLETES is 0.
+     *
+     * @param words the words of the command.
+     */
+    private void timelineCommand(String[] words) {
+        int numAthletes = parseInt(words, 1);
+        int sessions = parseInt(words, 2);
+        int numVenues = parseInt(words, 3);
+        int days = parseInt(words, 4);
+        if (days < 1) {
+            throw new GameException("At least 1 day is required.");
+        }
+        SimulationContext context = context(numAthletes, sessions, 0);
+        long[] venues = new long[numVenues];
+        for (int v = 0; v < numVenues; v++) {
+            venues[v] = EventType.values()[v % EventType.values().length]
+                    .getMask();
+        }
+        Timeline timeline = new Timeline(context, venues);
+        if (numAthletes > 0) {
+            List<Athlete> athletes = new ArrayList<>(numAthletes);
+            for (int i = 0; i < numAthletes; i++) {
+                athletes.add(context.getFactory().createAthlete());
+            }
+            timeline.setRoster(athletes, stats);
+            numGames += sessions;
+        }
+        RandomUtil random = context.getRandom();
+        for (int i = 0; i < sessions; i++) {
+            long day = (long) i * days / sessions;
+            timeline.schedule(EventType.random(random), day * Timeline.DAY
+                    + random.generate(0, Timeline.DAY / 2 - 1));
+        }
+
+        long start = System.nanoTime();
+        timeline.run();
+        System.out.printf("%d events processed (%.0f events/s)\n",
+                timeline.getProcessed(), timeline.getProcessed()
+                        / ((System.nanoTime() - start) / 1e9));
+        timeline.displayVenues();
+    }
+
+    /**
+     * Runs the archive command, streaming games into an archive file: archive
+     * ATHLETES GAMES FILE.
+     *
+     * @param words the words of the command.
+     * @throws IOException if the file cannot be written.
+     */
+    private void archiveCommand(String[] words)
+            throws IOException {
+        long games = parseLong(words, 2);
+        Path file = Paths.get(argument(words, 3));
+        try (ArchiveWriter archive = new ArchiveWriter(file)) {
+            new StreamingSeason(context(parseInt(words, 1), 0, 0))
+                    .run(games, stats, archive);
+        }
+        numGames += games;
+        long size = Files.size(file);
+        System.out.printf("%d bytes (%.1f bytes/game)\n", size,
+                (double) size / Math.max(games, 1));
+    }
+
+    /**
+     * Runs the scan command, counting the archived results of an event, or of
+     * any event, with a time in a range: scan FILE EVENT FROM TO.
+     *
+     * @param words the words of the command.
+     * @throws IOException if the file cannot be read.
+     */
+    private void scanCommand(String[] words) throws IOException {
+        String event = argument(words, 2);
+        EventType type = null;
+        if (!event.equalsIgnoreCase("any")) {
+            try {
+                type = EventType.valueOf(event.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new GameException("Unknown event: " + event);
+            }
+        }
+        int from = parseInt(words, 3);
+        int to = parseInt(words, 4);
+        long[] winners = new long[1];
+        try (ArchiveReader archive = new ArchiveReader(Paths.get(
+                argument(words, 1)))) {
+            long start = System.nanoTime();
+            long rows = archive.scan(type, from, to,
+                    (game, e, athleteId, time, rank) -> {
+                        if (rank == 1) {
+                            winners[0]++;
+                        }
+                    });
+            System.out.printf("%d results, %d winners; %d of %d blocks read "
+                            + "(%.0f results/s)\n", rows, winners[0],
+                    archive.getBlocksRead(), archive.getBlocks(),
+                    rows / ((System.nanoTime() - start) / 1e9));
+        }
+    }
+
+    /**
+     * Runs the load command and writes its report: load ATHLETES T RATE SECONDS
+     * FILE [MIX [MIN MAX]], with a mix such as S2,C1,R1.
+     *
+     * @param words the words of the command.
+     * @throws IOException if the report cannot be written.
+     */
+    private void loadCommand(String[] words) throws IOException {
+        int[] mix = new int[EventType.values().length];
+        if (words.length > 6) {
+            for (String weight : words[6].split(",")) {
+                EventType event = null;
+                for (EventType type : EventType.values()) {
+                    if (!weight.isEmpty()
+                            && type.getSymbol() == weight.charAt(0)) {
+                        event = type;
+                    }
+                }
+                if (event == null) {
+                    throw new GameException("Unknown event: " + weight);
+                }
+                try {
+                    mix[event.ordinal()] = Integer.parseInt(
+                            weight.substring(1));
+                } catch (NumberFormatException e) {
+                    throw new GameException("Invalid weight: " + weight);
+                }
+            }
+        } else {
+            Arrays.fill(mix, 1);
+        }
+        int minField = words.length > 7 ? parseInt(words, 7)
+                : Game.MIN_ATHLETES;
+        int maxField = words.length > 7 ? parseInt(words, 8)
+                : Game.MAX_ATHLETES;
+
+        LoadHarness harness = new LoadHarness(parseInt(words, 2),
+                parseLong(words, 3), mix, minField, maxField,
+                parseInt(words, 1), getSeed());
+        LoadReport report = harness.run(parseLong(words, 4));
+        report.write(Paths.get(argument(words, 5)));
+        report.displayReport();
+        numGames += report.getGames();
+    }
+
+    /**
+     * Runs the serve command, serving the results of the game data over HTTP:
+     * serve PORT, or 0 for any free port.
+     *
+     * @param words the words of the command.
+     * @throws IOException if the port cannot be bound.
+     */
+    private void serveCommand(String[] words) throws IOException {
+        GameData data = data();
+        ResultsServer server = new ResultsServer(data,
+                parseInt(words, 1));
+        data.addListener(server);
+        server.start();
+        System.out.println("Serving results on http://localhost:"
+                + server.getPort() + "/");
+    }
+
+    /**
+     * Creates a context, seeded by the batch seed if any.
+     *
+     * @param numAthletes number of athletes.
+     * @param games       number of games.
+     * @param offset      offset added to the seed, to tell seasons apart.
+     * @return the context.
+     */
+    private SimulationContext context(int numAthletes, int games, long offset) {
+        return seed == null ? new SimulationContext(numAthletes, games)
+                : new SimulationContext(numAthletes, games, seed + offset);
+    }
+
+    /**
+     * @return the batch seed, or a random seed if there is none.
+     */
+    private long getSeed() {
+        return seed == null ? new Random().nextLong() : seed;
+    }
+
+    /**
+     * Writes the results of the finished games to a CSV file.
+     *
+     * @param file the file name.
+     * @throws IOException if the file cannot be written.
+     */
+    private void dump(String file) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(
+                Paths.get(file), StandardCharsets.UTF_8))) {
+            out.println(GameResult.CSV_HEADER);
+            for (Game game : data().getGames()) {
+                GameResult result = game.getResult();
+                if (result != null) {
+                    out.print(result.toCsv());
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the game data, which must be generated first.
+     */
+    private GameData data() {
+        if (data == null) {
+            throw new GameException("Generate the game data first.");
+        }
+        return data;
+    }
+
+    /**
+     * @return the argument of a command at the index.
+     */
+    static String argument(String[] words, int index) {
+        if (index >= words.length) {
+            throw new GameException("Missing argument of " + words[0]);
+        }
+        return words[index];
+    }
+
+    /**
+     * @return the argument of a command at the index as an int.
+     */
+    static int parseInt(String[] words, int index) {
+        long value = parseLong(words, index);
+        if (value != (int) value) {
+            throw new GameException("Number out of range: " + words[index]);
+        }
+        return (int) value;
+    }
+
+    /**
+     * @return the argument of a command at the index as a long.
+     */
+    static long parseLong(String[] words, int index) {
+        try {
+            return Long.parseLong(argument(words, index));
+        } catch (NumberFormatException e) {
+            throw new GameException("Invalid number: " + words[index]);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package game;
+
+import participant.Athlete;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Registers many (game, athlete) entries at once.
+ *
+ * The capabilities of the athletes are kept by athlete id, and the athletes
+ * booked in each time slot are a bit set of athlete ids, so checking an
+ * entry for eligibility, duplicates and time slot clashes costs a few bit
+ * lookups. Entries are checked in order; rejected entries are returned in a
+ * RegistrationReport instead of thrown.
+ */
+public class BulkRegistration {
+
+    // Games to register to.
+    private final List<Game> games;
+
+    // Time slot of each game, by game index.
+    private final int[] slots;
+
+    // Athletes by id.
+    private final Athlete[] athletes;
+
+    // Capabilities of the athletes, by id.
+    private final long[] capabilities;
+
+    // Ids of the athletes booked, per time slot.
+    private final Map<Integer, BitSet> booked;
+
+    /**
+     * Constructor.
+     *
+     * @param games    the games to register to.
+     * @param slots    time slot of each game, by game index, or null if
+     *                 every game has a slot of its own.
+     * @param athletes the athletes who may be registered.
+     */
+    public BulkRegistration(List<Game> games, int[] slots,
+                            List<Athlete> athletes) {
+        if (slots != null && slots.length != games.size()) {
+            throw new GameException("A time slot is required for each game.");
+        }
+        this.games = games;
+        this.slots = slots;
+
+        int maxId = 0;
+        for (Athlete athlete : athletes) {
+            maxId = Math.max(maxId, athlete.getId());
+        }
+        this.athletes = new Athlete[maxId + 1];
+        this.capabilities = new long[maxId + 1];
+        for (Athlete athlete : athletes) {
+            this.athletes[athlete.getId()] = athlete;
+            capabilities[athlete.getId()] = athlete.getCapabilities();
+        }
+
+        // Book the athletes already in the games.
+        this.booked = new HashMap<>();
+        for (int g = 0; g < games.size(); g++) {
+            for (Athlete athlete : games.get(g).getAthletes()) {
+                booked(g).set(athlete.getId());
+            }
+        }
+    }
+
+    /**
+     * Registers the entries: athleteIds[i] to the game at gameIndexes[i].
+     *
+     * @param gameIndexes indexes of the games in the game list.
+     * @param athleteIds  ids of the athletes.
+     * @return the report of the registration.
+     */
+    public RegistrationReport register(int[] gameIndexes, int[] athleteIds) {
+        if (gameIndexes.length != athleteIds.length) {
+            throw new GameException("Games and athletes do not match.");
+        }
+        RegistrationReport report = new RegistrationReport();
+        for (int i = 0; i < gameIndexes.length; i++) {
+            Rejection reason = register(gameIndexes[i], athleteIds[i]);
+            if (reason == null) {
+                report.accept();
+            } else {
+                report.reject(i, reason);
+            }
+        }
+        report.setUnready(findUnready());
+        return report;
+    }
+
+    /**
+     * Registers an entry.
+     *
+     * @param g  index of the game.
+     * @param id id of the athlete.
+     * @return the rejection, or null if the entry is accepted.
+     */
+    private Rejection register(int g, int id) {
+        if (g < 0 || g >= games.size() || id < 0 || id >= athletes.length
+                || athletes[id] == null) {
+            return Rejection.UNKNOWN;
+        }
+        Game game = games.get(g);
+        if (game.isFinished()) {
+            return Rejection.CLOSED;
+        }
+        if (!game.getEvent().isIn(capabilities[id])) {
+            return Rejection.INELIGIBLE;
+        }
+        BitSet slot = booked(g);
+        if (slot.get(id)) {
+            return game.getAthletes().contains(athletes[id])
+                    ? Rejection.DUPLICATE : Rejection.SLOT_TAKEN;
+        }
+        if (game.getAthletes().size() >= Game.MAX_ATHLETES) {
+            return Rejection.FULL;
+        }
+        game.addAthlete(athletes[id]);
+        slot.set(id);
+        return null;
+    }
+
+    /**
+     * @param g index of a game.
+     * @return the athletes booked in the time slot of the game.
+     */
+    private BitSet booked(int g) {
+        int slot = slots == null ? g : slots[g];
+        BitSet bits = booked.get(slot);
+        if (bits == null) {
+            bits = new BitSet(athletes.length);
+            booked.put(slot, bits);
+        }
+        return bits;
+    }
+
+    /**
+     * @return the indexes of the unfinished games without a referee or with
+     * fewer than the minimum number of athletes.
+     */
+    private int[] findUnready() {
+        int[] unready = new int[16];
+        int size = 0;
+        for (int g = 0; g < games.size(); g++) {
+            Game game = games.get(g);
+            if (!game.isFinished() && (game.getReferee() == null
+                    || game.getAthletes().size() < Game.MIN_ATHLETES)) {
+                if (size == unready.length) {
+                    unready = Arrays.copyOf(unready, size * 2);
+                }
+                unready[size++] = g;
+            }
+        }
+        return Arrays.copyOf(unready, size);
+    }
+}
@@ -0,0 +1,408 @@
+package game;
+
+import java.util.Arrays;
+
+/**
+ * Block of up to MAX_GAMES finished games of one event, stored as columns.
+ *
+ * A row is the result of an athlete in a game; rows are in game order and,
+ * within a game, in finishing order. The columns are encoded as:
+ * <ul>
+ *   <li>game numbers: zigzag varints of the difference from the previous
+ *   game;</li>
+ *   <li>field sizes: bit-packed, minus the minimum number of athletes;</li>
+ *   <li>athlete ids: zigzag varints of the difference from the previous
+ *   row;</li>
+ *   <li>times: bit-packed, minus the minimum time of the event, with just
+ *   enough bits for the time range of the event (4 for sprint).</li>
+ * </ul>
+ * Ranks are not stored, since rows of a game are sorted by time: the rank of
+ * a row is its position in the game, shared with the row before on a tie.
+ * A block is reused for block after block, so a scan allocates nothing once
+ * its arrays are large enough.
+ */
+public class ColumnBlock {
+
+    // Maximum number of games of a block.
+    public static final int MAX_GAMES = 4096;
+
+    // Number of bits of a field size.
+    private static final int SIZE_BITS = 32 - Integer.numberOfLeadingZeros(
+            Game.MAX_ATHLETES - Game.MIN_ATHLETES);
+
+    // Event of the games.
+    private EventType event;
+
+    // Number of bits of a time.
+    private int timeBits;
+
+    // Number of games.
+    private int games;
+
+    // Number of rows.
+    private int rows;
+
+    // Game numbers, by game.
+    private final int[] numbers = new int[MAX_GAMES];
+
+    // First row of each game, and the end of the last game.
+    private final int[] offsets = new int[MAX_GAMES + 1];
+
+    // Athlete ids, by row.
+    private final int[] ids = new int[MAX_GAMES * Game.MAX_ATHLETES];
+
+    // Times, by row.
+    private final int[] times = new int[MAX_GAMES * Game.MAX_ATHLETES];
+
+    // Encoded block, reused.
+    private byte[] buffer = new byte[1024];
+
+    // Position in the encoded block.
+    private int position;
+
+    // Bits waiting to be written or read, and their number.
+    private long bits;
+    private int bitCount;
+
+    /**
+     * Constructor.
+     *
+     * @param event event of the games.
+     */
+    public ColumnBlock(EventType event) {
+        clear(event);
+    }
+
+    /**
+     * @return the estimated bytes of the block and its arrays.
+     */
+    int estimateSize() {
+        return MemoryAccounting.align(MemoryAccounting.HEADER + 5 * 4 + 8
+                + 6 * MemoryAccounting.REFERENCE)
+                + MemoryAccounting.array(4, numbers.length)
+                + MemoryAccounting.array(4, offsets.length)
+                + MemoryAccounting.array(4, ids.length)
+                + MemoryAccounting.array(4, times.length)
+                + MemoryAccounting.array(1, buffer.length);
+    }
+
+    /**
+     * Empties the block for games of an event.
+     *
+     * @param event event of the games.
+     */
+    void clear(EventType event) {
+        this.event = event;
+        this.timeBits = 32 - Integer.numberOfLeadingZeros(
+                event.getMaxTime() - event.getMinTime());
+        games = 0;
+        rows = 0;
+    }
+
+    /**
+     * Adds the results of a game that has just been run.
+     *
+     * @param game the game, of the event of the block.
+     */
+    void add(Game game) {
+        if (games == MAX_GAMES) {
+            throw new GameException("The block is full.");
+        }
+        if (game.getEvent() != event) {
+            throw new GameException("The game is not of " + event + ".");
+        }
+        numbers[games] = game.getNumber();
+        offsets[games] = rows;
+        for (int i = 0; i < game.getAthletes().size(); i++) {
+            ids[rows] = game.getAthletes().get(i).getId();
+            times[rows] = game.getTime(i);
+            rows++;
+        }
+        games++;
+        offsets[games] = rows;
+    }
+
+    /**
+     * @return true if no more game can be added.
+     */
+    boolean isFull() {
+        return games == MAX_GAMES;
+    }
+
+    /**
+     * Encodes the block. The bytes are valid until the block is changed.
+     *
+     * @return the length of the encoded block, whose bytes are given by
+     * getBuffer().
+     */
+    int encode() {
+        position = 0;
+        writeVarint(games);
+        int previous = 0;
+        for (int g = 0; g < games; g++) {
+            writeVarint(zigzag(numbers[g] - previous));
+            previous = numbers[g];
+        }
+        for (int g = 0; g < games; g++) {
+            writeBits(offsets[g + 1] - offsets[g] - Game.MIN_ATHLETES,
+                    SIZE_BITS);
+        }
+        flushBits();
+        previous = 0;
+        for (int r = 0; r < rows; r++) {
+            writeVarint(zigzag(ids[r] - previous));
+            previous = ids[r];
+        }
+        for (int r = 0; r < rows; r++) {
+            writeBits(times[r] - event.getMinTime(), timeBits);
+        }
+        flushBits();
+        return position;
+    }
+
+    /**
+     * Decodes a block encoded by encode().
+     *
+     * @param event  event of the games.
+     * @param data   the encoded block.
+     * @param length length of the encoded block.
+     */
+    void decode(EventType event, byte[] data, int length) {
+        clear(event);
+        byte[] own = buffer;
+        buffer = data;
+        position = 0;
+        bits = 0;
+        bitCount = 0;
+        try {
+            games = readVarint();
+            if (games < 0 || games > MAX_GAMES) {
+                throw new GameException("Corrupt archive block.");
+            }
+            int previous = 0;
+            for (int g = 0; g < games; g++) {
+                previous += unzigzag(readVarint());
+                numbers[g] = previous;
+            }
+            for (int g = 0; g < games; g++) {
+                offsets[g] = rows;
+                rows += readBits(SIZE_BITS) + Game.MIN_ATHLETES;
+            }
+            offsets[games] = rows;
+            bits = 0;
+            bitCount = 0;
+            previous = 0;
+            for (int r = 0; r < rows; r++) {
+                previous += unzigzag(readVarint());
+                ids[r] = previous;
+            }
+            for (int r = 0; r < rows; r++) {
+                times[r] = readBits(timeBits) + event.getMinTime();
+            }
+            bits = 0;
+            bitCount = 0;
+            if (position > length) {
+                throw new GameException("Corrupt archive block.");
+            }
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new GameException("Corrupt archive block.");
+        } finally {
+            buffer = own;
+        }
+    }
+
+    /**
+     * Visits the rows whose time is in a range.
+     *
+     * @param from    the lower bound of the time.
+     * @param to      the upper bound of the time.
+     * @param visitor the visitor of the rows.
+     * @return the number of rows visited.
+     */
+    int scan(int from, int to, ArchiveVisitor visitor) {
+        int visited = 0;
+        for (int g = 0; g < games; g++) {
+            int rank = 0;
+            for (int r = offsets[g]; r < offsets[g + 1]; r++) {
+                if (r == offsets[g] || times[r] != times[r - 1]) {
+                    rank = r - offsets[g] + 1;
+                }
+                if (times[r] >= from && times[r] <= to) {
+                    visitor.visit(numbers[g], event, ids[r], times[r], rank);
+                    visited++;
+                }
+            }
+        }
+        return visited;
+    }
+
+    /**
+     * @return the encoded block, valid until the block is changed.
+     */
+    byte[] getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * @return the event of the games.
+     */
+    public EventType getEvent() {
+        return event;
+    }
+
+    /**
+     * @return the number of games.
+     */
+    public int getGames() {
+        return games;
+    }
+
+    /**
+     * @return the number of rows.
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * @param game index of a game in the block.
+     * @return the number of the game.
+     */
+    public int getNumber(int game) {
+        return numbers[game];
+    }
+
+    /**
+     * @param game index of a game in the block.
+     * @return the first row of the game.
+     */
+    public int getOffset(int game) {
+        return offsets[game];
+    }
+
+    /**
+     * @param game index of a game in the block.
+     * @return the number of athletes of the game.
+     */
+    public int getSize(int game) {
+        return offsets[game + 1] - offsets[game];
+    }
+
+    /**
+     * @param row a row.
+     * @return the athlete id of the row.
+     */
+    public int getId(int row) {
+        return ids[row];
+    }
+
+    /**
+     * @param row a row.
+     * @return the time of the row.
+     */
+    public int getTime(int row) {
+        return times[row];
+    }
+
+    /**
+     * Writes a varint: 7 bits per byte, lowest first, with the high bit set
+     * on every byte but the last.
+     *
+     * @param value the value, taken as unsigned.
+     */
+    private void writeVarint(int value) {
+        ensure(5);
+        while ((value & ~0x7F) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    /**
+     * @return the varint read.
+     */
+    private int readVarint() {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = buffer[position++];
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new GameException("Corrupt archive block.");
+    }
+
+    /**
+     * Writes the low bits of a value after the bits written before.
+     *
+     * @param value the value.
+     * @param width the number of bits.
+     */
+    private void writeBits(int value, int width) {
+        bits |= (long) value << bitCount;
+        bitCount += width;
+        while (bitCount >= 8) {
+            ensure(1);
+            buffer[position++] = (byte) bits;
+            bits >>>= 8;
+            bitCount -= 8;
+        }
+    }
+
+    /**
+     * Writes the bits left, padding them to a byte.
+     */
+    private void flushBits() {
+        if (bitCount > 0) {
+            ensure(1);
+            buffer[position++] = (byte) bits;
+        }
+        bits = 0;
+        bitCount = 0;
+    }
+
+    /**
+     * @param width the number of bits.
+     * @return the value of the next bits.
+     */
+    private int readBits(int width) {
+        while (bitCount < width) {
+            bits |= (long) (buffer[position++] & 0xFF) << bitCount;
+            bitCount += 8;
+        }
+        int value = (int) (bits & ((1L << width) - 1));
+        bits >>>= width;
+        bitCount -= width;
+        return value;
+    }
+
+    /**
+     * Makes room for bytes in the buffer.
+     *
+     * @param length the number of bytes.
+     */
+    private void ensure(int length) {
+        if (position + length > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(position + length,
+                    buffer.length * 2));
+        }
+    }
+
+    /**
+     * @param value a signed value.
+     * @return the value with its sign in the lowest bit.
+     */
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    /**
+     * @param value a value with its sign in the lowest bit.
+     * @return the signed value.
+     */
+    private static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
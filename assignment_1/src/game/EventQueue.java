@@ -0,0 +1,122 @@
+package game;
+
+import java.util.Arrays;
+
+/**
+ * Priority queue of scheduled events, ordered by time and then by payload.
+ *
+ * The times and payloads are kept in parallel primitive arrays forming a
+ * binary heap, so scheduling and taking events allocates nothing once the
+ * arrays are large enough.
+ */
+public class EventQueue {
+
+    // Times of the events, as a heap.
+    private long[] times = new long[64];
+
+    // Payloads of the events, as a heap.
+    private int[] payloads = new int[64];
+
+    // Number of events in the queue.
+    private int size;
+
+    /**
+     * Schedules an event.
+     *
+     * @param time    time of the event.
+     * @param payload payload of the event.
+     */
+    public void push(long time, int payload) {
+        if (size == times.length) {
+            times = Arrays.copyOf(times, size * 2);
+            payloads = Arrays.copyOf(payloads, size * 2);
+        }
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!before(time, payload, times[parent], payloads[parent])) {
+                break;
+            }
+            times[i] = times[parent];
+            payloads[i] = payloads[parent];
+            i = parent;
+        }
+        times[i] = time;
+        payloads[i] = payload;
+    }
+
+    /**
+     * Takes the first event out of the queue. Its time is read with
+     * peekTime() before.
+     *
+     * @return the payload of the first event.
+     */
+    public int pop() {
+        if (size == 0) {
+            throw new GameException("No event scheduled.");
+        }
+        int first = payloads[0];
+        size--;
+        long time = times[size];
+        int payload = payloads[size];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && before(times[child + 1],
+                    payloads[child + 1], times[child], payloads[child])) {
+                child++;
+            }
+            if (!before(times[child], payloads[child], time, payload)) {
+                break;
+            }
+            times[i] = times[child];
+            payloads[i] = payloads[child];
+            i = child;
+        }
+        times[i] = time;
+        payloads[i] = payload;
+        return first;
+    }
+
+    /**
+     * @return the time of the first event.
+     */
+    public long peekTime() {
+        if (size == 0) {
+            throw new GameException("No event scheduled.");
+        }
+        return times[0];
+    }
+
+    /**
+     * @return the number of events scheduled.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true if no event is scheduled.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns true if an event comes before another.
+     *
+     * @param time         time of the event.
+     * @param payload      payload of the event.
+     * @param otherTime    time of the other event.
+     * @param otherPayload payload of the other event.
+     * @return true if the event comes first.
+     */
+    private static boolean before(long time, int payload, long otherTime,
+                                  int otherPayload) {
+        return time < otherTime || time == otherTime
+                && payload < otherPayload;
+    }
+}
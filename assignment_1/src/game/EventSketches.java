@@ -0,0 +1,152 @@
+package game;
+
+import participant.Athlete;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Time distributions and frequent winners per event and per state.
+ */
+public class EventSketches {
+
+    // Number of counters of the frequent winners.
+    private static final int NUM_WINNERS = 32;
+
+    // Times per event.
+    private final TimeHistogram[] times;
+
+    // Times per event, by state.
+    private final Map<String, TimeHistogram[]> stateTimes;
+
+    // Frequent winners per event.
+    private final HeavyHitters[] winners;
+
+    // Frequent winners by state.
+    private final Map<String, HeavyHitters> stateWinners;
+
+    /**
+     * Constructor.
+     */
+    public EventSketches() {
+        times = newHistograms();
+        winners = new HeavyHitters[EventType.values().length];
+        for (int e = 0; e < winners.length; e++) {
+            winners[e] = new HeavyHitters(NUM_WINNERS);
+        }
+        stateTimes = new HashMap<>();
+        stateWinners = new HashMap<>();
+    }
+
+    /**
+     * Records the results of a finished game.
+     *
+     * @param game the finished game.
+     */
+    public void record(Game game) {
+        int e = game.getEvent().ordinal();
+        for (int i = 0; i < game.getAthletes().size(); i++) {
+            Athlete athlete = game.getAthletes().get(i);
+            times[e].add(game.getTime(i));
+            stateTimes(athlete.getState())[e].add(game.getTime(i));
+            if (game.getRank(i) == 1) {
+                winners[e].add(athlete.getId());
+                stateWinners(athlete.getState()).add(athlete.getId());
+            }
+        }
+    }
+
+    /**
+     * Merges the sketches collected elsewhere into this one.
+     *
+     * @param other the sketches to be merged.
+     */
+    public void merge(EventSketches other) {
+        for (int e = 0; e < times.length; e++) {
+            times[e].merge(other.times[e]);
+            winners[e].merge(other.winners[e]);
+        }
+        for (Map.Entry<String, TimeHistogram[]> entry
+                : other.stateTimes.entrySet()) {
+            TimeHistogram[] histograms = stateTimes(entry.getKey());
+            for (int e = 0; e < histograms.length; e++) {
+                histograms[e].merge(entry.getValue()[e]);
+            }
+        }
+        for (Map.Entry<String, HeavyHitters> entry
+                : other.stateWinners.entrySet()) {
+            stateWinners(entry.getKey()).merge(entry.getValue());
+        }
+    }
+
+    /**
+     * @param event the event.
+     * @return the times of the event.
+     */
+    public TimeHistogram getTimes(EventType event) {
+        return times[event.ordinal()];
+    }
+
+    /**
+     * @param event the event.
+     * @param state the state.
+     * @return the times of the event by athletes of the state.
+     */
+    public TimeHistogram getTimes(EventType event, String state) {
+        return stateTimes(state)[event.ordinal()];
+    }
+
+    /**
+     * @param event the event.
+     * @return the frequent winners of the event.
+     */
+    public HeavyHitters getWinners(EventType event) {
+        return winners[event.ordinal()];
+    }
+
+    /**
+     * @param state the state.
+     * @return the frequent winners of the state.
+     */
+    public HeavyHitters getWinners(String state) {
+        return stateWinners(state);
+    }
+
+    /**
+     * @param state the state.
+     * @return the histograms of the state, created if absent.
+     */
+    private TimeHistogram[] stateTimes(String state) {
+        TimeHistogram[] histograms = stateTimes.get(state);
+        if (histograms == null) {
+            histograms = newHistograms();
+            stateTimes.put(state, histograms);
+        }
+        return histograms;
+    }
+
+    /**
+     * @param state the state.
+     * @return the frequent winners of the state, created if absent.
+     */
+    private HeavyHitters stateWinners(String state) {
+        HeavyHitters hitters = stateWinners.get(state);
+        if (hitters == null) {
+            hitters = new HeavyHitters(NUM_WINNERS);
+            stateWinners.put(state, hitters);
+        }
+        return hitters;
+    }
+
+    /**
+     * @return a histogram for each event.
+     */
+    private static TimeHistogram[] newHistograms() {
+        TimeHistogram[] histograms =
+                new TimeHistogram[EventType.values().length];
+        for (EventType event : EventType.values()) {
+            histograms[event.ordinal()] = new TimeHistogram(event);
+        }
+        return histograms;
+    }
+}
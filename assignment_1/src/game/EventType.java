@@ -2,12 +2,22 @@ package game;
 
 /**
  * Event type.
+ *
+ * The event types are the registry of events: each one owns a bit of an
+ * athlete's capabilities, given by its ordinal, so an athlete can play any
+ * subset of the events and there can be at most 64 of them.
  */
 public enum EventType {
     SWIMMING('S', 100, 200),
     CYCLING('C', 500, 800),
     SPRINT('R', 10, 20);
 
+    // Every event, by ordinal.
+    private static final EventType[] EVENTS = values();
+
+    // Capabilities of an athlete who can play every event.
+    public static final long ALL = -1L >>> (64 - EVENTS.length);
+
     // Symbol character of the event.
     private final char symbol;
 
@@ -31,10 +41,25 @@ public enum EventType {
     }
 
     /**
+     * @param random random number generator.
      * @return a time value generated randomly for the event.
      */
-    public int getTime() {
-        return RandomUtil.generate(minTime, maxTime);
+    public int getTime(RandomUtil random) {
+        return random.generate(minTime, maxTime);
+    }
+
+    /**
+     * @return the minimum time of the event.
+     */
+    public int getMinTime() {
+        return minTime;
+    }
+
+    /**
+     * @return the maximum time of the event.
+     */
+    public int getMaxTime() {
+        return maxTime;
     }
 
     /**
@@ -45,17 +70,58 @@ public enum EventType {
     }
 
     /**
-     * @return an event selected randomly.
+     * @return the capability bit of the event.
+     */
+    public long getMask() {
+        return 1L << ordinal();
+    }
+
+    /**
+     * Returns true if the capabilities include the event.
+     *
+     * @param capabilities capabilities of an athlete.
+     * @return true if the event is one of the capabilities.
      */
-    public static EventType random() {
-        switch (RandomUtil.generate(0, 2)) {
-            case 0:
-                return SWIMMING;
-            case 1:
-                return SPRINT;
-            default:
-                return CYCLING;
+    public boolean isIn(long capabilities) {
+        return (capabilities & getMask()) != 0;
+    }
+
+    /**
+     * Counts the athletes who can play the event.
+     *
+     * @param capabilities capabilities of the athletes.
+     * @param size         number of athletes.
+     * @return the number of athletes who can play the event.
+     */
+    public int count(long[] capabilities, int size) {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            count += (int) (capabilities[i] >>> ordinal()) & 1;
         }
+        return count;
+    }
+
+    /**
+     * @param capabilities capabilities of an athlete.
+     * @return the events of the capabilities.
+     */
+    public static EventType[] of(long capabilities) {
+        EventType[] events = new EventType[Long.bitCount(capabilities & ALL)];
+        int size = 0;
+        for (EventType event : EVENTS) {
+            if (event.isIn(capabilities)) {
+                events[size++] = event;
+            }
+        }
+        return events;
+    }
+
+    /**
+     * @param random random number generator.
+     * @return an event selected randomly.
+     */
+    public static EventType random(RandomUtil random) {
+        return EVENTS[random.generate(0, EVENTS.length - 1)];
     }
 }
 
@@ -4,7 +4,9 @@ import participant.Athlete;
 import participant.Official;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -18,14 +20,29 @@ public class Game {
     // Maximum number of athletes in a game.
     public static final int MAX_ATHLETES = 8;
 
-    // Game id.
-    private static int GAME_ID = 1;
-
     // Points awarded to the top 3 winners.
     private static final int[] POINTS = {5, 3, 1};
 
-    // id of the game.
-    private final String id;
+    // Estimated bytes of a game without its referee and results: the game,
+    // its list and view of the athletes, its times, ranks and id.
+    static final int SIZE = MemoryAccounting.align(MemoryAccounting.HEADER
+            + 10 * MemoryAccounting.REFERENCE + 1) + MemoryAccounting.LIST
+            + MemoryAccounting.array(MemoryAccounting.REFERENCE,
+            MAX_ATHLETES) + 2 * MemoryAccounting.array(4, MAX_ATHLETES)
+            + 24 + MemoryAccounting.string("R000");
+
+    // Estimated bytes of a referee.
+    static final int REFEREE_SIZE = MemoryAccounting.align(
+            MemoryAccounting.HEADER + 4 * 4);
+
+    // context of the game.
+    private final SimulationContext context;
+
+    // number of the game in its context.
+    private int number;
+
+    // id of the game, formatted from the number on first use.
+    private String id;
 
     // event of the game.
     private final EventType event;
@@ -33,29 +50,68 @@ public class Game {
     // athletes of the game.
     private final List<Athlete> athletes;
 
+    // read-only view of the athletes.
+    private final List<Athlete> athletesView;
+
     // if the game is finished.
-    private boolean finished = false;
+    private volatile boolean finished = false;
+
+    // results of the last run, published to other threads.
+    private volatile GameResult result;
 
     // referee of the game.
     private Official referee;
 
-    // times of the athletes.
-    private int[] times;
+    // times of the athletes, reused when the game is run again.
+    private final int[] times;
 
-    // ranks of the athletes.
-    private int[] ranks;
+    // ranks of the athletes, reused when the game is run again.
+    private final int[] ranks;
 
     /**
      * Constructor.
      *
-     * @param event event of the game.
+     * @param context context of the game.
+     * @param event   event of the game.
      */
-    public Game(EventType event) {
-        this.id = String.format("%c%02d", event.getSymbol(), GAME_ID++);
+    public Game(SimulationContext context, EventType event) {
+        this.context = context;
+        this.number = context.nextGameId();
         this.event = event;
-        this.athletes = new ArrayList<>();
+        this.athletes = new ArrayList<>(MAX_ATHLETES);
+        this.athletesView = Collections.unmodifiableList(athletes);
         this.referee = null;
         this.finished = false;
+        this.times = new int[MAX_ATHLETES];
+        this.ranks = new int[MAX_ATHLETES];
+        context.getMemory().allocate(Subsystem.GAMES, SIZE);
+    }
+
+    /**
+     * Constructor for a game finished before, e.g. read from an archive.
+     *
+     * @param context  context of the game.
+     * @param event    event of the game.
+     * @param number   number of the game.
+     * @param athletes athletes of the game, in finishing order.
+     * @param times    times of the athletes.
+     */
+    Game(SimulationContext context, EventType event, int number,
+         List<Athlete> athletes, int[] times) {
+        this.context = context;
+        this.number = number;
+        this.event = event;
+        this.athletes = new ArrayList<>(athletes);
+        this.athletesView = Collections.unmodifiableList(this.athletes);
+        this.times = Arrays.copyOf(times, MAX_ATHLETES);
+        this.ranks = new int[MAX_ATHLETES];
+        for (int i = 0; i < athletes.size(); i++) {
+            ranks[i] = i > 0 && times[i] == times[i - 1] ? ranks[i - 1]
+                    : i + 1;
+        }
+        context.getMemory().allocate(Subsystem.GAMES, SIZE);
+        publish();
+        this.finished = true;
     }
 
     /**
@@ -71,6 +127,40 @@ public class Game {
         athletes.addAll(newAthletes);
     }
 
+    /**
+     * Adds an athlete to the game.
+     *
+     * @param athlete the athlete to be added.
+     */
+    public void addAthlete(Athlete athlete) {
+        if (athletes.size() >= MAX_ATHLETES) {
+            throw new GameException("No more than " + MAX_ATHLETES + " " +
+                    "athletes in a game");
+        }
+        athletes.add(athlete);
+    }
+
+    /**
+     * Makes the game ready to be run again by the same athletes. The points
+     * awarded by the previous run are kept, its result is not.
+     */
+    public void rematch() {
+        clearResult();
+        finished = false;
+    }
+
+    /**
+     * Removes the athletes and makes the game ready to be run again as a new
+     * game with the next number, keeping the event and the referee.
+     */
+    public void reset() {
+        athletes.clear();
+        number = context.nextGameId();
+        id = null;
+        clearResult();
+        finished = false;
+    }
+
     /**
      * Sets referee to the game.
      *
@@ -80,6 +170,9 @@ public class Game {
         if (referee == null) {
             throw new GameException("A referee has already be assigned.");
         }
+        if (this.referee == null) {
+            context.getMemory().resize(Subsystem.GAMES, REFEREE_SIZE);
+        }
         this.referee = referee;
     }
 
@@ -87,6 +180,106 @@ public class Game {
      * Starts the game.
      */
     public void startGame() {
+        startGame(true);
+    }
+
+    /**
+     * Starts the game.
+     *
+     * @param verbose true to print the progress of the game.
+     */
+    public void startGame(boolean verbose) {
+        play(verbose);
+        awardPoints();
+
+        publish();
+        finished = true;
+        if (!verbose) {
+            return;
+        }
+        System.out.println(this);
+
+        // Display the winner of this game.
+        System.out.print("Winner is");
+        for (int i = 0; i < athletes.size(); i++) {
+            if (ranks[i] == 1) {
+                System.out.print(" " + athletes.get(i).toShortString());
+            }
+        }
+        System.out.println(".");
+    }
+
+    /**
+     * Runs the game without publishing the results, for games of a pool
+     * whose results are read by the same thread before the game is run
+     * again. getResult() and isWinner() do not see the results of this run.
+     */
+    void run() {
+        play(false);
+        awardPoints();
+        finished = true;
+    }
+
+    /**
+     * Runs the game and publishes the results without awarding the points,
+     * so games can be simulated in parallel while the points of athletes
+     * shared by several games are awarded on one thread.
+     */
+    void simulate() {
+        play(false);
+        publish();
+        finished = true;
+    }
+
+    /**
+     * Publishes the results of the game just played to other threads.
+     */
+    private void publish() {
+        GameResult old = result;
+        result = new GameResult(getId(), event, athletes, times, ranks);
+        context.getMemory().resize(Subsystem.GAMES, result.estimateSize()
+                - (old == null ? 0 : old.estimateSize()));
+    }
+
+    /**
+     * Drops the result of the previous run and its accounted memory.
+     */
+    private void clearResult() {
+        GameResult old = result;
+        if (old != null) {
+            result = null;
+            context.getMemory().resize(Subsystem.GAMES, -old.estimateSize());
+        }
+    }
+
+    /**
+     * Accounts for the game being let go by its context, e.g. once its
+     * results are persisted or when it is evicted from a cache. The game
+     * is not to be used afterwards.
+     */
+    void discard() {
+        GameResult result = this.result;
+        context.getMemory().release(Subsystem.GAMES, SIZE
+                + (referee == null ? 0 : REFEREE_SIZE)
+                + (result == null ? 0 : result.estimateSize()));
+    }
+
+    /**
+     * Adds points to the top 3 winners of the game just played.
+     */
+    void awardPoints() {
+        for (int i = 0; i < athletes.size(); i++) {
+            athletes.get(i).addPoints(getPoints(ranks[i]));
+        }
+    }
+
+    /**
+     * Plays the game: generates the times, ranks the athletes and sorts the
+     * athletes by their times.
+     *
+     * @param verbose true to print the progress of the game.
+     */
+    private void play(boolean verbose) {
 
         // Validate the game.
         if (referee == null) {
@@ -97,16 +290,18 @@ public class Game {
                     "athletes, the game is canceled.");
         }
 
-        System.out.println(this + " started...");
-
-        times = new int[athletes.size()];
-        ranks = new int[athletes.size()];
+        if (verbose) {
+            System.out.println(this + " started...");
+        }
 
         // Generate time for each athlete.
+        RandomUtil random = context.getRandom();
         for (int i = 0; i < athletes.size(); i++) {
-            times[i] = athletes.get(i).compete(event);
-            System.out.println("  Time of " + athletes.get(i).toShortString() +
-                    ": " + times[i] + "(s)");
+            times[i] = athletes.get(i).compete(event, random);
+            if (verbose) {
+                System.out.println("  Time of " + athletes.get(i)
+                        .toShortString() + ": " + times[i] + "(s)");
+            }
             ranks[i] = 1;
         }
 
@@ -119,13 +314,6 @@ public class Game {
             }
         }
 
-        // Add points to the top 3 winners.
-        for (int i = 0; i < athletes.size(); i++) {
-            if (ranks[i] <= POINTS.length) {
-                athletes.get(i).addPoints(POINTS[ranks[i] - 1]);
-            }
-        }
-
         // Sort the athletes by their times.
         for (int i = 0; i < athletes.size(); i++) {
             for (int j = i + 1; j < athletes.size(); j++) {
@@ -144,25 +332,88 @@ public class Game {
                 }
             }
         }
+    }
 
-        finished = true;
-        System.out.println(this);
+    /**
+     * @return the context of the game.
+     */
+    public SimulationContext getContext() {
+        return context;
+    }
 
-        // Display the winner of this game.
-        System.out.print("Winner is");
-        for (int i = 0; i < athletes.size(); i++) {
-            if (ranks[i] == 1) {
-                System.out.print(" " + athletes.get(i).toShortString());
-            }
+    /**
+     * @return the number of the game in its context.
+     */
+    public int getNumber() {
+        return number;
+    }
+
+    /**
+     * @return the id of the game.
+     */
+    public String getId() {
+        if (id == null) {
+            id = String.format("%c%02d", event.getSymbol(), number);
         }
-        System.out.println(".");
+        return id;
     }
 
     /**
+     * @return the referee of the game.
+     */
+    public Official getReferee() {
+        return referee;
+    }
+
+    /**
+     * @return the short name of the referee, or a note that there is none
+     * recorded, as for games read from an archive.
+     */
+    private String refereeName() {
+        return referee == null ? "(not recorded)" : referee.toShortString();
+    }
+
+    /**
+     * Returns a read-only view of the athletes in the game. The view is
+     * reordered when the game is run, so other threads should read the
+     * results through getResult().
+     *
      * @return the athletes in the game.
      */
     public List<Athlete> getAthletes() {
-        return athletes;
+        return athletesView;
+    }
+
+    /**
+     * @return the results of the last run of the game, or null if it has
+     * never been started.
+     */
+    public GameResult getResult() {
+        return result;
+    }
+
+    /**
+     * @param rank rank of an athlete.
+     * @return the points awarded to the rank.
+     */
+    static int getPoints(int rank) {
+        return rank <= POINTS.length ? POINTS[rank - 1] : 0;
+    }
+
+    /**
+     * @param position position of the athlete in the game.
+     * @return the time of the athlete at the position.
+     */
+    int getTime(int position) {
+        return times[position];
+    }
+
+    /**
+     * @param position position of the athlete in the game.
+     * @return the rank of the athlete at the position.
+     */
+    int getRank(int position) {
+        return ranks[position];
     }
 
     /**
@@ -170,7 +421,7 @@ public class Game {
      */
     @Override
     public String toString() {
-        return id + ": " + event.toString().toLowerCase()
+        return getId() + ": " + event.toString().toLowerCase()
                 + " (" + athletes.size() + " athletes)"
                 + (finished ? " (FINISHED)" : "");
     }
@@ -179,10 +430,9 @@ public class Game {
      * Displays the information of the game.
      */
     public void displayGame() {
-        System.out.println("Game ID  : " + id);
+        System.out.println("Game ID  : " + getId());
         System.out.println("Event    : " + event.toString().toLowerCase());
-        System.out.println("Referee  : "
-                + (referee == null ? "" : referee.toShortString()));
+        System.out.println("Referee  : " + refereeName());
         System.out.println("Athletes :");
         for (int i = 0; i < athletes.size(); i++) {
             System.out.println("  " + (i + 1) + ". "
@@ -195,18 +445,19 @@ public class Game {
      * Displays the results of the game.
      */
     public void displayGameResults() {
-        System.out.println("Game ID  : " + id);
+        System.out.println("Game ID  : " + getId());
         System.out.println("Event    : " + event.toString().toLowerCase());
-        System.out.println("Referee  : "
-                + (referee == null ? "" : referee.toShortString()));
-        if (finished) {
+        System.out.println("Referee  : " + refereeName());
+        GameResult result = this.result;
+        if (result != null) {
             String pattern = "%-8s%-18s%-10s%-6s";
             System.out.println(String.format("Result   : " + pattern,
                     "Rank", "Athlete", "Time(s)", "Score"));
-            for (int i = 0; i < athletes.size(); i++) {
-                System.out.println(String.format("           " + pattern, ranks[i],
-                        athletes.get(i).toShortString(), times[i],
-                        ranks[i] <= POINTS.length ? POINTS[ranks[i] - 1] : 0));
+            for (int i = 0; i < result.size(); i++) {
+                System.out.println(String.format("           " + pattern,
+                        result.getRank(i),
+                        result.getAthlete(i).toShortString(),
+                        result.getTime(i), result.getScore(i)));
             }
             System.out.println();
         } else {
@@ -236,11 +487,7 @@ public class Game {
      * @return true if he is the winner or false otherwise.
      */
     public boolean isWinner(Athlete athlete) {
-        for (int i = 0; i < athletes.size(); i++) {
-            if (athletes.get(i) == athlete && ranks[i] == 1) {
-                return true;
-            }
-        }
-        return false;
+        GameResult result = this.result;
+        return result != null && result.isWinner(athlete);
     }
 }
@@ -1,23 +1,21 @@
 package game;
 
 import participant.Athlete;
-import participant.ParticipantFactory;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Game data collection.
  */
 public class GameData {
 
-    // Maximum number of athletes.
-    private static final int NUM_ATHLETES = 25;
-
-    // Number of games.
-    private static final int NUM_GAMES = 5;
+    // Context of the game data.
+    private final SimulationContext context;
 
     // List of athletes.
     private List<Athlete> athletes;
@@ -25,49 +23,194 @@ public class GameData {
     // List of games.
     private List<Game> games;
 
+    // Query index over the athletes and games, created on first use.
+    private GameQuery query;
+
+    // Elo ratings of the athletes.
+    private final RatingEngine ratings;
+
+    // Listeners notified when a game is finished.
+    private final List<GameListener> listeners = new CopyOnWriteArrayList<>();
+
     /**
-     * Constructor.
+     * Constructor with a new context of the default configuration.
      */
     public GameData() {
+        this(new SimulationContext());
+    }
 
+    /**
+     * Constructor.
+     *
+     * @param context context of the game data, giving the number of athletes
+     *                and games to create. More athletes are created if the
+     *                random ones cannot fill a game of every event.
+     */
+    public GameData(SimulationContext context) {
+        this.context = context;
+        ratings = new RatingEngine(context.getMemory());
         athletes = new ArrayList<>();
         games = new ArrayList<>();
         Set<Athlete> participants = new HashSet<>();
 
-        // Create athletes.
-        for (int i = 0; i < NUM_ATHLETES; i++) {
-            athletes.add(ParticipantFactory.createAthlete());
+        // Create athletes, adding more while an event cannot fill a game.
+        for (int i = 0; i < context.getNumAthletes(); i++) {
+            athletes.add(context.getFactory().createAthlete());
+        }
+        while (context.getNumGames() > 0 && !hasEnoughAthletes(athletes)) {
+            athletes.add(context.getFactory().createAthlete());
         }
 
         // Create games.
-        for (int i = 0; i < NUM_GAMES; i++) {
-
-            // Create a game of a random event.
-            Game game = new Game(EventType.random());
-
-            // Select the number of athletes for the game.
-            int numAthletes = RandomUtil.generate(Game.MIN_ATHLETES, Game
-                    .MAX_ATHLETES);
-
-            // Pick athletes who can play the event.
-            Set<Athlete> athleteSet = new HashSet<>();
-            while (athleteSet.size() < numAthletes) {
-                Athlete athlete = athletes.get(RandomUtil.generate(0,
-                        athletes.size() - 1));
-                if (athlete.canPlay(game.getEvent())) {
-                    athleteSet.add(athlete);
-                }
-            }
-            game.addAthletes(athleteSet);
-            participants.addAll(athleteSet);
-            game.setReferee(ParticipantFactory.createOfficial());
+        for (int i = 0; i < context.getNumGames(); i++) {
+            Game game = createGame(context, athletes);
+            participants.addAll(game.getAthletes());
             games.add(game);
         }
 
-        // Retain the participated athletes.
+        // Retain the participated athletes and let the others go.
+        Set<Athlete> dropped = new HashSet<>(athletes);
+        dropped.removeAll(participants);
+        context.unregister(dropped);
         athletes = new ArrayList<>(participants);
     }
 
+    /**
+     * Constructor for game data whose athletes and games are given, e.g.
+     * views of storage.
+     *
+     * @param context  context of the game data.
+     * @param athletes the athletes.
+     * @param games    the games.
+     */
+    protected GameData(SimulationContext context, List<Athlete> athletes,
+                       List<Game> games) {
+        this.context = context;
+        this.athletes = athletes;
+        this.games = games;
+        this.ratings = new RatingEngine(context.getMemory());
+    }
+
+    /**
+     * Checks that every event has enough athletes to fill a game.
+     *
+     * @param athletes the athletes to pick from.
+     */
+    static void checkAthletes(List<Athlete> athletes) {
+        EventType event = findShortEvent(athletes);
+        if (event != null) {
+            throw new GameException("Not enough athletes for "
+                    + event.toString().toLowerCase() + ".");
+        }
+    }
+
+    /**
+     * @param athletes the athletes to pick from.
+     * @return true if every event has enough athletes to fill a game.
+     */
+    static boolean hasEnoughAthletes(List<Athlete> athletes) {
+        return findShortEvent(athletes) == null;
+    }
+
+    /**
+     * @param athletes the athletes to pick from.
+     * @return an event without enough athletes to fill a game, or null if
+     * there is none.
+     */
+    private static EventType findShortEvent(List<Athlete> athletes) {
+        long[] capabilities = new long[athletes.size()];
+        for (int i = 0; i < capabilities.length; i++) {
+            capabilities[i] = athletes.get(i).getCapabilities();
+        }
+        for (EventType event : EventType.values()) {
+            if (event.count(capabilities, capabilities.length)
+                    < Game.MAX_ATHLETES) {
+                return event;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Creates a game of a random event, with athletes picked from the list
+     * and a new referee.
+     *
+     * @param context  context of the game.
+     * @param athletes the athletes to pick from.
+     * @return the game created.
+     */
+    static Game createGame(SimulationContext context,
+                           List<Athlete> athletes) {
+
+        // Create a game of a random event.
+        Game game = new Game(context, EventType.random(context.getRandom()));
+
+        pickAthletes(game, athletes);
+        game.setReferee(context.getFactory().createOfficial());
+        return game;
+    }
+
+    /**
+     * Creates a game of an event, with a number of athletes picked from the
+     * list and a new referee.
+     *
+     * @param context     context of the game.
+     * @param athletes    the athletes to pick from.
+     * @param event       event of the game.
+     * @param numAthletes number of athletes of the game.
+     * @return the game created.
+     */
+    static Game createGame(SimulationContext context, List<Athlete> athletes,
+                           EventType event, int numAthletes) {
+        Game game = new Game(context, event);
+        pickAthletes(game, athletes, numAthletes);
+        game.setReferee(context.getFactory().createOfficial());
+        return game;
+    }
+
+    /**
+     * Adds a random number of athletes who can play the event to a game.
+     *
+     * @param game     the game without athletes.
+     * @param athletes the athletes to pick from.
+     */
+    static void pickAthletes(Game game, List<Athlete> athletes) {
+
+        // Select the number of athletes for the game.
+        RandomUtil random = game.getContext().getRandom();
+        pickAthletes(game, athletes, random.generate(Game.MIN_ATHLETES,
+                Game.MAX_ATHLETES));
+    }
+
+    /**
+     * Adds athletes who can play the event to a game, picked at random.
+     *
+     * @param game        the game without athletes.
+     * @param athletes    the athletes to pick from.
+     * @param numAthletes number of athletes to add.
+     */
+    static void pickAthletes(Game game, List<Athlete> athletes,
+                             int numAthletes) {
+        RandomUtil random = game.getContext().getRandom();
+
+        // Pick athletes who can play the event.
+        while (game.getAthletes().size() < numAthletes) {
+            Athlete athlete = athletes.get(random.generate(0,
+                    athletes.size() - 1));
+            if (athlete.canPlay(game.getEvent())
+                    && !game.getAthletes().contains(athlete)) {
+                game.addAthlete(athlete);
+            }
+        }
+    }
+
+    /**
+     * @return the context of the game data.
+     */
+    public SimulationContext getContext() {
+        return context;
+    }
+
     /**
      * @return the list of athletes.
      */
@@ -75,10 +218,69 @@ public class GameData {
         return athletes;
     }
 
+    /**
+     * @return the athletes, most points first.
+     */
+    public List<Athlete> getAthletesByPoints() {
+        List<Athlete> sorted = new ArrayList<>(athletes);
+        sorted.sort(Comparator.comparingInt(Athlete::getPoints).reversed());
+        return sorted;
+    }
+
     /**
      * @return the list of games.
      */
     public List<Game> getGames() {
         return games;
     }
+
+    /**
+     * @return the query index over the athletes and games.
+     */
+    public GameQuery getQuery() {
+        if (query == null) {
+            query = new GameQuery(athletes, games, context.getMemory());
+        }
+        return query;
+    }
+
+    /**
+     * @return the Elo ratings of the athletes.
+     */
+    public RatingEngine getRatings() {
+        return ratings;
+    }
+
+    /**
+     * Updates the game data after a game is finished.
+     *
+     * @param game the finished game.
+     */
+    public void gameFinished(Game game) {
+        if (query != null) {
+            query.update(game);
+        }
+        ratings.record(game);
+        for (GameListener listener : listeners) {
+            listener.gameFinished(game);
+        }
+    }
+
+    /**
+     * Adds a listener notified when a game is finished.
+     *
+     * @param listener the listener.
+     */
+    public void addListener(GameListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener, which is no longer notified.
+     *
+     * @param listener the listener.
+     */
+    public void removeListener(GameListener listener) {
+        listeners.remove(listener);
+    }
 }
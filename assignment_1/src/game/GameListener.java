@@ -0,0 +1,14 @@
+package game;
+
+/**
+ * Listener notified when a game of the game data is finished.
+ */
+public interface GameListener {
+
+    /**
+     * Called after a game is finished.
+     *
+     * @param game the finished game.
+     */
+    void gameFinished(Game game);
+}
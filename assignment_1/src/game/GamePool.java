@@ -0,0 +1,62 @@
+package game;
+
+import java.util.ArrayDeque;
+
+/**
+ * Pool of games which are run again instead of created for every run.
+ *
+ * A game keeps its event, referee, athlete list and time and rank arrays
+ * across runs and only takes the next game number, so once the pool is warm,
+ * acquiring, running and releasing a game allocates nothing, which
+ * GamePoolTest checks. Games of the pool are meant for simulations which
+ * record the results and discard the game, e.g. StreamingSeason; a released
+ * game must not be used any more by its previous owner.
+ */
+public class GamePool {
+
+    // Context of the games.
+    private final SimulationContext context;
+
+    // Free games per event.
+    private final ArrayDeque<Game>[] free;
+
+    /**
+     * Constructor.
+     *
+     * @param context context of the games.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public GamePool(SimulationContext context) {
+        this.context = context;
+        free = new ArrayDeque[EventType.values().length];
+        for (int e = 0; e < free.length; e++) {
+            free[e] = new ArrayDeque<>();
+        }
+    }
+
+    /**
+     * Takes a game without athletes from the pool, creating one if none is
+     * free.
+     *
+     * @param event the event of the game.
+     * @return the game.
+     */
+    public Game acquire(EventType event) {
+        Game game = free[event.ordinal()].poll();
+        if (game == null) {
+            game = new Game(context, event);
+            game.setReferee(context.getFactory().createOfficial());
+        }
+        return game;
+    }
+
+    /**
+     * Returns a game to the pool.
+     *
+     * @param game the game, which must have been acquired from this pool.
+     */
+    public void release(Game game) {
+        game.reset();
+        free[game.getEvent().ordinal()].push(game);
+    }
+}
@@ -0,0 +1,385 @@
+package game;
+
+import participant.Athlete;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * In-memory query layer over athletes and games.
+ *
+ * Every athlete is given a dense slot number, and the secondary indexes map
+ * a key (state, age, type, event or points) to the set of slots having that
+ * key; an athlete is in the set of every event of its capability bits.
+ * A query intersects the bit sets of its filters and then walks the points
+ * index from the highest points down, so "top N" stops as soon as N athletes
+ * have been found.
+ */
+public class GameQuery {
+
+    // Estimated bytes indexing an athlete: its slot entry, its lists of
+    // games, a few bits of each index and its points.
+    static final int SLOT_SIZE = MemoryAccounting.MAP_ENTRY
+            + MemoryAccounting.REFERENCE * 2 + 2 * (MemoryAccounting.LIST
+            + MemoryAccounting.array(MemoryAccounting.REFERENCE, 10))
+            + 4 + 4;
+
+    // Accounting of the memory of the indexes.
+    private final MemoryAccounting memory;
+
+    // Athletes by slot.
+    private final List<Athlete> athletes;
+
+    // Slot of each athlete.
+    private final Map<Athlete, Integer> slots;
+
+    // Athletes by state.
+    private final Map<String, BitSet> stateIndex;
+
+    // Athletes by age.
+    private final NavigableMap<Integer, BitSet> ageIndex;
+
+    // Athletes by type.
+    private final Map<Class<?>, BitSet> typeIndex;
+
+    // Athletes by event they can play.
+    private final Map<EventType, BitSet> capabilityIndex;
+
+    // Athletes by points.
+    private final NavigableMap<Integer, BitSet> pointsIndex;
+
+    // Points of each athlete as currently indexed.
+    private int[] indexedPoints;
+
+    // Games by event.
+    private final Map<EventType, List<Game>> eventIndex;
+
+    // Games of each athlete, by slot.
+    private final List<List<Game>> gamesIndex;
+
+    // Games won by each athlete, by slot.
+    private final List<List<Game>> winsIndex;
+
+    // Slots of the winners in the wins index, by game.
+    private final Map<Game, BitSet> winners;
+
+    /**
+     * Constructor.
+     *
+     * @param athletes athletes to be indexed.
+     * @param games    games to be indexed.
+     */
+    public GameQuery(Collection<Athlete> athletes, Collection<Game> games) {
+        this(athletes, games, new MemoryAccounting());
+    }
+
+    /**
+     * Constructor accounting for the memory of the indexes as the
+     * leaderboard of a context.
+     *
+     * @param athletes athletes to be indexed.
+     * @param games    games to be indexed.
+     * @param memory   accounting of the memory of the indexes.
+     */
+    public GameQuery(Collection<Athlete> athletes, Collection<Game> games,
+                     MemoryAccounting memory) {
+        this.memory = memory;
+        this.athletes = new ArrayList<>(athletes.size());
+        this.slots = new HashMap<>();
+        this.stateIndex = new HashMap<>();
+        this.ageIndex = new TreeMap<>();
+        this.typeIndex = new HashMap<>();
+        this.pointsIndex = new TreeMap<>();
+        this.indexedPoints = new int[athletes.size()];
+        this.capabilityIndex = new EnumMap<>(EventType.class);
+        this.eventIndex = new EnumMap<>(EventType.class);
+        this.gamesIndex = new ArrayList<>(athletes.size());
+        this.winsIndex = new ArrayList<>(athletes.size());
+        this.winners = new HashMap<>();
+
+        for (Athlete athlete : athletes) {
+            addAthlete(athlete);
+        }
+        for (Game game : games) {
+            addGame(game);
+        }
+    }
+
+    /**
+     * Adds an athlete to the indexes.
+     *
+     * @param athlete the athlete to be added.
+     */
+    private void addAthlete(Athlete athlete) {
+        if (slots.containsKey(athlete)) {
+            return;
+        }
+        int slot = athletes.size();
+        athletes.add(athlete);
+        slots.put(athlete, slot);
+        gamesIndex.add(new ArrayList<>());
+        winsIndex.add(new ArrayList<>());
+        if (slot >= indexedPoints.length) {
+            int[] points = new int[Math.max(16, slot * 2)];
+            System.arraycopy(indexedPoints, 0, points, 0, indexedPoints.length);
+            indexedPoints = points;
+        }
+        indexedPoints[slot] = athlete.getPoints();
+
+        bits(stateIndex, athlete.getState()).set(slot);
+        bits(ageIndex, athlete.getAge()).set(slot);
+        bits(typeIndex, athlete.getClass()).set(slot);
+        for (EventType event : EventType.of(athlete.getCapabilities())) {
+            bits(capabilityIndex, event).set(slot);
+        }
+        bits(pointsIndex, athlete.getPoints()).set(slot);
+        memory.allocate(Subsystem.LEADERBOARD, SLOT_SIZE);
+    }
+
+    /**
+     * Adds a game to the indexes.
+     *
+     * @param game the game to be added.
+     */
+    private void addGame(Game game) {
+        List<Game> eventGames = eventIndex.get(game.getEvent());
+        if (eventGames == null) {
+            eventGames = new ArrayList<>();
+            eventIndex.put(game.getEvent(), eventGames);
+        }
+        eventGames.add(game);
+        memory.resize(Subsystem.LEADERBOARD, MemoryAccounting.REFERENCE);
+
+        for (Athlete athlete : game.getAthletes()) {
+            addAthlete(athlete);
+            int slot = slots.get(athlete);
+            gamesIndex.get(slot).add(game);
+            memory.resize(Subsystem.LEADERBOARD, MemoryAccounting.REFERENCE);
+            if (game.isFinished() && game.isWinner(athlete)) {
+                addWin(game, slot);
+            }
+        }
+    }
+
+    /**
+     * Adds a game to the wins of an athlete, unless it is there already.
+     *
+     * @param game the game won.
+     * @param slot slot of the athlete.
+     */
+    private void addWin(Game game, int slot) {
+        BitSet won = winners.get(game);
+        if (won == null) {
+            won = new BitSet();
+            winners.put(game, won);
+            memory.resize(Subsystem.LEADERBOARD, MemoryAccounting.MAP_ENTRY);
+        }
+        if (!won.get(slot)) {
+            won.set(slot);
+            winsIndex.get(slot).add(game);
+            memory.resize(Subsystem.LEADERBOARD, MemoryAccounting.REFERENCE);
+        }
+    }
+
+    /**
+     * Updates the indexes after a game is finished.
+     *
+     * @param game the finished game.
+     */
+    public void update(Game game) {
+        updatePoints(game);
+        for (Athlete athlete : game.getAthletes()) {
+            Integer slot = slots.get(athlete);
+            if (slot != null && game.isWinner(athlete)) {
+                addWin(game, slot);
+            }
+        }
+    }
+
+    /**
+     * Updates the points index after a game is finished, without keeping
+     * the game, e.g. for games let go once they are run.
+     *
+     * @param game the finished game.
+     */
+    public void updatePoints(Game game) {
+        for (Athlete athlete : game.getAthletes()) {
+            Integer slot = slots.get(athlete);
+            if (slot == null) {
+                continue;
+            }
+
+            // Move the athlete to the new points entry.
+            int oldPoints = indexedPoints[slot];
+            int newPoints = athlete.getPoints();
+            if (oldPoints != newPoints) {
+                BitSet old = pointsIndex.get(oldPoints);
+                old.clear(slot);
+                if (old.isEmpty()) {
+                    pointsIndex.remove(oldPoints);
+                }
+                bits(pointsIndex, newPoints).set(slot);
+                indexedPoints[slot] = newPoints;
+            }
+        }
+    }
+
+    /**
+     * Finds the athletes matching all the given filters, ordered by points
+     * from the highest.
+     *
+     * @param state  state of the athletes, or null for any state.
+     * @param type   type of the athletes, or null for any type.
+     * @param minAge the lower bound of the age.
+     * @param maxAge the upper bound of the age.
+     * @param limit  the maximum number of athletes returned.
+     * @return the athletes found.
+     */
+    public List<Athlete> findAthletes(String state,
+                                      Class<? extends Athlete> type,
+                                      int minAge, int maxAge, int limit) {
+        return findAthletes(null, state, type, minAge, maxAge, limit);
+    }
+
+    /**
+     * Finds the athletes who can play an event and match all the other
+     * given filters, ordered by points from the highest.
+     *
+     * @param event  event the athletes can play, or null for any event.
+     * @param state  state of the athletes, or null for any state.
+     * @param type   type of the athletes, or null for any type.
+     * @param minAge the lower bound of the age.
+     * @param maxAge the upper bound of the age.
+     * @param limit  the maximum number of athletes returned.
+     * @return the athletes found.
+     */
+    public List<Athlete> findAthletes(EventType event, String state,
+                                      Class<? extends Athlete> type,
+                                      int minAge, int maxAge, int limit) {
+        BitSet candidates = new BitSet(athletes.size());
+        for (BitSet ages : ageIndex.subMap(minAge, true, maxAge, true)
+                .values()) {
+            candidates.or(ages);
+        }
+        if (event != null) {
+            candidates.and(bitsOrEmpty(capabilityIndex.get(event)));
+        }
+        if (state != null) {
+            candidates.and(bitsOrEmpty(stateIndex.get(state)));
+        }
+        if (type != null) {
+            candidates.and(bitsOrEmpty(typeIndex.get(type)));
+        }
+        return top(candidates, pointsIndex, limit);
+    }
+
+    /**
+     * Finds the athletes whose points are in the specified range, ordered by
+     * points from the highest.
+     *
+     * @param minPoints the lower bound of the points.
+     * @param maxPoints the upper bound of the points.
+     * @return the athletes found.
+     */
+    public List<Athlete> findByPoints(int minPoints, int maxPoints) {
+        if (minPoints > maxPoints) {
+            return Collections.emptyList();
+        }
+        return top(null, pointsIndex.subMap(minPoints, true, maxPoints, true),
+                Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns the athletes with the most points.
+     *
+     * @param limit the maximum number of athletes returned.
+     * @return the leading athletes.
+     */
+    public List<Athlete> leaders(int limit) {
+        return top(null, pointsIndex, limit);
+    }
+
+    /**
+     * @param athlete the athlete.
+     * @return the games the athlete takes part in.
+     */
+    public List<Game> getGames(Athlete athlete) {
+        Integer slot = slots.get(athlete);
+        return slot == null ? Collections.<Game>emptyList()
+                : Collections.unmodifiableList(gamesIndex.get(slot));
+    }
+
+    /**
+     * @param athlete the athlete.
+     * @return the games the athlete has won.
+     */
+    public List<Game> getGamesWon(Athlete athlete) {
+        Integer slot = slots.get(athlete);
+        return slot == null ? Collections.<Game>emptyList()
+                : Collections.unmodifiableList(winsIndex.get(slot));
+    }
+
+    /**
+     * @param event the event.
+     * @return the games of the event.
+     */
+    public List<Game> getGames(EventType event) {
+        List<Game> games = eventIndex.get(event);
+        return games == null ? Collections.<Game>emptyList()
+                : Collections.unmodifiableList(games);
+    }
+
+    /**
+     * Walks the points entries from the highest and collects the athletes
+     * which are also in the candidates.
+     *
+     * @param candidates the candidate athletes, or null for all athletes.
+     * @param points     the points entries to walk.
+     * @param limit      the maximum number of athletes returned.
+     * @return the athletes collected.
+     */
+    private List<Athlete> top(BitSet candidates,
+                              NavigableMap<Integer, BitSet> points,
+                              int limit) {
+        List<Athlete> result = new ArrayList<>(Math.min(limit, 64));
+        for (BitSet bits : points.descendingMap().values()) {
+            for (int slot = bits.nextSetBit(0); slot >= 0;
+                 slot = bits.nextSetBit(slot + 1)) {
+                if (result.size() >= limit) {
+                    return result;
+                }
+                if (candidates == null || candidates.get(slot)) {
+                    result.add(athletes.get(slot));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the bit set of the key, created if absent.
+     */
+    private static <K> BitSet bits(Map<K, BitSet> index, K key) {
+        BitSet bits = index.get(key);
+        if (bits == null) {
+            bits = new BitSet();
+            index.put(key, bits);
+        }
+        return bits;
+    }
+
+    /**
+     * @return the bit set, or an empty one if it is null.
+     */
+    private static BitSet bitsOrEmpty(BitSet bits) {
+        return bits == null ? new BitSet() : bits;
+    }
+}
@@ -0,0 +1,152 @@
+package game;
+
+import participant.Athlete;
+
+import java.util.List;
+
+/**
+ * Immutable results of a game run, in finishing order.
+ *
+ * A result is created once the game is finished and never changes, so it
+ * can be read by any number of threads without locking while the game is
+ * run again.
+ */
+public final class GameResult {
+
+    // Header of the results in CSV.
+    public static final String CSV_HEADER =
+            "game,event,rank,athlete,name,state,time,score";
+
+    // id of the game.
+    private final String gameId;
+
+    // event of the game.
+    private final EventType event;
+
+    // athletes in finishing order.
+    private final Athlete[] athletes;
+
+    // times of the athletes.
+    private final int[] times;
+
+    // ranks of the athletes.
+    private final int[] ranks;
+
+    /**
+     * Constructor.
+     *
+     * @param gameId   id of the game.
+     * @param event    event of the game.
+     * @param athletes athletes in finishing order.
+     * @param times    times of the athletes.
+     * @param ranks    ranks of the athletes.
+     */
+    GameResult(String gameId, EventType event, List<Athlete> athletes,
+               int[] times, int[] ranks) {
+        int size = athletes.size();
+        this.gameId = gameId;
+        this.event = event;
+        this.athletes = athletes.toArray(new Athlete[size]);
+        this.times = new int[size];
+        this.ranks = new int[size];
+        System.arraycopy(times, 0, this.times, 0, size);
+        System.arraycopy(ranks, 0, this.ranks, 0, size);
+    }
+
+    /**
+     * @return the estimated bytes of the results: the object and its arrays,
+     * not the athletes or the id shared with the game.
+     */
+    int estimateSize() {
+        return MemoryAccounting.align(MemoryAccounting.HEADER
+                + 5 * MemoryAccounting.REFERENCE)
+                + MemoryAccounting.array(MemoryAccounting.REFERENCE,
+                athletes.length) + 2 * MemoryAccounting.array(4, ranks.length);
+    }
+
+    /**
+     * @return the id of the game.
+     */
+    public String getGameId() {
+        return gameId;
+    }
+
+    /**
+     * @return the event of the game.
+     */
+    public EventType getEvent() {
+        return event;
+    }
+
+    /**
+     * @return the number of athletes.
+     */
+    public int size() {
+        return athletes.length;
+    }
+
+    /**
+     * @param position position in finishing order.
+     * @return the athlete at the position.
+     */
+    public Athlete getAthlete(int position) {
+        return athletes[position];
+    }
+
+    /**
+     * @param position position in finishing order.
+     * @return the time of the athlete at the position.
+     */
+    public int getTime(int position) {
+        return times[position];
+    }
+
+    /**
+     * @param position position in finishing order.
+     * @return the rank of the athlete at the position.
+     */
+    public int getRank(int position) {
+        return ranks[position];
+    }
+
+    /**
+     * @param position position in finishing order.
+     * @return the points awarded to the athlete at the position.
+     */
+    public int getScore(int position) {
+        return Game.getPoints(ranks[position]);
+    }
+
+    /**
+     * @return the results in CSV, a line per athlete.
+     */
+    public String toCsv() {
+        StringBuilder csv = new StringBuilder();
+        String eventName = event.toString().toLowerCase();
+        for (int i = 0; i < athletes.length; i++) {
+            csv.append(gameId).append(',').append(eventName).append(',')
+                    .append(ranks[i]).append(',')
+                    .append(athletes[i].getId()).append(',')
+                    .append(athletes[i].getName()).append(',')
+                    .append(athletes[i].getState()).append(',')
+                    .append(times[i]).append(',').append(getScore(i))
+                    .append(System.lineSeparator());
+        }
+        return csv.toString();
+    }
+
+    /**
+     * Determines whether the athlete is a winner of the game.
+     *
+     * @param athlete the athlete.
+     * @return true if the athlete ranks first or false otherwise.
+     */
+    public boolean isWinner(Athlete athlete) {
+        for (int i = 0; i < athletes.length && ranks[i] == 1; i++) {
+            if (athletes[i].equals(athlete)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,148 @@
+package game;
+
+import java.util.Arrays;
+
+/**
+ * Misra-Gries summary of the most frequent ids, e.g. the athletes who win
+ * most often.
+ *
+ * At most a fixed number of counters are kept. A count is never over
+ * estimated, and is under estimated by at most the number of ids recorded
+ * divided by the number of counters plus one, so any id occurring more often
+ * than that is guaranteed to be kept. Two summaries can be merged with the
+ * same guarantee.
+ */
+public class HeavyHitters {
+
+    // Ids of the counters.
+    private final int[] ids;
+
+    // Counts of the counters.
+    private final long[] counts;
+
+    // Number of counters in use.
+    private int size;
+
+    // Number of ids recorded.
+    private long total;
+
+    /**
+     * Constructor.
+     *
+     * @param capacity the number of counters.
+     */
+    public HeavyHitters(int capacity) {
+        if (capacity < 1) {
+            throw new GameException("At least 1 counter is required.");
+        }
+        this.ids = new int[capacity];
+        this.counts = new long[capacity];
+    }
+
+    /**
+     * Records an id.
+     *
+     * @param id the id to be recorded.
+     */
+    public void add(int id) {
+        add(id, 1);
+    }
+
+    /**
+     * Records an id several times.
+     *
+     * @param id    the id to be recorded.
+     * @param count the number of times.
+     */
+    private void add(int id, long count) {
+        total += count;
+        for (int i = 0; i < size; i++) {
+            if (ids[i] == id) {
+                counts[i] += count;
+                return;
+            }
+        }
+        if (size < ids.length) {
+            ids[size] = id;
+            counts[size] = count;
+            size++;
+            return;
+        }
+
+        // No free counter: take the smallest count off every counter,
+        // including the new one, and drop those reaching zero.
+        long decrement = count;
+        for (int i = 0; i < size; i++) {
+            decrement = Math.min(decrement, counts[i]);
+        }
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (counts[i] > decrement) {
+                ids[kept] = ids[i];
+                counts[kept] = counts[i] - decrement;
+                kept++;
+            }
+        }
+        size = kept;
+        if (count > decrement) {
+            ids[size] = id;
+            counts[size] = count - decrement;
+            size++;
+        }
+    }
+
+    /**
+     * Merges another summary into this one.
+     *
+     * @param other the summary to be merged.
+     */
+    public void merge(HeavyHitters other) {
+        for (int i = 0; i < other.size; i++) {
+            add(other.ids[i], other.counts[i]);
+        }
+
+        // Ids the other summary dropped are still part of the total.
+        long counted = 0;
+        for (int i = 0; i < other.size; i++) {
+            counted += other.counts[i];
+        }
+        total += other.total - counted;
+    }
+
+    /**
+     * @param id the id.
+     * @return the estimated count of the id.
+     */
+    public long getCount(int id) {
+        for (int i = 0; i < size; i++) {
+            if (ids[i] == id) {
+                return counts[i];
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @param limit the maximum number of ids returned.
+     * @return the most frequent ids, from the most frequent.
+     */
+    public int[] getTop(int limit) {
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(counts[b], counts[a]));
+        int[] top = new int[Math.min(limit, size)];
+        for (int i = 0; i < top.length; i++) {
+            top[i] = ids[order[i]];
+        }
+        return top;
+    }
+
+    /**
+     * @return the number of ids recorded.
+     */
+    public long getTotal() {
+        return total;
+    }
+}
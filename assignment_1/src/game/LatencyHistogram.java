@@ -0,0 +1,125 @@
+package game;
+
+/**
+ * Histogram of latencies in nanoseconds.
+ *
+ * Latencies span many orders of magnitude, so the counters are log-linear:
+ * each power of 2 is split into SUB_BUCKETS equal buckets, which keeps the
+ * error of a quantile under 1 / SUB_BUCKETS of its value with a fixed array
+ * of counters. Recording allocates nothing, and merging two histograms is
+ * adding their counters.
+ */
+public class LatencyHistogram {
+
+    // Number of bits of the buckets of a power of 2.
+    private static final int SUB_BITS = 5;
+
+    // Number of buckets of a power of 2.
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+    // Number of latencies recorded per bucket.
+    private final long[] counts = new long[(64 - SUB_BITS + 1) * SUB_BUCKETS];
+
+    // Number of latencies recorded.
+    private long count;
+
+    // Sum of the latencies recorded.
+    private long sum;
+
+    // Largest latency recorded.
+    private long max;
+
+    /**
+     * Records a latency.
+     *
+     * @param nanos the latency in nanoseconds, negative ones counted as 0.
+     */
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0);
+        counts[bucket(value)]++;
+        count++;
+        sum += value;
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Adds the latencies of another histogram to this one.
+     *
+     * @param other the other histogram.
+     */
+    public void merge(LatencyHistogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        sum += other.sum;
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * @param value a latency.
+     * @return the bucket of the latency.
+     */
+    private static int bucket(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        return (shift + 1) * SUB_BUCKETS
+                + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    /**
+     * @param bucket a bucket.
+     * @return the largest latency of the bucket.
+     */
+    private static long highest(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long low = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return low + (1L << shift) - 1;
+    }
+
+    /**
+     * @param quantile the quantile, between 0 and 1.
+     * @return the latency at the quantile, rounded up to the end of its
+     * bucket but not above the largest latency, or 0 if none is recorded.
+     */
+    public long getQuantile(double quantile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(highest(i), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * @return the number of latencies recorded.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return the mean latency, or 0 if none is recorded.
+     */
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * @return the largest latency recorded.
+     */
+    public long getMax() {
+        return max;
+    }
+}
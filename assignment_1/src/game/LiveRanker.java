@@ -0,0 +1,251 @@
+package game;
+
+import participant.Athlete;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Live ranking of a mass-start event, fed with finish times as they come in.
+ *
+ * The times of an event are bounded, so the number of finishers at each time
+ * is kept in a Fenwick tree over the time range of the event. Recording a
+ * time and looking up a provisional rank both cost O(log T), where T is the
+ * number of possible times, however many athletes have finished. As in
+ * Game, the rank of a time is one more than the number of faster finishers,
+ * so athletes with the same time share a rank. Points are only awarded when
+ * the event is closed.
+ */
+public class LiveRanker {
+
+    // Event being ranked.
+    private final EventType event;
+
+    // Number of finishers by time, as a Fenwick tree indexed from 1.
+    private final int[] tree;
+
+    // Highest power of 2 not greater than the number of possible times.
+    private final int topBit;
+
+    // Finish time of each athlete, in the order they finished.
+    private final Map<Athlete, Integer> times = new LinkedHashMap<>();
+
+    // Athletes by index of their time in the tree, in the order they
+    // finished, or null for a time nobody finished at.
+    private final List<List<Athlete>> finishers;
+
+    // True if the event is closed.
+    private boolean closed;
+
+    /**
+     * Constructor.
+     *
+     * @param event event to be ranked.
+     */
+    public LiveRanker(EventType event) {
+        this.event = event;
+        int size = event.getMaxTime() - event.getMinTime() + 1;
+        this.tree = new int[size + 1];
+        this.topBit = Integer.highestOneBit(size);
+        this.finishers = new ArrayList<>(Collections.nCopies(size + 1,
+                (List<Athlete>) null));
+    }
+
+    /**
+     * Records the finish time of an athlete.
+     *
+     * @param athlete the athlete.
+     * @param time    the finish time.
+     */
+    public synchronized void record(Athlete athlete, int time) {
+        check(athlete, time);
+        add(athlete, time);
+    }
+
+    /**
+     * Records the finish times of several athletes at once. Either all of
+     * them are recorded or, if one is invalid, none is.
+     *
+     * @param athletes the athletes.
+     * @param finishes the finish times of the athletes.
+     */
+    public synchronized void record(List<Athlete> athletes, int[] finishes) {
+        if (athletes.size() != finishes.length) {
+            throw new GameException("Athletes and times do not match.");
+        }
+        Set<Athlete> batch = Collections.newSetFromMap(
+                new IdentityHashMap<>());
+        for (int i = 0; i < finishes.length; i++) {
+            check(athletes.get(i), finishes[i]);
+            if (!batch.add(athletes.get(i))) {
+                throw new GameException("The athlete has finished: "
+                        + athletes.get(i).toShortString());
+            }
+        }
+        for (int i = 0; i < finishes.length; i++) {
+            add(athletes.get(i), finishes[i]);
+        }
+    }
+
+    /**
+     * Checks that a finish time can be recorded.
+     *
+     * @param athlete the athlete.
+     * @param time    the finish time.
+     */
+    private void check(Athlete athlete, int time) {
+        if (closed) {
+            throw new GameException("The event is closed.");
+        }
+        if (!athlete.canPlay(event)) {
+            throw new GameException("The athlete cannot play the game: "
+                    + event);
+        }
+        if (time < event.getMinTime() || time > event.getMaxTime()) {
+            throw new GameException("Invalid time for " + event + ": "
+                    + time);
+        }
+        if (times.containsKey(athlete)) {
+            throw new GameException("The athlete has finished: "
+                    + athlete.toShortString());
+        }
+    }
+
+    /**
+     * Adds a checked finish time.
+     *
+     * @param athlete the athlete.
+     * @param time    the finish time.
+     */
+    private void add(Athlete athlete, int time) {
+        times.put(athlete, time);
+        int index = time - event.getMinTime() + 1;
+        if (finishers.get(index) == null) {
+            finishers.set(index, new ArrayList<>());
+        }
+        finishers.get(index).add(athlete);
+        for (int i = index; i < tree.length; i += i & -i) {
+            tree[i]++;
+        }
+    }
+
+    /**
+     * @param index index of a time in the tree.
+     * @return the number of finishers at the times up to the index.
+     */
+    private int prefix(int index) {
+        int count = 0;
+        for (int i = index; i > 0; i -= i & -i) {
+            count += tree[i];
+        }
+        return count;
+    }
+
+    /**
+     * @param time a finish time of the event.
+     * @return the provisional rank an athlete finishing at the time has.
+     */
+    public synchronized int getRank(int time) {
+        int index = Math.min(Math.max(time - event.getMinTime(), 0),
+                tree.length - 1);
+        return prefix(index) + 1;
+    }
+
+    /**
+     * @param athlete an athlete who has finished.
+     * @return the provisional rank of the athlete.
+     */
+    public synchronized int getRank(Athlete athlete) {
+        Integer time = times.get(athlete);
+        if (time == null) {
+            throw new GameException("The athlete has not finished: "
+                    + athlete.toShortString());
+        }
+        return getRank(time);
+    }
+
+    /**
+     * Finds the time of the k-th finisher in rank order by descending the
+     * tree from its highest power of 2.
+     *
+     * @param k the position in rank order, from 1.
+     * @return the finish time at the position.
+     */
+    public synchronized int getTime(int k) {
+        if (k < 1 || k > times.size()) {
+            throw new GameException("No finisher at position " + k + ".");
+        }
+        int index = 0;
+        int remaining = k;
+        for (int bit = topBit; bit > 0; bit >>= 1) {
+            int next = index + bit;
+            if (next < tree.length && tree[next] < remaining) {
+                index = next;
+                remaining -= tree[next];
+            }
+        }
+        return index + event.getMinTime();
+    }
+
+    /**
+     * @return the number of athletes who have finished.
+     */
+    public synchronized int getFinished() {
+        return times.size();
+    }
+
+    /**
+     * @return the event being ranked.
+     */
+    public EventType getEvent() {
+        return event;
+    }
+
+    /**
+     * @return true if the event is closed.
+     */
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Closes the event and adds points to the top 3 finishers.
+     */
+    public synchronized void close() {
+        if (closed) {
+            throw new GameException("The event is closed.");
+        }
+        closed = true;
+        for (Map.Entry<Athlete, Integer> entry : times.entrySet()) {
+            entry.getKey().addPoints(Game.getPoints(getRank(entry
+                    .getValue())));
+        }
+    }
+
+    /**
+     * Displays the leading finishers, walking the ranks through the tree
+     * from one finish time to the next.
+     *
+     * @param limit the maximum number of finishers displayed.
+     */
+    public synchronized void displayLeaders(int limit) {
+        System.out.println(event + ", finished: " + times.size()
+                + (closed ? " (closed)" : ""));
+        int shown = 0;
+        for (int k = 1; k <= times.size() && shown < limit; ) {
+            int time = getTime(k);
+            List<Athlete> tied = finishers.get(time - event.getMinTime() + 1);
+            for (int i = 0; i < tied.size() && shown < limit; i++) {
+                System.out.printf("%-8d%-8d%s\n", k, time,
+                        tied.get(i).toShortString());
+                shown++;
+            }
+            k += tied.size();
+        }
+    }
+}
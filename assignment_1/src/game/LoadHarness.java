@@ -0,0 +1,323 @@
+package game;
+
+import participant.Athlete;
+
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load test of the whole simulation path: each worker creates a roster with
+ * its participant factory, then assembles games as GameData does, starts
+ * them, updates its leaderboard and queries the leaders.
+ *
+ * Games arrive at a fixed rate whatever the workers manage (an open model):
+ * every game has an intended start time, and its latency is measured from
+ * then rather than from when a worker got to it. A worker running behind
+ * therefore reports the time games waited for it, instead of silently
+ * sending fewer games (coordinated omission). A rate of 0 runs the games
+ * back to back and measures the latency of each game alone.
+ *
+ * The load first runs in warmup rounds whose latencies are dropped, until
+ * two rounds in a row spend almost no time in the JIT compiler and have a
+ * steady median latency, so the results measure compiled code rather than
+ * the compiler. Games are
+ * let go once measured: the leaderboard takes their points but does not
+ * keep them, so the load runs in a steady heap however long it lasts.
+ */
+public class LoadHarness {
+
+    // Number of leaders queried after each game.
+    private static final int LEADERS = 10;
+
+    // Default longest warmup time, in seconds.
+    public static final double WARMUP = 30;
+
+    // Time of a warmup round, in seconds.
+    private static final double WARMUP_ROUND = 0.5;
+
+    // Largest share of a steady warmup round spent compiling.
+    private static final double COMPILING = 0.02;
+
+    // Largest change of the median latency between steady warmup rounds.
+    private static final double DRIFT = 0.2;
+
+    // Number of worker threads.
+    private final int threads;
+
+    // Games per second arriving over all workers, or 0 for no limit.
+    private final double rate;
+
+    // Weight of each event, by ordinal.
+    private final int[] mix;
+
+    // Smallest and largest number of athletes of a game.
+    private final int minField;
+    private final int maxField;
+
+    // Number of athletes of each worker.
+    private final int numAthletes;
+
+    // Seed of the first worker's context.
+    private final long seed;
+
+    /**
+     * Constructor.
+     *
+     * @param threads     number of worker threads.
+     * @param rate        games per second arriving over all workers, or 0
+     *                    for no limit.
+     * @param mix         weight of each event, by ordinal.
+     * @param minField    smallest number of athletes of a game.
+     * @param maxField    largest number of athletes of a game.
+     * @param numAthletes number of athletes of each worker.
+     * @param seed        seed of the first worker's context, the others
+     *                    taking the next seeds.
+     */
+    public LoadHarness(int threads, double rate, int[] mix, int minField,
+                       int maxField, int numAthletes, long seed) {
+        if (threads < 1 || rate < 0) {
+            throw new GameException("Invalid number of threads or rate.");
+        }
+        if (mix.length != EventType.values().length) {
+            throw new GameException("A weight is required for each event.");
+        }
+        int total = 0;
+        for (int weight : mix) {
+            if (weight < 0) {
+                throw new GameException("Invalid event weight: " + weight);
+            }
+            total += weight;
+        }
+        if (total == 0) {
+            throw new GameException("At least one event must have a weight.");
+        }
+        if (minField < Game.MIN_ATHLETES || maxField > Game.MAX_ATHLETES
+                || minField > maxField) {
+            throw new GameException("Games have " + Game.MIN_ATHLETES
+                    + " to " + Game.MAX_ATHLETES + " athletes.");
+        }
+        this.threads = threads;
+        this.rate = rate;
+        this.mix = mix.clone();
+        this.minField = minField;
+        this.maxField = maxField;
+        this.numAthletes = numAthletes;
+        this.seed = seed;
+    }
+
+    /**
+     * Runs the load until it is warmed up, then for a time, and waits for
+     * the games started.
+     *
+     * @param seconds the time during which games arrive.
+     * @return the report of the run.
+     */
+    public LoadReport run(double seconds) {
+        return run(WARMUP, seconds);
+    }
+
+    /**
+     * Runs the load until it is warmed up, for at most a warmup time, then
+     * for a time, and waits for the games started. Only the games of the
+     * second time are reported.
+     *
+     * @param warmup  the longest time during which games arrive unmeasured.
+     * @param seconds the time during which games arrive.
+     * @return the report of the run.
+     */
+    public LoadReport run(double warmup, double seconds) {
+        if (warmup < 0 || seconds < 0) {
+            throw new GameException("Invalid warmup or load time.");
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Worker> workers = new ArrayList<>(threads);
+        try {
+            long setupStart = System.nanoTime();
+            for (int w = 0; w < threads; w++) {
+                workers.add(new Worker(w));
+            }
+            long warmupStart = System.nanoTime();
+            warmUp(executor, workers, warmupStart + (long) (warmup * 1e9));
+            long start = System.nanoTime();
+            LatencyHistogram latencies = run(executor, workers, start,
+                    start + (long) (seconds * 1e9));
+            long elapsed = System.nanoTime() - start;
+            List<MemoryReport> memory = new ArrayList<>(threads);
+            for (Worker worker : workers) {
+                memory.add(worker.context.getMemory().getReport());
+            }
+            return new LoadReport(threads, rate, mix, minField, maxField,
+                    numAthletes, (start - warmupStart) / 1e9, seconds,
+                    (warmupStart - setupStart) / 1e9, elapsed / 1e9,
+                    latencies, MemoryReport.sum(memory));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GameException("Interrupted while running load.");
+        } catch (ExecutionException e) {
+            throw new GameException("Load failed: "
+                    + e.getCause().getMessage());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Runs the workers in warmup rounds until two rounds in a row are
+     * steady or the warmup ends.
+     *
+     * @param executor the threads of the workers.
+     * @param workers  the workers.
+     * @param end      the time after which the warmup stops.
+     * @throws InterruptedException if interrupted while waiting.
+     * @throws ExecutionException   if a worker fails.
+     */
+    private static void warmUp(ExecutorService executor, List<Worker> workers,
+                               long end)
+            throws InterruptedException, ExecutionException {
+        CompilationMXBean compiler = ManagementFactory.getCompilationMXBean();
+        boolean timed = compiler != null
+                && compiler.isCompilationTimeMonitoringSupported();
+        long median = -1;
+        int steady = 0;
+        long start;
+        while (steady < 2 && (start = System.nanoTime()) < end) {
+            long compiling = timed ? compiler.getTotalCompilationTime() : 0;
+            LatencyHistogram latencies = run(executor, workers, start,
+                    Math.min(end, start + (long) (WARMUP_ROUND * 1e9)));
+            compiling = timed ? compiler.getTotalCompilationTime()
+                    - compiling : 0;
+            long last = median;
+            median = latencies.getQuantile(0.5);
+            if (compiling <= COMPILING * WARMUP_ROUND * 1e3 && last >= 0
+                    && Math.abs(median - last) <= DRIFT * last) {
+                steady++;
+            } else {
+                steady = 0;
+            }
+        }
+    }
+
+    /**
+     * Runs the workers from a start time to an end time.
+     *
+     * @param executor the threads of the workers.
+     * @param workers  the workers.
+     * @param start    the time the load starts.
+     * @param end      the time after which no game arrives.
+     * @return the latencies of the games of all workers.
+     * @throws InterruptedException if interrupted while waiting.
+     * @throws ExecutionException   if a worker fails.
+     */
+    private static LatencyHistogram run(ExecutorService executor,
+                                        List<Worker> workers, long start,
+                                        long end)
+            throws InterruptedException, ExecutionException {
+        List<Future<LatencyHistogram>> futures = new ArrayList<>();
+        for (Worker worker : workers) {
+            futures.add(executor.submit(() -> worker.run(start, end)));
+        }
+        LatencyHistogram latencies = new LatencyHistogram();
+        for (Future<LatencyHistogram> future : futures) {
+            latencies.merge(future.get());
+        }
+        return latencies;
+    }
+
+    /**
+     * Worker with its own context, roster and leaderboard.
+     */
+    private class Worker {
+
+        // Index of the worker.
+        private final int index;
+
+        // Context of the worker.
+        private final SimulationContext context;
+
+        // Athletes of the worker.
+        private final List<Athlete> athletes;
+
+        // Leaderboard of the worker.
+        private final GameQuery query;
+
+        // Sum of the weights of the events.
+        private final int totalWeight;
+
+        Worker(int index) {
+            this.index = index;
+            this.context = new SimulationContext(numAthletes, 0,
+                    seed + index);
+            List<Athlete> list = new ArrayList<>(numAthletes);
+            for (int i = 0; i < numAthletes; i++) {
+                list.add(context.getFactory().createAthlete());
+            }
+            GameData.checkAthletes(list);
+            this.athletes = list;
+            this.query = new GameQuery(list, new ArrayList<>(),
+                    context.getMemory());
+            int total = 0;
+            for (int weight : mix) {
+                total += weight;
+            }
+            this.totalWeight = total;
+        }
+
+        /**
+         * Runs games until the end of the load.
+         *
+         * @param start the time the load starts.
+         * @param end   the time after which no game arrives.
+         * @return the latencies of the games.
+         */
+        LatencyHistogram run(long start, long end) {
+            LatencyHistogram latencies = new LatencyHistogram();
+            RandomUtil random = context.getRandom();
+
+            // Each worker takes every threads-th arrival.
+            double interval = rate == 0 ? 0 : threads * 1e9 / rate;
+            double next = start + interval * index / threads;
+            while (true) {
+                long intended = rate == 0 ? System.nanoTime() : (long) next;
+                if (intended >= end) {
+                    break;
+                }
+                long wait;
+                while ((wait = intended - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+
+                Game game = GameData.createGame(context, athletes,
+                        event(random.generate(0, totalWeight - 1)),
+                        random.generate(minField, maxField));
+                game.startGame(false);
+                query.updatePoints(game);
+                query.leaders(LEADERS);
+                latencies.record(System.nanoTime() - intended);
+                game.discard();
+                next += interval;
+            }
+            return latencies;
+        }
+
+        /**
+         * @param ticket a number below the sum of the weights.
+         * @return the event the number falls on.
+         */
+        private EventType event(int ticket) {
+            for (EventType event : EventType.values()) {
+                ticket -= mix[event.ordinal()];
+                if (ticket < 0) {
+                    return event;
+                }
+            }
+            throw new GameException("Invalid event ticket.");
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package game;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Locale;
+
+/**
+ * Report of a load test run by LoadHarness.
+ *
+ * The report is written as one JSON object with the configuration, the
+ * machine and the results, so runs on the same machine can be compared
+ * across releases. Latencies are in microseconds.
+ */
+public class LoadReport {
+
+    // Number of worker threads.
+    private final int threads;
+
+    // Games per second arriving, or 0 for no limit.
+    private final double rate;
+
+    // Weight of each event, by ordinal.
+    private final int[] mix;
+
+    // Smallest and largest number of athletes of a game.
+    private final int minField;
+    private final int maxField;
+
+    // Number of athletes of each worker.
+    private final int numAthletes;
+
+    // Time warming up, in seconds.
+    private final double warmup;
+
+    // Time during which games arrived, in seconds.
+    private final double duration;
+
+    // Time creating the rosters, in seconds.
+    private final double setup;
+
+    // Time until the last game ended, in seconds.
+    private final double elapsed;
+
+    // Latencies of the games, in nanoseconds.
+    private final LatencyHistogram latencies;
+
+    // Estimated memory of all workers at the end of the run.
+    private final MemoryReport memory;
+
+    LoadReport(int threads, double rate, int[] mix, int minField,
+               int maxField, int numAthletes, double warmup,
+               double duration, double setup, double elapsed,
+               LatencyHistogram latencies, MemoryReport memory) {
+        this.threads = threads;
+        this.rate = rate;
+        this.mix = mix.clone();
+        this.minField = minField;
+        this.maxField = maxField;
+        this.numAthletes = numAthletes;
+        this.warmup = warmup;
+        this.duration = duration;
+        this.setup = setup;
+        this.elapsed = elapsed;
+        this.latencies = latencies;
+        this.memory = memory;
+    }
+
+    /**
+     * @return the number of games run.
+     */
+    public long getGames() {
+        return latencies.getCount();
+    }
+
+    /**
+     * @return the games run per second.
+     */
+    public double getThroughput() {
+        return elapsed == 0 ? 0 : latencies.getCount() / elapsed;
+    }
+
+    /**
+     * @return the latencies of the games, in nanoseconds.
+     */
+    public LatencyHistogram getLatencies() {
+        return latencies;
+    }
+
+    /**
+     * @return the estimated memory of all workers at the end of the run.
+     */
+    public MemoryReport getMemory() {
+        return memory;
+    }
+
+    /**
+     * @param quantile a quantile.
+     * @return the latency at the quantile in microseconds.
+     */
+    private double micros(double quantile) {
+        return latencies.getQuantile(quantile) / 1e3;
+    }
+
+    /**
+     * @return the report as a JSON object.
+     */
+    public String toJson() {
+        StringBuilder json = new StringBuilder("{");
+        json.append("\"timestamp\":\"").append(Instant.now()).append("\",");
+        json.append("\"java\":\"").append(System.getProperty("java.version"))
+                .append("\",");
+        json.append("\"os\":\"").append(System.getProperty("os.name"))
+                .append(' ').append(System.getProperty("os.arch"))
+                .append("\",");
+        json.append("\"processors\":")
+                .append(Runtime.getRuntime().availableProcessors())
+                .append(',');
+        json.append("\"threads\":").append(threads).append(',');
+        json.append(String.format(Locale.ROOT, "\"rate\":%.1f,", rate));
+        json.append("\"mix\":{");
+        for (EventType event : EventType.values()) {
+            json.append(event.ordinal() == 0 ? "" : ",").append('"')
+                    .append(event.toString().toLowerCase()).append("\":")
+                    .append(mix[event.ordinal()]);
+        }
+        json.append("},");
+        json.append("\"field\":[").append(minField).append(',')
+                .append(maxField).append("],");
+        json.append("\"athletes\":").append(numAthletes).append(',');
+        json.append(String.format(Locale.ROOT, "\"warmup\":%.3f,"
+                + "\"duration\":%.3f,\"setup\":%.3f,\"elapsed\":%.3f,",
+                warmup, duration, setup, elapsed));
+        json.append("\"games\":").append(getGames()).append(',');
+        json.append(String.format(Locale.ROOT, "\"gamesPerSecond\":%.1f,",
+                getThroughput()));
+        json.append(String.format(Locale.ROOT, "\"latencyMicros\":{"
+                        + "\"mean\":%.1f,\"p50\":%.1f,\"p99\":%.1f,"
+                        + "\"p999\":%.1f,\"max\":%.1f}",
+                latencies.getMean() / 1e3, micros(0.5), micros(0.99),
+                micros(0.999), latencies.getMax() / 1e3));
+        json.append(",\"memory\":").append(memory.toJson());
+        return json.append('}').toString();
+    }
+
+    /**
+     * Writes the report as a line of JSON to a file.
+     *
+     * @param file the file.
+     * @throws IOException if the file cannot be written.
+     */
+    public void write(Path file) throws IOException {
+        Files.write(file, (toJson() + System.lineSeparator())
+                .getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Displays the report.
+     */
+    public void displayReport() {
+        System.out.printf("Games    : %d in %.3f s (%.0f games/s)\n",
+                getGames(), elapsed, getThroughput());
+        System.out.printf("Latency  : p50 %.1f us, p99 %.1f us, "
+                        + "p99.9 %.1f us, max %.1f us\n", micros(0.5),
+                micros(0.99), micros(0.999), latencies.getMax() / 1e3);
+        System.out.printf("Memory   : %d bytes retained, %.0f bytes/athlete, "
+                        + "%d games retained\n", memory.getTotalBytes(),
+                memory.getBytesPerObject(Subsystem.ATHLETES),
+                memory.getObjects(Subsystem.GAMES));
+    }
+}
@@ -0,0 +1,114 @@
+package game;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Estimated heap retained by each subsystem of a context.
+ *
+ * Nothing walks the heap: every subsystem adds the estimated size of its
+ * objects when it creates them and takes it back when it lets them go, so
+ * a report is a copy of a few counters. The sizes follow a 64-bit JVM with
+ * compressed references: a 12 byte object header, 4 byte references and
+ * objects padded to 8 bytes. Strings shared between objects, such as the
+ * names of the participant factory, are not counted.
+ */
+public class MemoryAccounting {
+
+    // Size of an object header.
+    static final int HEADER = 12;
+
+    // Size of a reference.
+    static final int REFERENCE = 4;
+
+    // Size of an array header.
+    static final int ARRAY_HEADER = 16;
+
+    // Size of an entry of a hash map, with its boxed integer key.
+    static final int MAP_ENTRY = 32 + 16 + REFERENCE;
+
+    // Size of an athlete whose name and state are shared strings.
+    static final int ATHLETE = align(HEADER + 4 * 4 + 8 + 4);
+
+    // Size of an ArrayList with no elements.
+    static final int LIST = align(HEADER + 2 * 4 + REFERENCE);
+
+    // Estimated bytes, by subsystem.
+    private final AtomicLongArray bytes =
+            new AtomicLongArray(Subsystem.values().length);
+
+    // Number of objects, by subsystem.
+    private final AtomicLongArray objects =
+            new AtomicLongArray(Subsystem.values().length);
+
+    /**
+     * Accounts for a new object.
+     *
+     * @param subsystem the subsystem of the object.
+     * @param size      the estimated size of the object.
+     */
+    public void allocate(Subsystem subsystem, long size) {
+        bytes.addAndGet(subsystem.ordinal(), size);
+        objects.incrementAndGet(subsystem.ordinal());
+    }
+
+    /**
+     * Accounts for an object let go.
+     *
+     * @param subsystem the subsystem of the object.
+     * @param size      the estimated size of the object.
+     */
+    public void release(Subsystem subsystem, long size) {
+        bytes.addAndGet(subsystem.ordinal(), -size);
+        objects.decrementAndGet(subsystem.ordinal());
+    }
+
+    /**
+     * Accounts for an object growing or shrinking.
+     *
+     * @param subsystem the subsystem of the object.
+     * @param delta     the change of the estimated size.
+     */
+    public void resize(Subsystem subsystem, long delta) {
+        bytes.addAndGet(subsystem.ordinal(), delta);
+    }
+
+    /**
+     * @return a snapshot of the accounting.
+     */
+    public MemoryReport getReport() {
+        long[] sizes = new long[Subsystem.values().length];
+        long[] counts = new long[sizes.length];
+        for (int i = 0; i < sizes.length; i++) {
+            sizes[i] = bytes.get(i);
+            counts[i] = objects.get(i);
+        }
+        return new MemoryReport(sizes, counts);
+    }
+
+    /**
+     * @param size a size.
+     * @return the size padded to 8 bytes.
+     */
+    static int align(long size) {
+        return (int) ((size + 7) & ~7L);
+    }
+
+    /**
+     * @param elementSize size of an element.
+     * @param length      number of elements.
+     * @return the size of an array.
+     */
+    static int array(int elementSize, int length) {
+        return align(ARRAY_HEADER + (long) elementSize * length);
+    }
+
+    /**
+     * @param text a string, or null.
+     * @return the size of the string and its bytes, taking one byte per
+     * character as for Latin-1 text.
+     */
+    static int string(String text) {
+        return text == null ? 0 : align(HEADER + 4 + 4 + REFERENCE + 1)
+                + array(1, text.length());
+    }
+}
@@ -0,0 +1,114 @@
+package game;
+
+import java.util.Locale;
+
+/**
+ * Snapshot of the memory accounting of a context: estimated bytes and
+ * number of objects, by subsystem.
+ */
+public class MemoryReport {
+
+    // Estimated bytes, by subsystem.
+    private final long[] bytes;
+
+    // Number of objects, by subsystem.
+    private final long[] objects;
+
+    /**
+     * Constructor.
+     *
+     * @param bytes   estimated bytes, by subsystem.
+     * @param objects number of objects, by subsystem.
+     */
+    MemoryReport(long[] bytes, long[] objects) {
+        this.bytes = bytes;
+        this.objects = objects;
+    }
+
+    /**
+     * Adds up reports, e.g. of contexts running side by side.
+     *
+     * @param reports the reports.
+     * @return the sum of the reports.
+     */
+    public static MemoryReport sum(Iterable<MemoryReport> reports) {
+        long[] bytes = new long[Subsystem.values().length];
+        long[] objects = new long[bytes.length];
+        for (MemoryReport report : reports) {
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] += report.bytes[i];
+                objects[i] += report.objects[i];
+            }
+        }
+        return new MemoryReport(bytes, objects);
+    }
+
+    /**
+     * @param subsystem a subsystem.
+     * @return the estimated bytes retained by the subsystem.
+     */
+    public long getBytes(Subsystem subsystem) {
+        return bytes[subsystem.ordinal()];
+    }
+
+    /**
+     * @param subsystem a subsystem.
+     * @return the number of objects of the subsystem, e.g. athletes for
+     * ATHLETES and games for GAMES.
+     */
+    public long getObjects(Subsystem subsystem) {
+        return objects[subsystem.ordinal()];
+    }
+
+    /**
+     * @param subsystem a subsystem.
+     * @return the estimated bytes per object of the subsystem, or 0 if it
+     * has no object.
+     */
+    public double getBytesPerObject(Subsystem subsystem) {
+        long count = objects[subsystem.ordinal()];
+        return count == 0 ? 0 : (double) bytes[subsystem.ordinal()] / count;
+    }
+
+    /**
+     * @return the estimated bytes retained by all subsystems.
+     */
+    public long getTotalBytes() {
+        long total = 0;
+        for (long size : bytes) {
+            total += size;
+        }
+        return total;
+    }
+
+    /**
+     * @return the report as a JSON object.
+     */
+    public String toJson() {
+        StringBuilder json = new StringBuilder("{");
+        for (Subsystem subsystem : Subsystem.values()) {
+            json.append('"').append(subsystem.toString().toLowerCase())
+                    .append("\":{\"bytes\":").append(getBytes(subsystem))
+                    .append(",\"objects\":").append(getObjects(subsystem))
+                    .append(String.format(Locale.ROOT,
+                            ",\"bytesPerObject\":%.1f},",
+                            getBytesPerObject(subsystem)));
+        }
+        return json.append("\"total\":").append(getTotalBytes()).append('}')
+                .toString();
+    }
+
+    /**
+     * Displays the report.
+     */
+    public void displayReport() {
+        System.out.printf("%-14s%-14s%-12s%-12s\n", "Subsystem", "Bytes",
+                "Objects", "Bytes/obj");
+        for (Subsystem subsystem : Subsystem.values()) {
+            System.out.printf("%-14s%-14d%-12d%-12.1f\n",
+                    subsystem.toString().toLowerCase(), getBytes(subsystem),
+                    getObjects(subsystem), getBytesPerObject(subsystem));
+        }
+        System.out.printf("%-14s%-14d\n", "total", getTotalBytes());
+    }
+}
@@ -2,7 +2,8 @@ package game;
 
 import participant.Athlete;
 
-import java.util.Collections;
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.List;
 import java.util.Scanner;
 
@@ -16,6 +17,11 @@ public class Ozlympic {
      */
     private static final Scanner INPUT = new Scanner(System.in);
 
+    /**
+     * Number of games or athletes listed at once.
+     */
+    private static final int PAGE_SIZE = 20;
+
     /**
      * Prompts the user to enter a number in the specified range.
      *
@@ -40,6 +46,22 @@ public class Ozlympic {
         }
     }
 
+    /**
+     * Prompts the user to select a page of a list if the list is longer than
+     * a page.
+     *
+     * @param size the size of the list.
+     * @return the index of the first item of the page.
+     */
+    private static int selectPage(int size) {
+        if (size <= PAGE_SIZE) {
+            return 0;
+        }
+        int pages = (size + PAGE_SIZE - 1) / PAGE_SIZE;
+        return (input("Enter a page (1 ~ " + pages + "): ", 1, pages) - 1)
+                * PAGE_SIZE;
+    }
+
     /**
      * Displays the menu.
      */
@@ -63,14 +85,15 @@ public class Ozlympic {
     private static Game selectGame(GameData data) {
         System.out.println("Select a game:");
 
-        // List the games.
-        int i;
+        // List the games of a page.
         int numGames = data.getGames().size();
-        for (i = 0; i < numGames; i++) {
+        int first = selectPage(numGames);
+        int last = Math.min(first + PAGE_SIZE, numGames);
+        for (int i = first; i < last; i++) {
             Game game = data.getGames().get(i);
             System.out.println("  " + (i + 1) + ". " + game);
         }
-        System.out.println("  " + (i + 1) + ". Cancel");
+        System.out.println("  " + (numGames + 1) + ". Cancel");
 
         // Enter an options.
         int option = input("Enter an option: ", 1, numGames + 1);
@@ -125,10 +148,12 @@ public class Ozlympic {
     /**
      * Starts the game.
      *
+     * @param data            Game data.
      * @param game            the current game.
      * @param predictedWinner the predicted winner.
      */
-    private static void startGame(Game game, Athlete predictedWinner) {
+    private static void startGame(GameData data, Game game,
+                                  Athlete predictedWinner) {
         // Validation.
         if (game == null) {
             throw new GameException("Select a game first.");
@@ -139,6 +164,7 @@ public class Ozlympic {
 
         // Start the game.
         game.startGame();
+        data.gameFinished(game);
 
         // Check the prediction.
         if (predictedWinner != null) {
@@ -152,36 +178,75 @@ public class Ozlympic {
     }
 
     /**
-     * Displays the final results of all games.
+     * Displays the final results of all games, a page at a time if there
+     * are many.
      *
      * @param games list of the games.
      */
     private static void displayGameResults(List<Game> games) {
-        for (Game game : games) {
-            game.displayGameResults();
+        int first = selectPage(games.size());
+        int last = Math.min(first + PAGE_SIZE, games.size());
+        for (int i = first; i < last; i++) {
+            games.get(i).displayGameResults();
         }
     }
 
     /**
-     * Displays the points of all athletes
+     * Displays the points of all athletes, a page at a time if there are
+     * many.
      *
-     * @param athletes list of the athletes.
+     * @param sorted  the athletes, most points first.
+     * @param ratings ratings of the athletes.
      */
-    private static void displayAthletePoints(List<Athlete> athletes) {
-        Collections.sort(athletes);
-        System.out.printf("%-6s%-18s%-15s%-6s%-8s%-10s\n", "Rank", "Athlete",
-                "Type", "Age", "State", "Points");
-        for (int i = 0; i < athletes.size(); i++) {
-            Athlete athlete = athletes.get(i);
-            System.out.printf("%-6d%-18s%-15s%-6d%-8s%-10d\n", i + 1,
-                    athlete.toShortString(),
+    private static void displayAthletePoints(List<Athlete> sorted,
+                                             RatingEngine ratings) {
+        int first = selectPage(sorted.size());
+        int last = Math.min(first + PAGE_SIZE, sorted.size());
+        System.out.printf("%-6s%-18s%-15s%-6s%-8s%-10s%-8s\n", "Rank",
+                "Athlete", "Type", "Age", "State", "Points", "Rating");
+        for (int i = first; i < last; i++) {
+            Athlete athlete = sorted.get(i);
+            System.out.printf("%-6d%-18s%-15s%-6d%-8s%-10d%-8.0f\n",
+                    i + 1, athlete.toShortString(),
                     athlete.getClass().getSimpleName(),athlete.getAge(),
-                    athlete.getState(), athlete.getPoints());
+                    athlete.getState(), athlete.getPoints(),
+                    ratings.getRating(athlete));
         }
     }
 
     public static void main(String[] args) {
-        GameData data = new GameData();
+        // Run without the menu if any options but an archive are given.
+        if (args.length > 0 && !args[0].equals("--archive")) {
+            if (!Batch.run(args)) {
+                System.exit(1);
+            }
+            return;
+        }
+
+        GameData data;
+        if (args.length > 0) {
+            // Browse the games of an archive, listed block by block.
+            if (args.length != 2) {
+                System.out.println("Usage: --archive FILE");
+                System.exit(1);
+            }
+            try {
+                data = ArchivedGameData.open(Paths.get(args[1]),
+                        ArchivedGameData.CACHE_SIZE);
+            } catch (GameException | IOException e) {
+                System.out.println("Error: " + e.getMessage());
+                System.exit(1);
+                return;
+            }
+        } else {
+            try {
+                data = new GameData();
+            } catch (GameException e) {
+                System.out.println("Error: " + e.getMessage());
+                System.exit(1);
+                return;
+            }
+        }
         boolean exit = false;
         Game currentGame = null;
         Athlete predictedWinner = null;
@@ -196,14 +261,15 @@ public class Ozlympic {
                         predictedWinner = predictGame(currentGame);
                         break;
                     case 3:
-                        startGame(currentGame, predictedWinner);
+                        startGame(data, currentGame, predictedWinner);
                         predictedWinner = null;
                         break;
                     case 4:
                         displayGameResults(data.getGames());
                         break;
                     case 5:
-                        displayAthletePoints(data.getAthletes());
+                        displayAthletePoints(data.getAthletesByPoints(),
+                                data.getRatings());
                         break;
                     case 6:
                         exit = true;
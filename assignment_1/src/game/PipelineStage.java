@@ -0,0 +1,149 @@
+package game;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Stage of a simulation pipeline, processing the items of the previous
+ * stage on a number of threads and publishing the results to the next one.
+ *
+ * The stage never asks for more items than its batch size beyond those it
+ * has finished, and its output buffer holds at most a batch. When the next
+ * stage falls behind, publishing blocks the threads of this stage, which
+ * then stop asking for items, so a slow stage throttles all stages before
+ * it instead of letting items pile up.
+ *
+ * @param <T> type of the items received.
+ * @param <R> type of the items published.
+ */
+public class PipelineStage<T, R> extends SubmissionPublisher<R>
+        implements Flow.Processor<T, R> {
+
+    // Name of the stage.
+    private final String name;
+
+    // Processing of an item; a null result is not published.
+    private final Function<T, R> function;
+
+    // Number of threads of the stage.
+    private final int parallelism;
+
+    // Number of items the stage may hold at once.
+    private final int batchSize;
+
+    // Threads processing the items.
+    private final ExecutorService workers;
+
+    // Subscription to the previous stage.
+    private Flow.Subscription subscription;
+
+    // Number of items processed.
+    private final AtomicLong processed = new AtomicLong();
+
+    // Number of items received but not processed yet.
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    // Largest queue depth seen.
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+
+    /**
+     * Constructor.
+     *
+     * @param name        name of the stage.
+     * @param function    processing of an item.
+     * @param parallelism number of threads of the stage.
+     * @param batchSize   number of items the stage may hold at once.
+     * @param delivery    executor delivering the items to the next stage,
+     *                    which must not run out of threads while stages
+     *                    wait for each other.
+     */
+    public PipelineStage(String name, Function<T, R> function,
+                         int parallelism, int batchSize, Executor delivery) {
+        super(delivery, batchSize);
+        if (parallelism < 1 || batchSize < 1) {
+            throw new GameException("Invalid parallelism or batch size of "
+                    + name);
+        }
+        this.name = name;
+        this.function = function;
+        this.parallelism = parallelism;
+        this.batchSize = batchSize;
+        this.workers = Executors.newFixedThreadPool(parallelism);
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(batchSize);
+    }
+
+    @Override
+    public void onNext(T item) {
+        inFlight.incrementAndGet();
+        workers.execute(() -> {
+            try {
+                R result = function.apply(item);
+                if (result != null) {
+                    submit(result);
+                    maxQueueDepth.accumulateAndGet(estimateMaximumLag(),
+                            Math::max);
+                }
+                processed.incrementAndGet();
+            } catch (RuntimeException e) {
+                subscription.cancel();
+                workers.shutdown();
+                closeExceptionally(e);
+                return;
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            subscription.request(1);
+        });
+    }
+
+    @Override
+    public void onError(Throwable error) {
+        workers.shutdownNow();
+        closeExceptionally(error);
+    }
+
+    @Override
+    public void onComplete() {
+        // Finish the items received before completing the next stage.
+        workers.shutdown();
+        try {
+            workers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        close();
+    }
+
+    /**
+     * Stops the stage when the pipeline fails, dropping the items it
+     * holds, so that its threads do not outlive the run.
+     */
+    public void abort() {
+        if (subscription != null) {
+            subscription.cancel();
+        }
+        workers.shutdownNow();
+        close();
+    }
+
+    /**
+     * @return a snapshot of the metrics of the stage.
+     */
+    public StageMetrics getMetrics() {
+        return new StageMetrics(name, parallelism, batchSize,
+                processed.get(), inFlight.get(), estimateMaximumLag(),
+                maxQueueDepth.get());
+    }
+}
@@ -10,7 +10,23 @@ public class RandomUtil {
     /**
      * Random number generator.
      */
-    private static final Random RANDOM = new Random();
+    private final Random random;
+
+    /**
+     * Constructor.
+     */
+    public RandomUtil() {
+        this.random = new Random();
+    }
+
+    /**
+     * Constructor for repeatable random numbers.
+     *
+     * @param seed the seed.
+     */
+    public RandomUtil(long seed) {
+        this.random = new Random(seed);
+    }
 
     /**
      * Generates a number in the specified range.
@@ -19,7 +35,17 @@ public class RandomUtil {
      * @param max upper bound of the random number.
      * @return the number generated.
      */
-    public static int generate(int min, int max) {
-        return RANDOM.nextInt(max - min + 1) + min;
+    public int generate(int min, int max) {
+        return random.nextInt(max - min + 1) + min;
+    }
+
+    /**
+     * Sets the seed of the generator, so the numbers generated afterwards
+     * are repeatable.
+     *
+     * @param seed the seed.
+     */
+    public void setSeed(long seed) {
+        random.setSeed(seed);
     }
 }
@@ -0,0 +1,83 @@
+package game;
+
+import java.util.Arrays;
+
+/**
+ * Rating changes of athletes, collected from games rated on one thread.
+ *
+ * The changes are kept by athlete id together with the list of ids changed,
+ * so merging and applying a batch only visits the athletes it touched.
+ */
+public class RatingBatch {
+
+    // Rating changes by athlete id.
+    private double[] changes = new double[64];
+
+    // Whether an id has a change, by athlete id.
+    private boolean[] touched = new boolean[64];
+
+    // Ids with a change.
+    private int[] ids = new int[16];
+
+    // Number of ids with a change.
+    private int size;
+
+    // Largest id with a change.
+    private int maxId = -1;
+
+    /**
+     * Adds a rating change of an athlete.
+     *
+     * @param id     id of the athlete.
+     * @param change the rating change.
+     */
+    public void add(int id, double change) {
+        if (id >= changes.length) {
+            int length = Math.max(id + 1, changes.length * 2);
+            changes = Arrays.copyOf(changes, length);
+            touched = Arrays.copyOf(touched, length);
+        }
+        if (!touched[id]) {
+            touched[id] = true;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+            maxId = Math.max(maxId, id);
+        }
+        changes[id] += change;
+    }
+
+    /**
+     * Merges the changes of another batch into this one.
+     *
+     * @param other the batch to be merged.
+     */
+    public void merge(RatingBatch other) {
+        for (int i = 0; i < other.size; i++) {
+            add(other.ids[i], other.changes[other.ids[i]]);
+        }
+    }
+
+    /**
+     * Adds the changes to the ratings and empties the batch.
+     *
+     * @param ratings the ratings by athlete id, covering the largest id.
+     */
+    void addTo(double[] ratings) {
+        for (int i = 0; i < size; i++) {
+            ratings[ids[i]] += changes[ids[i]];
+            changes[ids[i]] = 0;
+            touched[ids[i]] = false;
+        }
+        size = 0;
+        maxId = -1;
+    }
+
+    /**
+     * @return the largest id with a change, or -1 if there is none.
+     */
+    int getMaxId() {
+        return maxId;
+    }
+}
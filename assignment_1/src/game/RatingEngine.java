@@ -0,0 +1,132 @@
+package game;
+
+import participant.Athlete;
+
+import java.util.Arrays;
+
+/**
+ * Elo ratings of the athletes, updated from finished games.
+ *
+ * A game of n athletes counts as a match between every pair of them: the
+ * faster athlete of a pair wins, and equal times are a draw. Each athlete
+ * moves by K / (n - 1) times the sum of its actual minus expected scores, so
+ * a game moves a rating by at most K whatever its size.
+ *
+ * Games finished on different threads can each be rated into their own
+ * RatingBatch, which only holds rating changes. Changes of the same athlete
+ * simply add up, so the batches can be merged in any order and applied at
+ * once, as SimulationPipeline does with the games of its simulating
+ * threads. Games are rated from their published results, which do not
+ * change when the game is run again.
+ */
+public class RatingEngine {
+
+    // Rating of a new athlete.
+    public static final double INITIAL_RATING = 1500;
+
+    // Largest change of a rating in one game.
+    static final double K = 32;
+
+    // ln(10) / 400, turning a rating difference into an exponent of e.
+    private static final double SCALE = Math.log(10) / 400;
+
+    // Ratings by athlete id. The array is never changed once published:
+    // applying a batch publishes a changed copy, so it is read without
+    // locking and readers see all the changes of a batch or none.
+    private volatile double[] ratings = new double[0];
+
+    // Memory the published ratings are accounted for in.
+    private final MemoryAccounting memory;
+
+    /**
+     * Constructor.
+     *
+     * @param memory memory the ratings are accounted for in, as part of the
+     *               leaderboard.
+     */
+    public RatingEngine(MemoryAccounting memory) {
+        this.memory = memory;
+        memory.allocate(Subsystem.LEADERBOARD, MemoryAccounting.array(8, 0));
+    }
+
+    /**
+     * Rates a finished game and applies the changes at once.
+     *
+     * @param game the finished game.
+     */
+    public synchronized void record(Game game) {
+        GameResult result = game.getResult();
+        if (result == null) {
+            throw new GameException("The game is not finished: " + game);
+        }
+        RatingBatch batch = new RatingBatch();
+        rate(result, batch);
+        apply(batch);
+    }
+
+    /**
+     * Rates the results of a game into a batch, against the current
+     * ratings.
+     *
+     * @param result the results of the game.
+     * @param batch  the batch the changes are added to.
+     */
+    public void rate(GameResult result, RatingBatch batch) {
+        int n = result.size();
+        double weight = K / (n - 1);
+
+        double[] ratings = new double[n];
+        double[] changes = new double[n];
+        for (int i = 0; i < n; i++) {
+            ratings[i] = getRating(result.getAthlete(i));
+        }
+
+        // Score each pair once: what one athlete gains the other loses.
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                double expected = 1 / (1 + Math.exp((ratings[j] - ratings[i])
+                        * SCALE));
+                double actual = result.getTime(i) < result.getTime(j) ? 1
+                        : result.getTime(i) == result.getTime(j) ? 0.5 : 0;
+                changes[i] += actual - expected;
+                changes[j] -= actual - expected;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            batch.add(result.getAthlete(i).getId(), weight * changes[i]);
+        }
+    }
+
+    /**
+     * Applies the changes of a batch to a copy of the ratings and publishes
+     * the copy, leaving the batch empty for reuse. Only the published
+     * ratings are accounted for, not the copies being made.
+     *
+     * @param batch the batch.
+     */
+    public synchronized void apply(RatingBatch batch) {
+        double[] old = ratings;
+        int length = old.length;
+        if (batch.getMaxId() >= length) {
+            length = Math.max(batch.getMaxId() + 1, length * 2);
+        }
+        double[] current = Arrays.copyOf(old, length);
+        Arrays.fill(current, old.length, length, INITIAL_RATING);
+        batch.addTo(current);
+        ratings = current;
+        if (length != old.length) {
+            memory.resize(Subsystem.LEADERBOARD, MemoryAccounting.array(8,
+                    length) - MemoryAccounting.array(8, old.length));
+        }
+    }
+
+    /**
+     * @param athlete the athlete.
+     * @return the rating of the athlete.
+     */
+    public double getRating(Athlete athlete) {
+        double[] current = ratings;
+        int id = athlete.getId();
+        return id < current.length ? current[id] : INITIAL_RATING;
+    }
+}
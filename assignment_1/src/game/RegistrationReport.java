@@ -0,0 +1,128 @@
+package game;
+
+import java.util.Arrays;
+
+/**
+ * Outcome of a bulk registration.
+ *
+ * Rejected entries are kept as the index of the entry and the ordinal of
+ * its rejection in primitive arrays, so a report of millions of rejects
+ * stays compact and nothing is thrown per entry.
+ */
+public class RegistrationReport {
+
+    // Number of entries accepted.
+    private int accepted;
+
+    // Indexes of the rejected entries.
+    private int[] entries = new int[16];
+
+    // Rejections of the rejected entries, by ordinal.
+    private byte[] reasons = new byte[16];
+
+    // Number of rejected entries.
+    private int size;
+
+    // Number of rejected entries per rejection.
+    private final int[] counts = new int[Rejection.values().length];
+
+    // Indexes of the games not ready to start after the registration.
+    private int[] unready = new int[0];
+
+    /**
+     * Records an accepted entry.
+     */
+    void accept() {
+        accepted++;
+    }
+
+    /**
+     * Records a rejected entry.
+     *
+     * @param entry  index of the entry.
+     * @param reason the rejection.
+     */
+    void reject(int entry, Rejection reason) {
+        if (size == entries.length) {
+            entries = Arrays.copyOf(entries, size * 2);
+            reasons = Arrays.copyOf(reasons, size * 2);
+        }
+        entries[size] = entry;
+        reasons[size] = (byte) reason.ordinal();
+        size++;
+        counts[reason.ordinal()]++;
+    }
+
+    /**
+     * Sets the games not ready to start.
+     *
+     * @param games indexes of the games.
+     */
+    void setUnready(int[] games) {
+        this.unready = games;
+    }
+
+    /**
+     * @return the number of entries accepted.
+     */
+    public int getAccepted() {
+        return accepted;
+    }
+
+    /**
+     * @return the number of entries rejected.
+     */
+    public int getRejected() {
+        return size;
+    }
+
+    /**
+     * @param i index among the rejected entries.
+     * @return the index of the rejected entry.
+     */
+    public int getEntry(int i) {
+        return entries[i];
+    }
+
+    /**
+     * @param i index among the rejected entries.
+     * @return the rejection of the entry.
+     */
+    public Rejection getReason(int i) {
+        return Rejection.values()[reasons[i]];
+    }
+
+    /**
+     * @param reason the rejection.
+     * @return the number of entries rejected for the reason.
+     */
+    public int getCount(Rejection reason) {
+        return counts[reason.ordinal()];
+    }
+
+    /**
+     * @return the indexes of the games without a referee or with fewer than
+     * the minimum number of athletes after the registration.
+     */
+    public int[] getUnreadyGames() {
+        return unready.clone();
+    }
+
+    /**
+     * @return a string represents the report.
+     */
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        text.append("Accepted: ").append(accepted)
+                .append(", rejected: ").append(size);
+        for (Rejection reason : Rejection.values()) {
+            if (counts[reason.ordinal()] > 0) {
+                text.append(", ").append(reason.toString().toLowerCase())
+                        .append(": ").append(counts[reason.ordinal()]);
+            }
+        }
+        return text.append(", games not ready: ").append(unready.length)
+                .toString();
+    }
+}
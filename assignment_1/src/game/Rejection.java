@@ -0,0 +1,24 @@
+package game;
+
+/**
+ * Reason a registration entry is rejected.
+ */
+public enum Rejection {
+    // The game or the athlete does not exist.
+    UNKNOWN,
+
+    // The game is finished.
+    CLOSED,
+
+    // The athlete cannot play the event of the game.
+    INELIGIBLE,
+
+    // The athlete is already in the game.
+    DUPLICATE,
+
+    // The game has no room for more athletes.
+    FULL,
+
+    // The athlete is already in another game of the same time slot.
+    SLOT_TAKEN
+}
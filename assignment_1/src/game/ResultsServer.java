@@ -0,0 +1,431 @@
+package game;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import participant.Athlete;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * HTTP server of the game results, bound to the loopback address.
+ *
+ * The resources are:
+ * <pre>
+ *   GET /games          all games
+ *   GET /games/{id}     a game and its results
+ *   GET /athletes       all athletes
+ *   GET /leaderboard    athletes ranked by points
+ *   GET /memory         estimated memory of the game data
+ * </pre>
+ * Every response is serialised to JSON in advance and kept in a cache, so
+ * the requests never read the game data. When a game is finished, only its
+ * own response is rebuilt on the thread running the game; the game list,
+ * athletes and leaderboard are marked stale and rebuilt on a thread of the
+ * server at most every REFRESH_INTERVAL milliseconds, however many games
+ * finish meanwhile, so finishing a game stays cheap. The lists are built
+ * from what the finishing threads published, the entry of each game and
+ * the points of its results, and never from the games or athletes being
+ * updated. The cached responses are accounted for in the memory of the
+ * context as caches. Once stopped, the server ignores the games finished.
+ */
+public class ResultsServer implements GameListener {
+
+    // Number of threads serving requests.
+    private static final int NUM_THREADS = 8;
+
+    // Prefix of the path of a game.
+    private static final String GAMES = "/games";
+
+    // Shortest time between two rebuilds of the lists, in milliseconds.
+    static final long REFRESH_INTERVAL = 100;
+
+    // The game data.
+    private final GameData data;
+
+    // The HTTP server.
+    private final HttpServer server;
+
+    // The threads serving requests.
+    private final ExecutorService executor;
+
+    // Cached responses, by path.
+    private final Map<String, byte[]> responses;
+
+    // The thread rebuilding the lists.
+    private final ScheduledExecutorService refresher;
+
+    // Entries of the game list, by game id.
+    private final Map<String, String> entries;
+
+    // Points of the athletes, by athlete id.
+    private final Map<Integer, Integer> points;
+
+    // If the lists are stale and a rebuild is scheduled.
+    private final AtomicBoolean stale = new AtomicBoolean();
+
+    // If the server is stopped.
+    private volatile boolean stopped;
+
+    /**
+     * Constructor.
+     *
+     * @param data the game data to serve.
+     * @param port the port, or 0 for any free port.
+     * @throws IOException if the port cannot be bound.
+     */
+    public ResultsServer(GameData data, int port) throws IOException {
+        this.data = data;
+        this.responses = new ConcurrentHashMap<>();
+        this.entries = new ConcurrentHashMap<>();
+        this.points = new ConcurrentHashMap<>();
+        for (Game game : data.getGames()) {
+            cache(GAMES + "/" + game.getId(), toJson(game));
+            publish(game);
+        }
+        for (Athlete athlete : data.getAthletes()) {
+            points.put(athlete.getId(), athlete.getPoints());
+            data.getContext().getMemory().allocate(Subsystem.CACHES,
+                    MemoryAccounting.MAP_ENTRY);
+        }
+        refresh();
+        this.refresher = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "results-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.server = HttpServer.create(new InetSocketAddress(
+                InetAddress.getLoopbackAddress(), port), 0);
+        this.executor = Executors.newFixedThreadPool(NUM_THREADS);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    /**
+     * Starts serving requests.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops serving requests and stops listening to the game data.
+     */
+    public void stop() {
+        stopped = true;
+        data.removeListener(this);
+        server.stop(0);
+        executor.shutdown();
+        refresher.shutdown();
+    }
+
+    /**
+     * @return the port the server is bound to.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Rebuilds the response of a finished game, publishes its entry and the
+     * points of its results, and schedules a rebuild of the lists if none
+     * is scheduled yet.
+     *
+     * @param game the finished game.
+     */
+    @Override
+    public void gameFinished(Game game) {
+        if (stopped) {
+            return;
+        }
+        GameResult result = game.getResult();
+        for (int i = 0; i < result.size(); i++) {
+            if (result.getScore(i) > 0) {
+                points.merge(result.getAthlete(i).getId(),
+                        result.getScore(i), Integer::sum);
+            }
+        }
+        cache(GAMES + "/" + game.getId(), toJson(game));
+        publish(game);
+        if (stale.compareAndSet(false, true)) {
+            try {
+                refresher.schedule(this::rebuild, REFRESH_INTERVAL,
+                        TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // Stopped meanwhile: the lists are no longer served.
+            }
+        }
+    }
+
+    /**
+     * Waits until the lists include every game finished so far.
+     *
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    void awaitRefresh() throws InterruptedException {
+        try {
+            refresher.submit(this::rebuild).get();
+        } catch (ExecutionException e) {
+            throw new GameException("Refresh failed: "
+                    + e.getCause().getMessage());
+        }
+    }
+
+    /**
+     * Rebuilds the lists on the refresher thread. Games finished while
+     * rebuilding schedule another rebuild.
+     */
+    private void rebuild() {
+        stale.set(false);
+        refresh();
+    }
+
+    /**
+     * Rebuilds the responses of the game list, athletes and leaderboard.
+     */
+    private void refresh() {
+        StringBuilder games = new StringBuilder("[");
+        for (Game game : data.getGames()) {
+            if (games.length() > 1) {
+                games.append(',');
+            }
+            games.append(entries.get(game.getId()));
+        }
+        cache(GAMES, bytes(games.append(']')));
+
+        StringBuilder athletes = new StringBuilder("[");
+        for (Athlete athlete : data.getAthletes()) {
+            if (athletes.length() > 1) {
+                athletes.append(',');
+            }
+            athletes.append('{');
+            appendAthlete(athletes, athlete);
+            athletes.append('}');
+        }
+        cache("/athletes", bytes(athletes.append(']')));
+
+        List<Athlete> ranked = new ArrayList<>(data.getAthletes());
+        ranked.sort(Comparator.comparingInt(this::getPoints).reversed());
+        StringBuilder leaderboard = new StringBuilder("[");
+        for (int i = 0; i < ranked.size(); i++) {
+            if (i > 0) {
+                leaderboard.append(',');
+            }
+            leaderboard.append("{\"rank\":").append(i + 1).append(',');
+            appendAthlete(leaderboard, ranked.get(i));
+            leaderboard.append('}');
+        }
+        cache("/leaderboard", bytes(leaderboard.append(']')));
+        cache("/memory", bytes(new StringBuilder(data.getContext().getMemory()
+                .getReport().toJson())));
+    }
+
+    /**
+     * @param athlete the athlete.
+     * @return the points of the athlete published so far.
+     */
+    private int getPoints(Athlete athlete) {
+        return points.getOrDefault(athlete.getId(), 0);
+    }
+
+    /**
+     * Publishes the entry of a game in the game list and accounts for its
+     * memory.
+     *
+     * @param game the game.
+     */
+    private void publish(Game game) {
+        MemoryAccounting memory = data.getContext().getMemory();
+        String entry = toEntry(game);
+        String old = entries.put(game.getId(), entry);
+        if (old == null) {
+            memory.allocate(Subsystem.CACHES, MemoryAccounting.string(entry)
+                    + MemoryAccounting.MAP_ENTRY);
+        } else {
+            memory.resize(Subsystem.CACHES, MemoryAccounting.string(entry)
+                    - MemoryAccounting.string(old));
+        }
+    }
+
+    /**
+     * Caches a response and accounts for its memory.
+     *
+     * @param path the path of the response.
+     * @param body the response.
+     */
+    private void cache(String path, byte[] body) {
+        MemoryAccounting memory = data.getContext().getMemory();
+        byte[] old = responses.put(path, body);
+        int size = MemoryAccounting.array(1, body.length);
+        if (old == null) {
+            memory.allocate(Subsystem.CACHES, size + MemoryAccounting.MAP_ENTRY
+                    + MemoryAccounting.string(path));
+        } else {
+            memory.resize(Subsystem.CACHES,
+                    size - MemoryAccounting.array(1, old.length));
+        }
+    }
+
+    /**
+     * Handles a request by sending the cached response.
+     *
+     * @param exchange the request and response.
+     * @throws IOException if the response cannot be sent.
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            byte[] body;
+            int status;
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                status = 405;
+                body = error("Method not allowed");
+            } else {
+                String path = exchange.getRequestURI().getPath();
+                if (path.length() > 1 && path.endsWith("/")) {
+                    path = path.substring(0, path.length() - 1);
+                }
+                body = responses.get(path);
+                status = 200;
+                if (body == null) {
+                    status = 404;
+                    body = error("Not found: " + path);
+                }
+            }
+            exchange.getResponseHeaders().set("Content-Type",
+                    "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * @param game the game.
+     * @return the entry of the game in the game list in JSON.
+     */
+    private static String toEntry(Game game) {
+        return "{\"id\":" + quote(game.getId()) + ",\"event\":"
+                + quote(game.getEvent().toString().toLowerCase())
+                + ",\"athletes\":" + game.getAthletes().size()
+                + ",\"finished\":" + game.isFinished() + '}';
+    }
+
+    /**
+     * @param game the game.
+     * @return the game and its results in JSON.
+     */
+    private static byte[] toJson(Game game) {
+        GameResult result = game.getResult();
+        StringBuilder json = new StringBuilder();
+        json.append("{\"id\":").append(quote(game.getId()))
+                .append(",\"event\":")
+                .append(quote(game.getEvent().toString().toLowerCase()))
+                .append(",\"referee\":").append(game.getReferee() == null
+                        ? "null" : quote(game.getReferee().toShortString()))
+                .append(",\"finished\":").append(result != null)
+                .append(",\"results\":[");
+        if (result == null) {
+            for (int i = 0; i < game.getAthletes().size(); i++) {
+                if (i > 0) {
+                    json.append(',');
+                }
+                appendEntry(json, game.getAthletes().get(i));
+                json.append('}');
+            }
+        } else {
+            for (int i = 0; i < result.size(); i++) {
+                if (i > 0) {
+                    json.append(',');
+                }
+                appendEntry(json, result.getAthlete(i));
+                json.append(",\"rank\":").append(result.getRank(i))
+                        .append(",\"time\":").append(result.getTime(i))
+                        .append(",\"score\":").append(result.getScore(i))
+                        .append('}');
+            }
+        }
+        return bytes(json.append("]}"));
+    }
+
+    /**
+     * Appends the start of an athlete entry of a game in JSON.
+     *
+     * @param json    the JSON to append to.
+     * @param athlete the athlete.
+     */
+    private static void appendEntry(StringBuilder json, Athlete athlete) {
+        json.append("{\"athlete\":").append(athlete.getId())
+                .append(",\"name\":").append(quote(athlete.getName()));
+    }
+
+    /**
+     * Appends the fields of an athlete in JSON.
+     *
+     * @param json    the JSON to append to.
+     * @param athlete the athlete.
+     */
+    private void appendAthlete(StringBuilder json, Athlete athlete) {
+        json.append("\"id\":").append(athlete.getId())
+                .append(",\"name\":").append(quote(athlete.getName()))
+                .append(",\"type\":")
+                .append(quote(athlete.getClass().getSimpleName()))
+                .append(",\"age\":").append(athlete.getAge())
+                .append(",\"state\":").append(quote(athlete.getState()))
+                .append(",\"points\":").append(getPoints(athlete));
+    }
+
+    /**
+     * @param message the error message.
+     * @return the error in JSON.
+     */
+    private static byte[] error(String message) {
+        return bytes(new StringBuilder("{\"error\":")
+                .append(quote(message)).append('}'));
+    }
+
+    /**
+     * @param text the text.
+     * @return the text as a JSON string.
+     */
+    private static String quote(String text) {
+        StringBuilder quoted = new StringBuilder("\"");
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < 0x20) {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    /**
+     * @param json the JSON.
+     * @return the JSON in UTF-8.
+     */
+    private static byte[] bytes(CharSequence json) {
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
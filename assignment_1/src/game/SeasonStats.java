@@ -0,0 +1,294 @@
+package game;
+
+import participant.Athlete;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Running statistics of a season.
+ *
+ * The statistics are folded in one finished game at a time and keep no
+ * reference to the games, so their size does not depend on the number of
+ * games recorded. Statistics collected on different threads can be merged.
+ * Athlete ids restart at 1 in every simulation context, so the points are
+ * kept per roster, the context of the games, and only points of the same
+ * roster are added together.
+ */
+public class SeasonStats {
+
+    // Number of medals: gold, silver and bronze.
+    private static final int NUM_MEDALS = 3;
+
+    // Number of games recorded.
+    private long numGames;
+
+    // Number of times recorded per event.
+    private final long[] counts;
+
+    // Mean time per event.
+    private final double[] means;
+
+    // Sum of squared differences from the mean per event.
+    private final double[] m2s;
+
+    // Minimum time per event.
+    private final int[] minTimes;
+
+    // Maximum time per event.
+    private final int[] maxTimes;
+
+    // Gold, silver and bronze medals per state.
+    private final Map<String, long[]> medals;
+
+    // Points per athlete, by roster and athlete id.
+    private final Map<SimulationContext, long[]> points;
+
+    // Time distributions and frequent winners.
+    private final EventSketches sketches;
+
+    /**
+     * Constructor.
+     */
+    public SeasonStats() {
+        int numEvents = EventType.values().length;
+        counts = new long[numEvents];
+        means = new double[numEvents];
+        m2s = new double[numEvents];
+        minTimes = new int[numEvents];
+        maxTimes = new int[numEvents];
+        Arrays.fill(minTimes, Integer.MAX_VALUE);
+        Arrays.fill(maxTimes, Integer.MIN_VALUE);
+        medals = new TreeMap<>();
+        points = new IdentityHashMap<>();
+        sketches = new EventSketches();
+    }
+
+    /**
+     * Records the results of a finished game.
+     *
+     * @param game the finished game.
+     */
+    public void record(Game game) {
+        if (!game.isFinished()) {
+            throw new GameException("The game is not finished: " + game);
+        }
+        numGames++;
+        sketches.record(game);
+
+        int e = game.getEvent().ordinal();
+        for (int i = 0; i < game.getAthletes().size(); i++) {
+            Athlete athlete = game.getAthletes().get(i);
+            int time = game.getTime(i);
+            int rank = game.getRank(i);
+
+            // Update the time statistics of the event.
+            counts[e]++;
+            double delta = time - means[e];
+            means[e] += delta / counts[e];
+            m2s[e] += delta * (time - means[e]);
+            minTimes[e] = Math.min(minTimes[e], time);
+            maxTimes[e] = Math.max(maxTimes[e], time);
+
+            // Update the medals of the state and the points of the athlete.
+            if (rank <= NUM_MEDALS) {
+                medals(athlete.getState())[rank - 1]++;
+                addPoints(game.getContext(), athlete.getId(),
+                        Game.getPoints(rank));
+            }
+        }
+    }
+
+    /**
+     * Merges the statistics collected elsewhere into this one.
+     *
+     * @param other the statistics to be merged.
+     */
+    public void merge(SeasonStats other) {
+        numGames += other.numGames;
+        sketches.merge(other.sketches);
+
+        for (int e = 0; e < counts.length; e++) {
+            if (other.counts[e] == 0) {
+                continue;
+            }
+            long count = counts[e] + other.counts[e];
+            double delta = other.means[e] - means[e];
+            m2s[e] += other.m2s[e]
+                    + delta * delta * counts[e] * other.counts[e] / count;
+            means[e] += delta * other.counts[e] / count;
+            counts[e] = count;
+            minTimes[e] = Math.min(minTimes[e], other.minTimes[e]);
+            maxTimes[e] = Math.max(maxTimes[e], other.maxTimes[e]);
+        }
+
+        for (Map.Entry<String, long[]> entry : other.medals.entrySet()) {
+            long[] stateMedals = medals(entry.getKey());
+            for (int i = 0; i < NUM_MEDALS; i++) {
+                stateMedals[i] += entry.getValue()[i];
+            }
+        }
+
+        for (Map.Entry<SimulationContext, long[]> entry
+                : other.points.entrySet()) {
+            long[] rosterPoints = entry.getValue();
+            for (int id = 0; id < rosterPoints.length; id++) {
+                if (rosterPoints[id] != 0) {
+                    addPoints(entry.getKey(), id, rosterPoints[id]);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param state the state.
+     * @return the medals of the state, created if absent.
+     */
+    private long[] medals(String state) {
+        long[] stateMedals = medals.get(state);
+        if (stateMedals == null) {
+            stateMedals = new long[NUM_MEDALS];
+            medals.put(state, stateMedals);
+        }
+        return stateMedals;
+    }
+
+    /**
+     * Adds points to an athlete.
+     *
+     * @param roster the context of the athlete.
+     * @param id     id of the athlete.
+     * @param amount the points to be added.
+     */
+    private void addPoints(SimulationContext roster, int id, long amount) {
+        long[] rosterPoints = points.get(roster);
+        if (rosterPoints == null) {
+            rosterPoints = new long[Math.max(id + 1, 64)];
+            points.put(roster, rosterPoints);
+        } else if (id >= rosterPoints.length) {
+            rosterPoints = Arrays.copyOf(rosterPoints,
+                    Math.max(id + 1, rosterPoints.length * 2));
+            points.put(roster, rosterPoints);
+        }
+        rosterPoints[id] += amount;
+    }
+
+    /**
+     * @return the number of games recorded.
+     */
+    public long getNumGames() {
+        return numGames;
+    }
+
+    /**
+     * @param event the event.
+     * @return the number of times recorded for the event.
+     */
+    public long getCount(EventType event) {
+        return counts[event.ordinal()];
+    }
+
+    /**
+     * @param event the event.
+     * @return the mean time of the event.
+     */
+    public double getMean(EventType event) {
+        return means[event.ordinal()];
+    }
+
+    /**
+     * @param event the event.
+     * @return the variance of the times of the event.
+     */
+    public double getVariance(EventType event) {
+        long count = counts[event.ordinal()];
+        return count < 2 ? 0 : m2s[event.ordinal()] / (count - 1);
+    }
+
+    /**
+     * @param event the event.
+     * @return the minimum time of the event.
+     */
+    public int getMinTime(EventType event) {
+        return minTimes[event.ordinal()];
+    }
+
+    /**
+     * @param event the event.
+     * @return the maximum time of the event.
+     */
+    public int getMaxTime(EventType event) {
+        return maxTimes[event.ordinal()];
+    }
+
+    /**
+     * @param state the state.
+     * @return the gold, silver and bronze medals of the state.
+     */
+    public long[] getMedals(String state) {
+        long[] stateMedals = medals.get(state);
+        return stateMedals == null ? new long[NUM_MEDALS]
+                : stateMedals.clone();
+    }
+
+    /**
+     * @param athlete the athlete, of the only roster recorded.
+     * @return the points of the athlete in the season.
+     * @throws GameException if games of several rosters were recorded.
+     */
+    public long getPoints(Athlete athlete) {
+        if (points.size() > 1) {
+            throw new GameException("The statistics hold the points of "
+                    + points.size() + " rosters.");
+        }
+        return points.isEmpty() ? 0
+                : getPoints(points.keySet().iterator().next(), athlete);
+    }
+
+    /**
+     * @param roster  the context of the athlete.
+     * @param athlete the athlete.
+     * @return the points of the athlete in the season.
+     */
+    public long getPoints(SimulationContext roster, Athlete athlete) {
+        long[] rosterPoints = points.get(roster);
+        return rosterPoints != null && athlete.getId() < rosterPoints.length
+                ? rosterPoints[athlete.getId()] : 0;
+    }
+
+    /**
+     * @return the time distributions and frequent winners.
+     */
+    public EventSketches getSketches() {
+        return sketches;
+    }
+
+    /**
+     * Displays the statistics.
+     */
+    public void displayStats() {
+        System.out.println("Games    : " + numGames);
+        System.out.printf("%-10s%-12s%-10s%-10s%-8s%-8s%-8s%-8s\n", "Event",
+                "Count", "Mean(s)", "StdDev", "Min", "P50", "P99", "Max");
+        for (EventType event : EventType.values()) {
+            if (getCount(event) == 0) {
+                continue;
+            }
+            TimeHistogram times = sketches.getTimes(event);
+            System.out.printf("%-10s%-12d%-10.2f%-10.2f%-8d%-8d%-8d%-8d\n",
+                    event.toString().toLowerCase(), getCount(event),
+                    getMean(event), Math.sqrt(getVariance(event)),
+                    getMinTime(event), times.getQuantile(0.5),
+                    times.getQuantile(0.99), getMaxTime(event));
+        }
+        System.out.printf("%-8s%-12s%-12s%-12s\n", "State", "Gold", "Silver",
+                "Bronze");
+        for (Map.Entry<String, long[]> entry : medals.entrySet()) {
+            long[] stateMedals = entry.getValue();
+            System.out.printf("%-8s%-12d%-12d%-12d\n", entry.getKey(),
+                    stateMedals[0], stateMedals[1], stateMedals[2]);
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package game;
+
+import participant.Athlete;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Runs a season split into shards of games, one ShardWorker process per
+ * shard, and merges the points the workers stream back into the global
+ * leaderboard.
+ *
+ * The workers are started with the same Java and class path as the
+ * coordinator and connect back to it on the loopback address, so a season
+ * can be sharded on one machine without any other service.
+ */
+public class ShardCoordinator {
+
+    // Time to wait for the workers to connect and finish, in seconds.
+    private static final int TIMEOUT = 600;
+
+    // Time between checks of the workers while waiting for them to
+    // connect, in milliseconds.
+    private static final int POLL_INTERVAL = 1000;
+
+    // Time to wait for a connected worker to send its shard, in
+    // milliseconds.
+    private static final int HANDSHAKE_TIMEOUT = 5000;
+
+    // Number of shards.
+    private final int numShards;
+
+    // Number of games of the season.
+    private final long numGames;
+
+    // Seed shared by the workers.
+    private final long seed;
+
+    // Athletes of the season, the same as those of the workers.
+    private final List<Athlete> athletes;
+
+    // Points per athlete, by athlete id.
+    private final AtomicLongArray points;
+
+    // Number of games merged.
+    private final AtomicLong gamesMerged = new AtomicLong();
+
+    /**
+     * Constructor.
+     *
+     * @param numShards   number of shards.
+     * @param numAthletes number of athletes of the season.
+     * @param numGames    number of games of the season.
+     * @param seed        seed shared by the workers.
+     */
+    public ShardCoordinator(int numShards, int numAthletes, long numGames,
+                            long seed) {
+        if (numShards < 1) {
+            throw new GameException("At least 1 shard is required.");
+        }
+        this.numShards = numShards;
+        this.numGames = numGames;
+        this.seed = seed;
+        this.athletes = new StreamingSeason(
+                new SimulationContext(numAthletes, 0, seed)).getAthletes();
+        int maxId = 0;
+        for (Athlete athlete : athletes) {
+            maxId = Math.max(maxId, athlete.getId());
+        }
+        this.points = new AtomicLongArray(maxId + 1);
+    }
+
+    /**
+     * Starts the workers and merges their points until all are done.
+     *
+     * A worker which exits before connecting, stops sending for TIMEOUT
+     * seconds or does not finish within TIMEOUT seconds of the start fails
+     * the run with the index of its shard. A connection which does not send
+     * its shard within HANDSHAKE_TIMEOUT milliseconds fails the run rather
+     * than holding up the other workers.
+     *
+     * @throws IOException if a worker cannot be started or read.
+     */
+    public void run() throws IOException {
+        ExecutorService readers = Executors.newFixedThreadPool(numShards);
+        List<Process> workers = new ArrayList<>(numShards);
+        List<Socket> sockets = new ArrayList<>(numShards);
+        long deadline = System.nanoTime()
+                + TimeUnit.SECONDS.toNanos(TIMEOUT);
+        try (ServerSocket server = new ServerSocket(0, numShards,
+                InetAddress.getLoopbackAddress())) {
+            server.setSoTimeout(POLL_INTERVAL);
+
+            // Start a worker per shard.
+            String java = System.getProperty("java.home") + File.separator
+                    + "bin" + File.separator + "java";
+            for (int shard = 0; shard < numShards; shard++) {
+                workers.add(new ProcessBuilder(java, "-cp",
+                        System.getProperty("java.class.path"),
+                        ShardWorker.class.getName(),
+                        String.valueOf(server.getLocalPort()),
+                        String.valueOf(shard), String.valueOf(numShards),
+                        String.valueOf(athletes.size()),
+                        String.valueOf(numGames), String.valueOf(seed))
+                        .redirectOutput(ProcessBuilder.Redirect.INHERIT)
+                        .redirectError(ProcessBuilder.Redirect.INHERIT)
+                        .start());
+            }
+
+            // Merge the updates of each worker on its own thread, checking
+            // for workers gone before connecting while waiting.
+            List<Future<?>> merges = new ArrayList<>(numShards);
+            for (int shard = 0; shard < numShards; shard++) {
+                merges.add(null);
+            }
+            int connected = 0;
+            while (connected < numShards) {
+                for (int shard = 0; shard < numShards; shard++) {
+                    if (merges.get(shard) == null
+                            && !workers.get(shard).isAlive()) {
+                        throw new GameException("Shard " + shard
+                                + " exited with code "
+                                + workers.get(shard).exitValue()
+                                + " before connecting.");
+                    }
+                }
+                if (System.nanoTime() > deadline) {
+                    throw new GameException("Shards " + missing(merges)
+                            + " did not connect within " + TIMEOUT + " s.");
+                }
+                Socket socket;
+                try {
+                    socket = server.accept();
+                } catch (SocketTimeoutException e) {
+                    continue;
+                }
+                sockets.add(socket);
+                socket.setSoTimeout(HANDSHAKE_TIMEOUT);
+                DataInputStream in = new DataInputStream(
+                        new BufferedInputStream(socket.getInputStream()));
+                int shard;
+                try {
+                    shard = in.readInt();
+                } catch (SocketTimeoutException e) {
+                    throw new GameException("A connection sent no shard "
+                            + "within " + HANDSHAKE_TIMEOUT + " ms.");
+                }
+                socket.setSoTimeout(TIMEOUT * 1000);
+                if (shard < 0 || shard >= numShards
+                        || merges.get(shard) != null) {
+                    throw new GameException("Unexpected shard " + shard);
+                }
+                merges.set(shard, readers.submit(() -> {
+                    merge(in);
+                    return null;
+                }));
+                connected++;
+            }
+
+            // Wait for the merges and the workers until the deadline.
+            for (int shard = 0; shard < numShards; shard++) {
+                try {
+                    merges.get(shard).get(Math.max(0, deadline
+                            - System.nanoTime()), TimeUnit.NANOSECONDS);
+                } catch (TimeoutException e) {
+                    throw new GameException("Shard " + shard
+                            + " did not finish within " + TIMEOUT + " s.");
+                } catch (ExecutionException e) {
+                    throw new GameException("Failed to merge shard " + shard
+                            + ": " + e.getCause());
+                }
+            }
+            for (int shard = 0; shard < numShards; shard++) {
+                Process worker = workers.get(shard);
+                if (!worker.waitFor(Math.max(0, deadline
+                        - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                    throw new GameException("Shard " + shard
+                            + " did not exit within " + TIMEOUT + " s.");
+                }
+                if (worker.exitValue() != 0) {
+                    throw new GameException("Shard " + shard
+                            + " failed with exit code " + worker.exitValue()
+                            + ".");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GameException("Interrupted while running shards.");
+        } finally {
+            readers.shutdownNow();
+            for (Socket socket : sockets) {
+                socket.close();
+            }
+            for (Process worker : workers) {
+                worker.destroy();
+            }
+        }
+    }
+
+    /**
+     * @param merges the merge of each shard, or null if not connected.
+     * @return the indexes of the shards not connected.
+     */
+    private static List<Integer> missing(List<Future<?>> merges) {
+        List<Integer> shards = new ArrayList<>();
+        for (int shard = 0; shard < merges.size(); shard++) {
+            if (merges.get(shard) == null) {
+                shards.add(shard);
+            }
+        }
+        return shards;
+    }
+
+    /**
+     * Merges the updates sent by a worker until it is done.
+     *
+     * @param in the updates of the worker, after the index of its shard.
+     * @throws IOException if the updates cannot be read.
+     */
+    private void merge(DataInputStream in) throws IOException {
+        int count;
+        while ((count = in.readInt()) >= 0) {
+            gamesMerged.addAndGet(in.readLong());
+            for (int i = 0; i < count; i++) {
+                points.addAndGet(in.readInt(), in.readLong());
+            }
+        }
+    }
+
+    /**
+     * @return the number of games merged.
+     */
+    public long getGamesMerged() {
+        return gamesMerged.get();
+    }
+
+    /**
+     * @param athlete an athlete of the season.
+     * @return the points of the athlete merged from all shards.
+     */
+    public long getPoints(Athlete athlete) {
+        return points.get(athlete.getId());
+    }
+
+    /**
+     * Displays the athletes with the most points.
+     *
+     * @param limit the maximum number of athletes displayed.
+     */
+    public void displayLeaderboard(int limit) {
+        List<Athlete> ranked = new ArrayList<>(athletes);
+        ranked.sort((a, b) -> Long.compare(getPoints(b), getPoints(a)));
+        System.out.printf("%-6s%-18s%-15s%-8s%-10s\n", "Rank", "Athlete",
+                "Type", "State", "Points");
+        for (int i = 0; i < Math.min(limit, ranked.size()); i++) {
+            Athlete athlete = ranked.get(i);
+            System.out.printf("%-6d%-18s%-15s%-8s%-10d\n", i + 1,
+                    athlete.toShortString(),
+                    athlete.getClass().getSimpleName(), athlete.getState(),
+                    getPoints(athlete));
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package game;
+
+import participant.Athlete;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.List;
+
+/**
+ * Worker process simulating one shard of the games of a season.
+ *
+ * The worker builds the same athletes as the coordinator from the shared
+ * seed, runs its share of the games with a seed of its own, and streams the
+ * points won by each athlete since the last update to the coordinator over
+ * a local socket. It sends the index of its shard as soon as it connects,
+ * then the updates. Each update is:
+ * <pre>
+ *   int  number of athletes in the update, or -1 at the end
+ *   long number of games run since the last update
+ *   (int athlete id, long points) for each athlete in the update
+ * </pre>
+ */
+public class ShardWorker {
+
+    // Number of games run between two updates.
+    static final int UPDATE_GAMES = 10000;
+
+    /**
+     * Runs a shard.
+     *
+     * @param args port of the coordinator, shard index, number of shards,
+     *             number of athletes, number of games and seed.
+     */
+    public static void main(String[] args) {
+        if (args.length != 6) {
+            System.err.println("Usage: ShardWorker PORT SHARD SHARDS "
+                    + "ATHLETES GAMES SEED");
+            System.exit(2);
+        }
+        int port = Integer.parseInt(args[0]);
+        int shard = Integer.parseInt(args[1]);
+        int numShards = Integer.parseInt(args[2]);
+        int numAthletes = Integer.parseInt(args[3]);
+        long numGames = Long.parseLong(args[4]);
+        long seed = Long.parseLong(args[5]);
+
+        try {
+            run(port, shard, numShards, numAthletes, numGames, seed);
+        } catch (IOException | GameException e) {
+            System.err.println("Shard " + shard + " failed: "
+                    + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Runs a shard and streams the points to the coordinator.
+     */
+    private static void run(int port, int shard, int numShards,
+                            int numAthletes, long numGames, long seed)
+            throws IOException {
+        StreamingSeason season = new StreamingSeason(
+                new SimulationContext(numAthletes, 0, seed));
+        season.getContext().getRandom().setSeed(seed + 1 + shard);
+        List<Athlete> athletes = season.getAthletes();
+        long[] sent = new long[athletes.size()];
+
+        long games = numGames / numShards
+                + (shard < numGames % numShards ? 1 : 0);
+        SeasonStats stats = new SeasonStats();
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(),
+                port);
+             DataOutputStream out = new DataOutputStream(
+                     new BufferedOutputStream(socket.getOutputStream()))) {
+            out.writeInt(shard);
+            out.flush();
+            while (games > 0) {
+                long chunk = Math.min(games, UPDATE_GAMES);
+                season.run(chunk, stats);
+                games -= chunk;
+
+                // Send the points won since the last update.
+                int changed = 0;
+                for (int i = 0; i < athletes.size(); i++) {
+                    if (stats.getPoints(athletes.get(i)) != sent[i]) {
+                        changed++;
+                    }
+                }
+                out.writeInt(changed);
+                out.writeLong(chunk);
+                for (int i = 0; i < athletes.size(); i++) {
+                    long points = stats.getPoints(athletes.get(i));
+                    if (points != sent[i]) {
+                        out.writeInt(athletes.get(i).getId());
+                        out.writeLong(points - sent[i]);
+                        sent[i] = points;
+                    }
+                }
+                out.flush();
+            }
+            out.writeInt(-1);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package game;
+
+import participant.Athlete;
+import participant.ParticipantFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Everything a season shares: its configuration, random numbers, id
+ * sequences and registered athletes.
+ *
+ * Games, game data and participant factories are bound to a context, so
+ * seasons with different contexts do not interfere and can run at the same
+ * time on different threads. A context itself is not meant to be used by
+ * several threads at once, except for the random numbers and the game id
+ * sequence, which games simulated in parallel share.
+ */
+public class SimulationContext {
+
+    // Default number of athletes.
+    public static final int NUM_ATHLETES = 25;
+
+    // Default number of games.
+    public static final int NUM_GAMES = 5;
+
+    // Number of athletes of the season.
+    private final int numAthletes;
+
+    // Number of games of the season.
+    private final int numGames;
+
+    // Random number generator.
+    private final RandomUtil random;
+
+    // Factory of the participants.
+    private final ParticipantFactory factory;
+
+    // Game id sequence.
+    private final AtomicInteger gameId = new AtomicInteger(1);
+
+    // Registered athletes.
+    private final List<Athlete> athletes = new ArrayList<>();
+
+    // Accounting of the memory of the season.
+    private final MemoryAccounting memory = new MemoryAccounting();
+
+    /**
+     * Constructor with the default configuration.
+     */
+    public SimulationContext() {
+        this(NUM_ATHLETES, NUM_GAMES, new RandomUtil());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param numAthletes number of athletes of the season.
+     * @param numGames    number of games of the season.
+     */
+    public SimulationContext(int numAthletes, int numGames) {
+        this(numAthletes, numGames, new RandomUtil());
+    }
+
+    /**
+     * Constructor for a repeatable season.
+     *
+     * @param numAthletes number of athletes of the season.
+     * @param numGames    number of games of the season.
+     * @param seed        seed of the random numbers.
+     */
+    public SimulationContext(int numAthletes, int numGames, long seed) {
+        this(numAthletes, numGames, new RandomUtil(seed));
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param numAthletes number of athletes of the season.
+     * @param numGames    number of games of the season.
+     * @param random      random number generator.
+     */
+    private SimulationContext(int numAthletes, int numGames,
+                              RandomUtil random) {
+        if (numAthletes < 0 || numGames < 0) {
+            throw new GameException("Invalid number of athletes or games.");
+        }
+        this.numAthletes = numAthletes;
+        this.numGames = numGames;
+        this.random = random;
+        this.factory = new ParticipantFactory(this);
+    }
+
+    /**
+     * @return the number of athletes of the season.
+     */
+    public int getNumAthletes() {
+        return numAthletes;
+    }
+
+    /**
+     * @return the number of games of the season.
+     */
+    public int getNumGames() {
+        return numGames;
+    }
+
+    /**
+     * @return the random number generator.
+     */
+    public RandomUtil getRandom() {
+        return random;
+    }
+
+    /**
+     * @return the factory of the participants.
+     */
+    public ParticipantFactory getFactory() {
+        return factory;
+    }
+
+    /**
+     * @return the next game id.
+     */
+    public int nextGameId() {
+        return gameId.getAndIncrement();
+    }
+
+    /**
+     * Registers an athlete created for the season.
+     *
+     * @param athlete the athlete.
+     */
+    public void register(Athlete athlete) {
+        athletes.add(athlete);
+        memory.allocate(Subsystem.ATHLETES, MemoryAccounting.ATHLETE
+                + MemoryAccounting.REFERENCE);
+    }
+
+    /**
+     * Unregisters athletes the season no longer keeps.
+     *
+     * @param dropped the athletes to unregister.
+     */
+    public void unregister(Set<Athlete> dropped) {
+        int size = athletes.size();
+        athletes.removeAll(dropped);
+        for (int i = athletes.size(); i < size; i++) {
+            memory.release(Subsystem.ATHLETES, MemoryAccounting.ATHLETE
+                    + MemoryAccounting.REFERENCE);
+        }
+    }
+
+    /**
+     * @return the accounting of the memory of the season, kept as games,
+     * athletes, indexes and caches of the context are created.
+     */
+    public MemoryAccounting getMemory() {
+        return memory;
+    }
+
+    /**
+     * @return the registered athletes.
+     */
+    public List<Athlete> getAthletes() {
+        return Collections.unmodifiableList(athletes);
+    }
+}
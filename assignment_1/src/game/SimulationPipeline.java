@@ -0,0 +1,339 @@
+package game;
+
+import participant.Athlete;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pipeline running a season from game assembly to persisted results, with
+ * bounded buffers between the stages:
+ * <pre>
+ *   assemble -&gt; simulate -&gt; award -&gt; aggregate -&gt; persist
+ * </pre>
+ * Games are assembled from the athletes of the context as in GameData,
+ * simulated on several threads, awarded points and folded into the season
+ * statistics on one thread each, since those update shared athletes and
+ * statistics, and written as CSV lines. Each simulating thread also rates
+ * its games into its own RatingBatch, applied every RATING_BATCH games, and
+ * the batches left at the end are merged and applied at once. A slow writer
+ * throttles the whole pipeline, so at most a few batches of games are alive
+ * at any time.
+ */
+public class SimulationPipeline {
+
+    // Number of games a simulating thread rates before applying them.
+    static final int RATING_BATCH = 256;
+
+    // Context of the season.
+    private final SimulationContext context;
+
+    // Number of threads of each stage, by ordinal.
+    private final int[] parallelism = new int[Stage.values().length];
+
+    // Number of items each stage may hold at once, by ordinal.
+    private final int[] batchSizes = new int[Stage.values().length];
+
+    // Athletes of the season.
+    private final List<Athlete> athletes;
+
+    // Statistics of the games run.
+    private final SeasonStats stats = new SeasonStats();
+
+    // Elo ratings of the athletes.
+    private final RatingEngine ratings;
+
+    // Stages of the pipeline, once it is running.
+    private volatile List<PipelineStage<?, ?>> stages = new ArrayList<>();
+
+    // Publisher of the games assembled, once the pipeline is running.
+    private volatile SubmissionPublisher<Game> source;
+
+    // Number of games assembled.
+    private final AtomicLong assembled = new AtomicLong();
+
+    // Largest number of games assembled but not taken by the simulation.
+    private volatile int maxAssembleLag;
+
+    // Number of games persisted.
+    private final AtomicLong persisted = new AtomicLong();
+
+    /**
+     * Stages of the pipeline. Only the simulation runs on several threads:
+     * awarding points and aggregating update shared athletes and
+     * statistics, and assembling games and persisting results use the
+     * random numbers of the context and a single writer.
+     */
+    public enum Stage {
+        ASSEMBLE(false), SIMULATE(true), AWARD(false), AGGREGATE(false),
+        PERSIST(false);
+
+        // If the stage may run on several threads.
+        private final boolean parallel;
+
+        Stage(boolean parallel) {
+            this.parallel = parallel;
+        }
+
+        /**
+         * @return true if the stage may run on several threads.
+         */
+        public boolean isParallel() {
+            return parallel;
+        }
+    }
+
+    /**
+     * Constructor. The athletes are generated before any game is assembled,
+     * since every game picks its athletes from the whole roster.
+     *
+     * @param context     context of the season, giving the number of
+     *                    athletes.
+     * @param parallelism number of threads simulating games.
+     * @param batchSize   number of items each stage may hold at once.
+     */
+    public SimulationPipeline(SimulationContext context, int parallelism,
+                              int batchSize) {
+        this.context = context;
+        this.ratings = new RatingEngine(context.getMemory());
+        Arrays.fill(this.parallelism, 1);
+        Arrays.fill(this.batchSizes, batchSize);
+        configure(Stage.SIMULATE, parallelism, batchSize);
+        List<Athlete> list = new ArrayList<>(context.getNumAthletes());
+        for (int i = 0; i < context.getNumAthletes(); i++) {
+            list.add(context.getFactory().createAthlete());
+        }
+        GameData.checkAthletes(list);
+        this.athletes = list;
+    }
+
+    /**
+     * Sets the number of threads and the batch size of a stage, before the
+     * pipeline is run.
+     *
+     * @param stage       the stage.
+     * @param parallelism number of threads of the stage, which must be 1
+     *                    unless the stage is parallel.
+     * @param batchSize   number of items the stage may hold at once.
+     */
+    public void configure(Stage stage, int parallelism, int batchSize) {
+        if (parallelism < 1 || batchSize < 1) {
+            throw new GameException("Invalid parallelism or batch size of "
+                    + stage.toString().toLowerCase());
+        }
+        if (parallelism > 1 && !stage.isParallel()) {
+            throw new GameException("The " + stage.toString().toLowerCase()
+                    + " stage runs on one thread.");
+        }
+        this.parallelism[stage.ordinal()] = parallelism;
+        this.batchSizes[stage.ordinal()] = batchSize;
+    }
+
+    /**
+     * @param stage a stage.
+     * @return the number of items the stage may hold at once.
+     */
+    private int batchSize(Stage stage) {
+        return batchSizes[stage.ordinal()];
+    }
+
+    /**
+     * Runs games through the pipeline and waits until all are persisted.
+     *
+     * @param numGames number of games to run.
+     * @param out      the writer the results are persisted to.
+     * @return the statistics of the games run.
+     * @throws IOException if the results cannot be written.
+     */
+    public SeasonStats run(long numGames, Writer out) throws IOException {
+        ExecutorService delivery = Executors.newCachedThreadPool();
+        List<RatingBatch> batches = new CopyOnWriteArrayList<>();
+        ThreadLocal<RatingBatch> batch = ThreadLocal.withInitial(() -> {
+            RatingBatch created = new RatingBatch();
+            batches.add(created);
+            return created;
+        });
+        ThreadLocal<int[]> rated = ThreadLocal.withInitial(() -> new int[1]);
+        try {
+            PipelineStage<Game, Game> simulate = new PipelineStage<>(
+                    "simulate", game -> {
+                        game.simulate();
+                        ratings.rate(game.getResult(), batch.get());
+                        if (++rated.get()[0] % RATING_BATCH == 0) {
+                            ratings.apply(batch.get());
+                        }
+                        return game;
+                    }, parallelism[Stage.SIMULATE.ordinal()],
+                    batchSize(Stage.SIMULATE), delivery);
+            PipelineStage<Game, Game> award = new PipelineStage<>(
+                    "award", game -> {
+                        game.awardPoints();
+                        return game;
+                    }, 1, batchSize(Stage.AWARD), delivery);
+            PipelineStage<Game, String> aggregate = new PipelineStage<>(
+                    "aggregate", game -> {
+                        stats.record(game);
+                        String line = game.getResult().toCsv();
+                        game.discard();
+                        return line;
+                    }, 1, batchSize(Stage.AGGREGATE), delivery);
+            Persister persist = new Persister(out,
+                    batchSize(Stage.PERSIST));
+            stages = Arrays.asList(simulate, award, aggregate);
+
+            out.write(GameResult.CSV_HEADER + System.lineSeparator());
+            try (SubmissionPublisher<Game> source = new SubmissionPublisher<>(
+                    delivery, batchSize(Stage.ASSEMBLE))) {
+                this.source = source;
+                source.subscribe(simulate);
+                simulate.subscribe(award);
+                award.subscribe(aggregate);
+                aggregate.subscribe(persist);
+                for (long i = 0; i < numGames && !persist.done.isDone();
+                     i++) {
+                    int lag = source.submit(GameData.createGame(context,
+                            athletes));
+                    maxAssembleLag = Math.max(maxAssembleLag, lag);
+                    assembled.incrementAndGet();
+                }
+            }
+            persist.done.get();
+
+            // The simulating threads are done: merge what they have left.
+            RatingBatch rest = new RatingBatch();
+            for (RatingBatch left : batches) {
+                rest.merge(left);
+            }
+            ratings.apply(rest);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GameException("Interrupted while running pipeline.");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new GameException("Pipeline failed: "
+                    + e.getCause().getMessage());
+        } finally {
+            // Stages are done unless the run failed: stop those left.
+            for (PipelineStage<?, ?> stage : stages) {
+                stage.abort();
+            }
+            delivery.shutdown();
+        }
+        out.flush();
+        return stats;
+    }
+
+    /**
+     * @return the Elo ratings of the athletes, complete once run returns.
+     */
+    public RatingEngine getRatings() {
+        return ratings;
+    }
+
+    /**
+     * @return a snapshot of the metrics of the stages, from assembling to
+     * persisting, once the pipeline is running.
+     */
+    public List<StageMetrics> getMetrics() {
+        List<StageMetrics> metrics = new ArrayList<>();
+        SubmissionPublisher<Game> source = this.source;
+        if (source == null) {
+            return metrics;
+        }
+        metrics.add(new StageMetrics("assemble", 1,
+                batchSize(Stage.ASSEMBLE), assembled.get(), 0,
+                source.estimateMaximumLag(), maxAssembleLag));
+        for (PipelineStage<?, ?> stage : stages) {
+            metrics.add(stage.getMetrics());
+        }
+        metrics.add(new StageMetrics("persist", 1, batchSize(Stage.PERSIST),
+                persisted.get(), 0, 0, 0));
+        return metrics;
+    }
+
+    /**
+     * @return a snapshot of the estimated memory of the season: athletes
+     * and the games in flight, since games persisted are let go.
+     */
+    public MemoryReport getMemory() {
+        return context.getMemory().getReport();
+    }
+
+    /**
+     * @return the number of games assembled.
+     */
+    public long getAssembled() {
+        return assembled.get();
+    }
+
+    /**
+     * @return the number of games persisted.
+     */
+    public long getPersisted() {
+        return persisted.get();
+    }
+
+    /**
+     * Last stage of the pipeline, writing the results.
+     */
+    private class Persister implements Flow.Subscriber<String> {
+
+        // The writer the results are persisted to.
+        private final Writer out;
+
+        // Completed when all results are written or writing failed.
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        // Number of results the persister may hold at once.
+        private final int batchSize;
+
+        // Subscription to the previous stage.
+        private Flow.Subscription subscription;
+
+        Persister(Writer out, int batchSize) {
+            this.out = out;
+            this.batchSize = batchSize;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(batchSize);
+        }
+
+        @Override
+        public void onNext(String results) {
+            try {
+                out.write(results);
+                persisted.incrementAndGet();
+                subscription.request(1);
+            } catch (IOException e) {
+                subscription.cancel();
+                done.completeExceptionally(e);
+            }
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            done.completeExceptionally(error);
+        }
+
+        @Override
+        public void onComplete() {
+            done.complete(null);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package game;
+
+/**
+ * Snapshot of the metrics of a pipeline stage.
+ */
+public final class StageMetrics {
+
+    // Name of the stage.
+    private final String name;
+
+    // Number of threads of the stage.
+    private final int parallelism;
+
+    // Number of items the stage may hold at once.
+    private final int batchSize;
+
+    // Number of items processed.
+    private final long processed;
+
+    // Number of items received but not processed yet.
+    private final int inFlight;
+
+    // Number of items processed but not taken by the next stage yet.
+    private final int queueDepth;
+
+    // Largest queue depth seen.
+    private final int maxQueueDepth;
+
+    /**
+     * Constructor.
+     *
+     * @param name          name of the stage.
+     * @param parallelism   number of threads of the stage.
+     * @param batchSize     number of items the stage may hold at once.
+     * @param processed     number of items processed.
+     * @param inFlight      number of items received but not processed yet.
+     * @param queueDepth    number of items not taken by the next stage yet.
+     * @param maxQueueDepth largest queue depth seen.
+     */
+    StageMetrics(String name, int parallelism, int batchSize, long processed,
+                 int inFlight, int queueDepth, int maxQueueDepth) {
+        this.name = name;
+        this.parallelism = parallelism;
+        this.batchSize = batchSize;
+        this.processed = processed;
+        this.inFlight = inFlight;
+        this.queueDepth = queueDepth;
+        this.maxQueueDepth = maxQueueDepth;
+    }
+
+    /**
+     * @return the name of the stage.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the number of threads of the stage.
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * @return the number of items the stage may hold at once.
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * @return the number of items processed.
+     */
+    public long getProcessed() {
+        return processed;
+    }
+
+    /**
+     * @return the number of items received but not processed yet.
+     */
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * @return the number of items processed but not taken by the next
+     * stage yet.
+     */
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    /**
+     * @return the largest queue depth seen.
+     */
+    public int getMaxQueueDepth() {
+        return maxQueueDepth;
+    }
+
+    /**
+     * @return a string represents the metrics.
+     */
+    @Override
+    public String toString() {
+        return String.format("%-10s threads:%d batch:%d processed:%d "
+                        + "in-flight:%d queue:%d max-queue:%d", name,
+                parallelism, batchSize, processed, inFlight, queueDepth,
+                maxQueueDepth);
+    }
+}
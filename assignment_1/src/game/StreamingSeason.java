@@ -0,0 +1,134 @@
+package game;
+
+import participant.Athlete;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * A season whose games are generated, run and folded into statistics one at
+ * a time.
+ *
+ * Unlike GameData, no game is kept once it is recorded, so only the athletes
+ * and the statistics stay in memory however many games are simulated. The
+ * games are taken from a pool and returned once recorded, so running games
+ * allocates nothing once every event has a free game.
+ */
+public class StreamingSeason {
+
+    // Context of the season.
+    private final SimulationContext context;
+
+    // Athletes of the season.
+    private final List<Athlete> athletes;
+
+    // Games run again and again.
+    private final GamePool pool;
+
+    /**
+     * Constructor.
+     *
+     * @param context context of the season, giving the number of athletes.
+     */
+    public StreamingSeason(SimulationContext context) {
+        this.context = context;
+        this.pool = new GamePool(context);
+        List<Athlete> list = new ArrayList<>(context.getNumAthletes());
+        for (int i = 0; i < context.getNumAthletes(); i++) {
+            list.add(context.getFactory().createAthlete());
+        }
+        GameData.checkAthletes(list);
+        this.athletes = Collections.unmodifiableList(list);
+    }
+
+    /**
+     * Runs games and records them into the statistics.
+     *
+     * @param numGames number of games to run.
+     * @param stats    the statistics to record into.
+     */
+    public void run(long numGames, SeasonStats stats) {
+        for (long i = 0; i < numGames; i++) {
+            Game game = pool.acquire(EventType.random(context.getRandom()));
+            GameData.pickAthletes(game, athletes);
+            game.run();
+            stats.record(game);
+            pool.release(game);
+        }
+    }
+
+    /**
+     * Runs games, records them into the statistics and archives them.
+     *
+     * @param numGames number of games to run.
+     * @param stats    the statistics to record into.
+     * @param archive  the archive the games are written to.
+     * @throws IOException if the archive cannot be written.
+     */
+    public void run(long numGames, SeasonStats stats, ArchiveWriter archive)
+            throws IOException {
+        for (long i = 0; i < numGames; i++) {
+            Game game = pool.acquire(EventType.random(context.getRandom()));
+            GameData.pickAthletes(game, athletes);
+            game.run();
+            stats.record(game);
+            archive.add(game);
+            pool.release(game);
+        }
+    }
+
+    /**
+     * Runs the seasons side by side on the executor, each on one thread at a
+     * time, and waits for all of them.
+     *
+     * @param seasons  the seasons, each with its own context.
+     * @param numGames number of games to run in each season.
+     * @param executor the executor running the seasons.
+     * @return the statistics of each season.
+     */
+    public static List<SeasonStats> runAll(List<StreamingSeason> seasons,
+                                           long numGames,
+                                           ExecutorService executor) {
+        List<Future<SeasonStats>> futures = new ArrayList<>(seasons.size());
+        for (StreamingSeason season : seasons) {
+            futures.add(executor.submit(() -> {
+                SeasonStats stats = new SeasonStats();
+                season.run(numGames, stats);
+                return stats;
+            }));
+        }
+
+        List<SeasonStats> results = new ArrayList<>(seasons.size());
+        try {
+            for (Future<SeasonStats> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GameException("Interrupted while running seasons.");
+        } catch (ExecutionException e) {
+            throw new GameException("Season failed: "
+                    + e.getCause().getMessage());
+        }
+        return results;
+    }
+
+    /**
+     * @return the context of the season.
+     */
+    public SimulationContext getContext() {
+        return context;
+    }
+
+    /**
+     * @return the athletes of the season.
+     */
+    public List<Athlete> getAthletes() {
+        return athletes;
+    }
+}
@@ -0,0 +1,18 @@
+package game;
+
+/**
+ * Part of a simulation whose memory is accounted for.
+ */
+public enum Subsystem {
+    // Athletes and their registration.
+    ATHLETES,
+
+    // Games with their athletes, times, ranks and results.
+    GAMES,
+
+    // Query indexes and ratings ranking the athletes.
+    LEADERBOARD,
+
+    // Cached responses, decoded blocks and cache entries.
+    CACHES
+}
@@ -0,0 +1,88 @@
+package game;
+
+/**
+ * Histogram of the times of an event.
+ *
+ * The times of an event are whole seconds between its minimum and maximum
+ * time, so one counter per second keeps the whole distribution exactly in a
+ * few hundred counters at most. Quantiles are therefore exact, and merging
+ * two histograms is adding their counters.
+ */
+public class TimeHistogram {
+
+    // Minimum time of the histogram.
+    private final int minTime;
+
+    // Number of times recorded per second.
+    private final long[] counts;
+
+    // Number of times recorded.
+    private long count;
+
+    /**
+     * Constructor.
+     *
+     * @param event the event of the times.
+     */
+    public TimeHistogram(EventType event) {
+        this.minTime = event.getMinTime();
+        this.counts = new long[event.getMaxTime() - event.getMinTime() + 1];
+    }
+
+    /**
+     * Records a time.
+     *
+     * @param time the time to be recorded.
+     */
+    public void add(int time) {
+        if (time < minTime || time >= minTime + counts.length) {
+            throw new GameException("Time out of range: " + time);
+        }
+        counts[time - minTime]++;
+        count++;
+    }
+
+    /**
+     * Merges another histogram of the same event into this one.
+     *
+     * @param other the histogram to be merged.
+     */
+    public void merge(TimeHistogram other) {
+        if (other.minTime != minTime || other.counts.length != counts.length) {
+            throw new GameException("Histograms of different events.");
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+    }
+
+    /**
+     * Returns the time at the quantile, e.g. 0.5 for the median.
+     *
+     * @param quantile the quantile between 0 and 1.
+     * @return the smallest time with at least the quantile of the times at
+     * or below it, or 0 if nothing is recorded.
+     */
+    public int getQuantile(double quantile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return minTime + i;
+            }
+        }
+        return minTime + counts.length - 1;
+    }
+
+    /**
+     * @return the number of times recorded.
+     */
+    public long getCount() {
+        return count;
+    }
+}
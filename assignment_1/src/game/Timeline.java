@@ -0,0 +1,367 @@
+package game;
+
+import participant.Athlete;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Schedules sessions of games across venues in virtual time.
+ *
+ * A session is an event released at some time, from when it may start. It
+ * starts on the first free venue hosting its event, or waits for one to be
+ * freed, and keeps the venue for the duration of the event: the time of the
+ * slowest athlete when a game is played, or the maximum time of the event
+ * otherwise. Waiting sessions start in the order they were released.
+ *
+ * Releases and ends of sessions are events of a priority queue on
+ * primitive arrays; the clock jumps from one to the next, so a programme of
+ * many days is planned in the time it takes to process its events.
+ */
+public class Timeline {
+
+    // Number of seconds in a day.
+    public static final int DAY = 24 * 60 * 60;
+
+    // Every event, by ordinal.
+    private static final EventType[] EVENTS = EventType.values();
+
+    // Context of the sessions.
+    private final SimulationContext context;
+
+    // Events each venue hosts, by venue.
+    private final long[] venues;
+
+    // True for the venues holding a session.
+    private final boolean[] busy;
+
+    // Time each venue held sessions, by venue.
+    private final long[] busyTime;
+
+    // Number of sessions held by each venue.
+    private final int[] venueSessions;
+
+    // Releases and ends of sessions, by time.
+    private final EventQueue queue = new EventQueue();
+
+    // Event of each session, by ordinal.
+    private byte[] events = new byte[64];
+
+    // Release time of each session.
+    private long[] releases = new long[64];
+
+    // Start time of each session, or -1 if not started.
+    private long[] starts = new long[64];
+
+    // Duration of each session.
+    private int[] durations = new int[64];
+
+    // Venue of each session, or -1 if not started.
+    private int[] sessionVenues = new int[64];
+
+    // Next waiting session of the same event, or -1.
+    private int[] nextWaiting = new int[64];
+
+    // Number of sessions.
+    private int size;
+
+    // First and last waiting sessions, by event, or -1.
+    private final int[] firstWaiting;
+    private final int[] lastWaiting;
+
+    // Athletes playing the games, or null if no game is played.
+    private List<Athlete> athletes;
+
+    // Games played by the sessions.
+    private GamePool pool;
+
+    // Statistics of the games played.
+    private SeasonStats stats;
+
+    // Current time.
+    private long clock;
+
+    // Number of releases and ends processed.
+    private long processed;
+
+    /**
+     * Constructor.
+     *
+     * @param context context of the sessions.
+     * @param venues  events each venue hosts, by venue, as capability bits.
+     */
+    public Timeline(SimulationContext context, long[] venues) {
+        for (EventType event : EVENTS) {
+            boolean hosted = false;
+            for (long venue : venues) {
+                hosted |= event.isIn(venue);
+            }
+            if (!hosted) {
+                throw new GameException("No venue for "
+                        + event.toString().toLowerCase() + ".");
+            }
+        }
+        this.context = context;
+        this.venues = venues.clone();
+        this.busy = new boolean[venues.length];
+        this.busyTime = new long[venues.length];
+        this.venueSessions = new int[venues.length];
+        this.firstWaiting = new int[EVENTS.length];
+        this.lastWaiting = new int[EVENTS.length];
+        Arrays.fill(firstWaiting, -1);
+        Arrays.fill(lastWaiting, -1);
+    }
+
+    /**
+     * Plays a game of each session from now on, taking its duration from
+     * the times of the game.
+     *
+     * @param athletes the athletes to pick from.
+     * @param stats    statistics the games are recorded to.
+     */
+    public void setRoster(List<Athlete> athletes, SeasonStats stats) {
+        GameData.checkAthletes(athletes);
+        this.athletes = athletes;
+        this.stats = stats;
+        if (pool == null) {
+            pool = new GamePool(context);
+        }
+    }
+
+    /**
+     * Schedules a session.
+     *
+     * @param event   event of the session.
+     * @param release time from when the session may start.
+     * @return the index of the session.
+     */
+    public int schedule(EventType event, long release) {
+        if (release < clock) {
+            throw new GameException("A session cannot be released in the "
+                    + "past.");
+        }
+        if (size == events.length) {
+            int length = size * 2;
+            events = Arrays.copyOf(events, length);
+            releases = Arrays.copyOf(releases, length);
+            starts = Arrays.copyOf(starts, length);
+            durations = Arrays.copyOf(durations, length);
+            sessionVenues = Arrays.copyOf(sessionVenues, length);
+            nextWaiting = Arrays.copyOf(nextWaiting, length);
+        }
+        int session = size++;
+        events[session] = (byte) event.ordinal();
+        releases[session] = release;
+        starts[session] = -1;
+        sessionVenues[session] = -1;
+        nextWaiting[session] = -1;
+        queue.push(release, session);
+        return session;
+    }
+
+    /**
+     * Runs the timeline until every scheduled session has ended. Ends come
+     * before releases at the same time, so a freed venue can be taken at
+     * once.
+     *
+     * @return the time the last session ended.
+     */
+    public long run() {
+        while (!queue.isEmpty()) {
+            clock = queue.peekTime();
+            int payload = queue.pop();
+            processed++;
+            if (payload < 0) {
+                // A session ended: free its venue for a waiting session.
+                int venue = sessionVenues[-payload - 1];
+                busy[venue] = false;
+                int session = takeWaiting(venue);
+                if (session >= 0) {
+                    start(session, venue);
+                }
+            } else {
+                // A session is released: start it or let it wait.
+                int venue = findVenue(EVENTS[events[payload]]);
+                if (venue >= 0) {
+                    start(payload, venue);
+                } else {
+                    enqueue(payload);
+                }
+            }
+        }
+        return clock;
+    }
+
+    /**
+     * @param event an event.
+     * @return the first free venue hosting the event, or -1 if none is free.
+     */
+    private int findVenue(EventType event) {
+        for (int v = 0; v < venues.length; v++) {
+            if (!busy[v] && event.isIn(venues[v])) {
+                return v;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Adds a session to the sessions waiting for a venue.
+     *
+     * @param session the session.
+     */
+    private void enqueue(int session) {
+        int event = events[session];
+        if (lastWaiting[event] < 0) {
+            firstWaiting[event] = session;
+        } else {
+            nextWaiting[lastWaiting[event]] = session;
+        }
+        lastWaiting[event] = session;
+    }
+
+    /**
+     * Takes the waiting session released first among the events a venue
+     * hosts.
+     *
+     * @param venue the venue.
+     * @return the session, or -1 if none is waiting.
+     */
+    private int takeWaiting(int venue) {
+        int first = -1;
+        for (long bits = venues[venue]; bits != 0; bits &= bits - 1) {
+            int session = firstWaiting[Long.numberOfTrailingZeros(bits)];
+            if (session >= 0 && (first < 0
+                    || releases[session] < releases[first])) {
+                first = session;
+            }
+        }
+        if (first >= 0) {
+            int event = events[first];
+            firstWaiting[event] = nextWaiting[first];
+            if (firstWaiting[event] < 0) {
+                lastWaiting[event] = -1;
+            }
+        }
+        return first;
+    }
+
+    /**
+     * Starts a session on a venue and schedules its end.
+     *
+     * @param session the session.
+     * @param venue   the venue.
+     */
+    private void start(int session, int venue) {
+        int duration = play(EVENTS[events[session]]);
+        starts[session] = clock;
+        durations[session] = duration;
+        sessionVenues[session] = venue;
+        busy[venue] = true;
+        busyTime[venue] += duration;
+        venueSessions[venue]++;
+        queue.push(clock + duration, -session - 1);
+    }
+
+    /**
+     * Plays the game of a session if there is a roster.
+     *
+     * @param event event of the session.
+     * @return the duration of the session.
+     */
+    private int play(EventType event) {
+        if (athletes == null) {
+            return event.getMaxTime();
+        }
+        Game game = pool.acquire(event);
+        try {
+            GameData.pickAthletes(game, athletes);
+            game.run();
+            stats.record(game);
+            return game.getTime(game.getAthletes().size() - 1);
+        } finally {
+            pool.release(game);
+        }
+    }
+
+    /**
+     * @return the number of sessions scheduled.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param session index of a session.
+     * @return the start time of the session, or -1 if not started.
+     */
+    public long getStart(int session) {
+        return starts[session];
+    }
+
+    /**
+     * @param session index of a session.
+     * @return the end time of the session, or -1 if not started.
+     */
+    public long getEnd(int session) {
+        return starts[session] < 0 ? -1 : starts[session]
+                + durations[session];
+    }
+
+    /**
+     * @param session index of a session.
+     * @return the venue of the session, or -1 if not started.
+     */
+    public int getVenue(int session) {
+        return sessionVenues[session];
+    }
+
+    /**
+     * @return the current time.
+     */
+    public long getClock() {
+        return clock;
+    }
+
+    /**
+     * @return the number of releases and ends processed.
+     */
+    public long getProcessed() {
+        return processed;
+    }
+
+    /**
+     * @param venue a venue.
+     * @return the share of the time so far the venue held sessions.
+     */
+    public double getUtilization(int venue) {
+        return clock == 0 ? 0 : (double) busyTime[venue] / clock;
+    }
+
+    /**
+     * @param time a time.
+     * @return the time as days and hours, minutes and seconds.
+     */
+    public static String formatTime(long time) {
+        return String.format("%dd %02d:%02d:%02d", time / DAY,
+                time % DAY / 3600, time % 3600 / 60, time % 60);
+    }
+
+    /**
+     * Displays the sessions and utilization of each venue.
+     */
+    public void displayVenues() {
+        System.out.println("Makespan: " + formatTime(clock));
+        System.out.printf("%-8s%-12s%-12s%-16s%-12s\n", "Venue", "Events",
+                "Sessions", "Busy", "Utilization");
+        for (int v = 0; v < venues.length; v++) {
+            StringBuilder hosted = new StringBuilder();
+            for (EventType event : EventType.of(venues[v])) {
+                hosted.append(event.getSymbol());
+            }
+            System.out.printf("%-8d%-12s%-12d%-16s%.1f%%\n", v, hosted,
+                    venueSessions[v], formatTime(busyTime[v]),
+                    getUtilization(v) * 100);
+        }
+    }
+}
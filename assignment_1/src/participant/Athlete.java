@@ -2,39 +2,55 @@ package participant;
 
 import game.EventType;
 import game.GameException;
+import game.RandomUtil;
 
 /**
- * Abstract class for Swimmer, SuperAthlete, Cycling and Sprinter.
+ * Abstract class for Swimmer, SuperAthlete, Cycling, Sprinter and
+ * MultiEventAthlete.
+ *
+ * The events an athlete can play are kept as capabilities, one bit per event
+ * type, rather than decided by the subclass.
  */
 public abstract class Athlete extends Participant
         implements Comparable<Athlete> {
 
+    // Events the athlete can play, one bit per event type.
+    private final long capabilities;
+
     // Game points of the athlete.
     private int points;
 
     /**
      * Constructor.
      *
-     * @param id    id of the athlete.
-     * @param name  name of the athlete.
-     * @param age   age of the athlete.
-     * @param state state of the athlete.
+     * @param id           id of the athlete.
+     * @param name         name of the athlete.
+     * @param age          age of the athlete.
+     * @param state        state of the athlete.
+     * @param capabilities events the athlete can play, one bit per event
+     *                     type.
      */
-    public Athlete(int id, String name, int age, String state) {
+    public Athlete(int id, String name, int age, String state,
+                   long capabilities) {
         super(id, name, age, state);
+        if ((capabilities & EventType.ALL) == 0) {
+            throw new GameException("The athlete cannot play any event.");
+        }
+        this.capabilities = capabilities & EventType.ALL;
         this.points = 0;
     }
 
     /**
      * Competes in the game and returns the time used.
      *
-     * @param event event type.
+     * @param event  event type.
+     * @param random random number generator.
      * @return the time used.
      */
-    public int compete(EventType event) {
+    public int compete(EventType event, RandomUtil random) {
         // If the athlete can play the event, create a time randomly.
         if (canPlay(event)) {
-            return event.getTime();
+            return event.getTime(random);
         } else {
             throw new GameException("The athlete cannot play the game: " + event);
         }
@@ -46,7 +62,16 @@ public abstract class Athlete extends Participant
      * @param type event type.
      * @return true if the athlete can play the event or false otherwise.
      */
-    public abstract boolean canPlay(EventType type);
+    public final boolean canPlay(EventType type) {
+        return type.isIn(capabilities);
+    }
+
+    /**
+     * @return the events the athlete can play, one bit per event type.
+     */
+    public long getCapabilities() {
+        return capabilities;
+    }
 
 
     /**
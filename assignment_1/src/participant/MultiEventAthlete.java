@@ -0,0 +1,36 @@
+package participant;
+
+import game.EventType;
+
+/**
+ * Athlete playing any subset of the events, such as a triathlete.
+ */
+public class MultiEventAthlete extends Athlete {
+
+    /**
+     * Constructor.
+     *
+     * @param id           id of the athlete.
+     * @param name         name of the athlete.
+     * @param age          age of the athlete.
+     * @param state        state of the athlete.
+     * @param capabilities events the athlete can play, one bit per event
+     *                     type.
+     */
+    public MultiEventAthlete(int id, String name, int age, String state,
+                             long capabilities) {
+        super(id, name, age, state, capabilities);
+    }
+
+    /**
+     * @return a string represents the participant.
+     */
+    @Override
+    public String toString() {
+        StringBuilder events = new StringBuilder();
+        for (EventType event : EventType.of(getCapabilities())) {
+            events.append(event.getSymbol());
+        }
+        return "[MultiEvent " + events + "] " + super.toString();
+    }
+}
@@ -1,15 +1,23 @@
 package participant;
 
 import game.EventType;
+import game.GameException;
 import game.RandomUtil;
+import game.SimulationContext;
 
 /**
  * The factory to generate participants.
  */
 public class ParticipantFactory {
 
+    // Context of the participants.
+    private final SimulationContext context;
+
+    // Random number generator of the context.
+    private final RandomUtil random;
+
     // Participant id.
-    private static int participantID = 1;
+    private int participantID = 1;
 
     // Names.
     private static final String NAMES[] = {
@@ -35,21 +43,61 @@ public class ParticipantFactory {
     };
 
     /**
-     * Creates an athlete.
+     * Constructor.
+     *
+     * @param context context of the participants.
+     */
+    public ParticipantFactory(SimulationContext context) {
+        this.context = context;
+        this.random = context.getRandom();
+    }
+
+    /**
+     * Creates an athlete and registers it to the context.
      *
      * @return the athlete created.
      */
-    public static Athlete createAthlete() {
-        switch (RandomUtil.generate(0, 3)) {
+    public Athlete createAthlete() {
+        Athlete athlete;
+        switch (random.generate(0, 3)) {
             case 0:
-                return createAthlete(EventType.SWIMMING);
+                athlete = createAthlete(EventType.SWIMMING);
+                break;
             case 1:
-                return createAthlete(EventType.SPRINT);
+                athlete = createAthlete(EventType.SPRINT);
+                break;
             case 2:
-                return createAthlete(EventType.CYCLING);
+                athlete = createAthlete(EventType.CYCLING);
+                break;
             default:
-                return createAthlete(null);
+                athlete = createAthlete(null);
+                break;
+        }
+        context.register(athlete);
+        return athlete;
+    }
+
+    /**
+     * Creates an athlete playing the specified events and registers it to
+     * the context.
+     *
+     * @param capabilities events the athlete can play, one bit per event
+     *                     type.
+     * @return the athlete created.
+     */
+    public Athlete createAthlete(long capabilities) {
+        if ((capabilities & EventType.ALL) == 0) {
+            throw new GameException("The athlete cannot play any event.");
         }
+        int id = participantID++;
+        String name = NAMES[random.generate(0, NAMES.length - 1)];
+        int age = random.generate(18, 50);
+        String state = STATES[random.generate(0, STATES.length - 1)];
+
+        Athlete athlete = new MultiEventAthlete(id, name, age, state,
+                capabilities);
+        context.register(athlete);
+        return athlete;
     }
 
     /**
@@ -58,13 +106,13 @@ public class ParticipantFactory {
      * @param event the event type.
      * @return the created athlete.
      */
-    private static Athlete createAthlete(EventType event) {
+    private Athlete createAthlete(EventType event) {
 
         // Generate id, name, age and state.
         int id = participantID++;
-        String name = NAMES[RandomUtil.generate(0, NAMES.length - 1)];
-        int age = RandomUtil.generate(18, 50);
-        String state = STATES[RandomUtil.generate(0, STATES.length - 1)];
+        String name = NAMES[random.generate(0, NAMES.length - 1)];
+        int age = random.generate(18, 50);
+        String state = STATES[random.generate(0, STATES.length - 1)];
 
         // Create a super athlete if no event type specified.
         if (event == null) {
@@ -88,13 +136,13 @@ public class ParticipantFactory {
      *
      * @return the created official.
      */
-    public static Official createOfficial() {
+    public Official createOfficial() {
 
         // Generate id, name, age and state.
         int id = participantID++;
-        String name = NAMES[RandomUtil.generate(0, NAMES.length - 1)];
-        int age = RandomUtil.generate(15, 35);
-        String state = STATES[RandomUtil.generate(0, STATES.length - 1)];
+        String name = NAMES[random.generate(0, NAMES.length - 1)];
+        int age = random.generate(15, 35);
+        String state = STATES[random.generate(0, STATES.length - 1)];
 
         // Create an official.
         return new Official(id, name, age, state);
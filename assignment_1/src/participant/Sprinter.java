@@ -16,18 +16,7 @@ public class Sprinter extends Athlete {
      * @param state state of the athlete.
      */
     public Sprinter(int id, String name, int age, String state) {
-        super(id, name, age, state);
-    }
-
-    /**
-     * Returns true if the athlete can play the event.
-     *
-     * @param type event type.
-     * @return true if the athlete can play the event or false otherwise.
-     */
-    @Override
-    public boolean canPlay(EventType type) {
-        return type == EventType.SPRINT;
+        super(id, name, age, state, EventType.SPRINT.getMask());
     }
 
     /**
@@ -16,18 +16,7 @@ public class SuperAthlete extends Athlete {
      * @param state state of the athlete.
      */
     public SuperAthlete(int id, String name, int age, String state) {
-        super(id, name, age, state);
-    }
-
-    /**
-     * Returns true if the athlete can play the event.
-     *
-     * @param type event type.
-     * @return true if the athlete can play the event or false otherwise.
-     */
-    @Override
-    public boolean canPlay(EventType type) {
-        return true;
+        super(id, name, age, state, EventType.ALL);
     }
 
     /**
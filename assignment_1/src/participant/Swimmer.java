@@ -16,12 +16,7 @@ public class Swimmer extends Athlete {
      * @param state state of the athlete.
      */
     public Swimmer(int id, String name, int age, String state) {
-        super(id, name, age, state);
-    }
-
-    @Override
-    public boolean canPlay(EventType type) {
-        return type == EventType.SWIMMING;
+        super(id, name, age, state, EventType.SWIMMING.getMask());
     }
 
     /**
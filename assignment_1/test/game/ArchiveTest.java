@@ -0,0 +1,309 @@
+package game;
+
+import participant.Athlete;
+import participant.Swimmer;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static game.Check.check;
+import static game.Check.equal;
+import static game.Check.fails;
+
+/**
+ * Tests of ColumnBlock, ArchiveWriter and ArchiveReader.
+ */
+public class ArchiveTest {
+
+    public static void main(String[] args) throws IOException {
+        blocksRoundTrip();
+        extremeIdsRoundTrip();
+        archivesRoundTrip();
+        invalidArchivesAreRejected();
+    }
+
+    /**
+     * Fills a block of each event with games of two contexts, so game
+     * numbers go down as well as up, and decodes it into another block.
+     */
+    static void blocksRoundTrip() {
+        for (EventType event : EventType.values()) {
+            SimulationContext one = new SimulationContext(0, 0, 1);
+            SimulationContext two = new SimulationContext(0, 0, 2);
+            List<Athlete> athletes = athletes(one, 40);
+            ColumnBlock block = new ColumnBlock(event);
+            List<String> rows = new ArrayList<>();
+            for (int g = 0; !block.isFull(); g++) {
+                Game game = GameData.createGame(g % 3 == 0 ? two : one,
+                        athletes, event, Game.MIN_ATHLETES + g
+                        % (Game.MAX_ATHLETES - Game.MIN_ATHLETES + 1));
+                game.startGame(false);
+                block.add(game);
+                addRows(rows, game);
+            }
+            equal(ColumnBlock.MAX_GAMES, block.getGames(), "games of a "
+                    + "full block");
+            Game extra = GameData.createGame(one, athletes, event,
+                    Game.MIN_ATHLETES);
+            extra.startGame(false);
+            fails(() -> block.add(extra), "game of a full block");
+
+            ColumnBlock decoded = new ColumnBlock(EventType.values()[0]);
+            int length = block.encode();
+            decoded.decode(event, block.getBuffer(), length);
+            equal(event, decoded.getEvent(), "event decoded");
+            equal(block.getGames(), decoded.getGames(), "games decoded");
+            equal(block.getRows(), decoded.getRows(), "rows decoded");
+            for (int g = 0; g < block.getGames(); g++) {
+                equal(block.getNumber(g), decoded.getNumber(g),
+                        "number decoded");
+                equal(block.getOffset(g), decoded.getOffset(g),
+                        "offset decoded");
+                equal(block.getSize(g), decoded.getSize(g), "size decoded");
+            }
+            for (int r = 0; r < block.getRows(); r++) {
+                equal(block.getId(r), decoded.getId(r), "id decoded");
+                equal(block.getTime(r), decoded.getTime(r), "time decoded");
+            }
+            equal(rows, scan(decoded, event.getMinTime(),
+                    event.getMaxTime()), "rows of " + event);
+
+            int from = (event.getMinTime() + event.getMaxTime()) / 2;
+            List<String> later = new ArrayList<>();
+            for (String row : rows) {
+                if (Integer.parseInt(row.split(" ")[3]) >= from) {
+                    later.add(row);
+                }
+            }
+            equal(later, scan(decoded, from, event.getMaxTime()),
+                    "rows of " + event + " from " + from);
+        }
+    }
+
+    /**
+     * Ids far apart need the longest varints of their differences.
+     */
+    static void extremeIdsRoundTrip() {
+        SimulationContext context = new SimulationContext(0, 0, 3);
+        int[] ids = {0, Integer.MAX_VALUE, 1, Integer.MAX_VALUE - 1, 7};
+        Game game = new Game(context, EventType.SWIMMING);
+        for (int id : ids) {
+            game.addAthlete(new Swimmer(id, "A", 20, "NSW"));
+        }
+        game.setReferee(context.getFactory().createOfficial());
+        game.startGame(false);
+        ColumnBlock block = new ColumnBlock(EventType.SWIMMING);
+        block.add(game);
+        ColumnBlock decoded = new ColumnBlock(EventType.SWIMMING);
+        int length = block.encode();
+        decoded.decode(EventType.SWIMMING, block.getBuffer(), length);
+        for (int r = 0; r < ids.length; r++) {
+            equal(game.getAthletes().get(r).getId(), decoded.getId(r),
+                    "extreme id decoded");
+            equal(game.getTime(r), decoded.getTime(r), "time decoded");
+        }
+        fails(() -> decoded.decode(EventType.SWIMMING, new byte[]{-1, -1,
+                -1, -1, -1, -1}, 6), "corrupt varint");
+    }
+
+    /**
+     * Archives enough games to fill blocks of every event and reads them
+     * back: the index, every row and the roster must match the games.
+     */
+    static void archivesRoundTrip() throws IOException {
+        SimulationContext context = new SimulationContext(0, 0, 4);
+        List<Athlete> athletes = athletes(context, 60);
+        Path file = Files.createTempFile("archive", ".oza");
+        try {
+            List<String> rows = new ArrayList<>();
+            int[] games = new int[EventType.values().length];
+            int numGames = 3 * ColumnBlock.MAX_GAMES + 500;
+            try (ArchiveWriter writer = new ArchiveWriter(file)) {
+                Game unfinished = GameData.createGame(context, athletes);
+                fails(() -> {
+                    try {
+                        writer.add(unfinished);
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }, "unfinished game");
+                for (int g = 0; g < numGames; g++) {
+                    Game game = GameData.createGame(context, athletes);
+                    game.startGame(false);
+                    writer.add(game);
+                    addRows(rows, game);
+                    games[game.getEvent().ordinal()]++;
+                }
+                equal(numGames, writer.getGames(), "games written");
+            }
+
+            try (ArchiveReader reader = new ArchiveReader(file)) {
+                equal(numGames, reader.getGames(), "games read");
+                check(reader.getBlocks() > EventType.values().length,
+                        "full blocks written before the end");
+                int[] blockGames = new int[games.length];
+                for (int b = 0; b < reader.getBlocks(); b++) {
+                    blockGames[reader.getEvent(b).ordinal()]
+                            += reader.getGames(b);
+                }
+                for (EventType event : EventType.values()) {
+                    equal(games[event.ordinal()],
+                            blockGames[event.ordinal()], "games of "
+                            + event);
+                }
+
+                List<String> read = new ArrayList<>();
+                equal(rows.size(), reader.scan(null, 0, Integer.MAX_VALUE,
+                        (game, event, id, time, rank) -> read.add(row(
+                                game, event, id, time, rank))),
+                        "rows visited");
+                Collections.sort(rows);
+                Collections.sort(read);
+                equal(rows, read, "rows read");
+                equal(0, reader.getBlocksSkipped(), "blocks skipped");
+
+                EventType event = EventType.CYCLING;
+                int[] visited = new int[1];
+                long count = reader.scan(event, 600, 700,
+                        (game, e, id, time, rank) -> visited[0]++);
+                int expected = 0;
+                for (String row : rows) {
+                    String[] fields = row.split(" ");
+                    int time = Integer.parseInt(fields[3]);
+                    if (fields[1].equals(event.toString()) && time >= 600
+                            && time <= 700) {
+                        expected++;
+                    }
+                }
+                equal(expected, count, "rows of " + event + " in a range");
+                equal(expected, visited[0], "rows visited in a range");
+                check(reader.getBlocksSkipped() > 0, "blocks of other "
+                        + "events skipped");
+
+                equal(athletes.size(), reader.getAthleteCount(),
+                        "athletes read");
+                List<Athlete> roster = reader.readAthletes();
+                for (int i = 0; i < athletes.size(); i++) {
+                    Athlete athlete = athletes.get(i);
+                    Athlete copy = roster.get(i);
+                    equal(athlete.toString(), copy.toString(), "athlete");
+                    equal(athlete.getCapabilities(), copy.getCapabilities(),
+                            "capabilities");
+                    equal(i, reader.findAthlete(athlete.getId()),
+                            "index of an athlete");
+                }
+                equal(-1, reader.findAthlete(-5), "athlete not archived");
+
+                int[] ranked = reader.rankAthletes();
+                for (int i = 1; i < ranked.length; i++) {
+                    Athlete before = roster.get(ranked[i - 1]);
+                    Athlete after = roster.get(ranked[i]);
+                    check(before.getPoints() > after.getPoints()
+                            || before.getPoints() == after.getPoints()
+                            && before.getId() < after.getId(),
+                            "athletes ranked by points");
+                }
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    static void invalidArchivesAreRejected() throws IOException {
+        SimulationContext context = new SimulationContext(0, 0, 5);
+        List<Athlete> athletes = athletes(context, 20);
+        Path file = Files.createTempFile("archive", ".oza");
+        try {
+            try (ArchiveWriter writer = new ArchiveWriter(file)) {
+                Game game = GameData.createGame(context, athletes);
+                game.startGame(false);
+                writer.add(game);
+            }
+            byte[] archive = Files.readAllBytes(file);
+            try (ArchiveReader reader = new ArchiveReader(file)) {
+                equal(1, reader.getGames(), "game archived");
+            }
+
+            patch(file, 4, ArchiveWriter.VERSION + 1);
+            fails(() -> open(file), "other version");
+            Files.write(file, archive);
+            patch(file, 0, 0);
+            fails(() -> open(file), "no magic number");
+            Files.write(file, archive);
+            patch(file, archive.length - 4, 0);
+            fails(() -> open(file), "no trailer");
+            Files.write(file, new byte[10]);
+            fails(() -> open(file), "truncated archive");
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Opens and closes an archive.
+     */
+    private static void open(Path file) {
+        try {
+            new ArchiveReader(file).close();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Writes an int over the bytes of a file at an offset.
+     */
+    private static void patch(Path file, long offset, int value)
+            throws IOException {
+        try (RandomAccessFile out = new RandomAccessFile(file.toFile(),
+                "rw")) {
+            out.seek(offset);
+            out.writeInt(value);
+        }
+    }
+
+    /**
+     * @return new athletes of random types.
+     */
+    private static List<Athlete> athletes(SimulationContext context,
+                                          int count) {
+        List<Athlete> athletes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            athletes.add(context.getFactory().createAthlete());
+        }
+        return athletes;
+    }
+
+    /**
+     * Adds the rows of a finished game.
+     */
+    private static void addRows(List<String> rows, Game game) {
+        GameResult result = game.getResult();
+        for (int i = 0; i < result.size(); i++) {
+            rows.add(row(game.getNumber(), game.getEvent(),
+                    result.getAthlete(i).getId(), result.getTime(i),
+                    result.getRank(i)));
+        }
+    }
+
+    /**
+     * @return the rows of a block with a time in a range.
+     */
+    private static List<String> scan(ColumnBlock block, int from, int to) {
+        List<String> rows = new ArrayList<>();
+        int count = block.scan(from, to, (game, event, id, time, rank)
+                -> rows.add(row(game, event, id, time, rank)));
+        equal(rows.size(), count, "rows visited");
+        return rows;
+    }
+
+    private static String row(int game, EventType event, int id, int time,
+                              int rank) {
+        return game + " " + event + " " + id + " " + time + " " + rank;
+    }
+}
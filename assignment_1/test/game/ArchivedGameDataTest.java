@@ -0,0 +1,141 @@
+package game;
+
+import participant.Athlete;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static game.Check.check;
+import static game.Check.equal;
+import static game.Check.fails;
+
+/**
+ * Tests of ArchivedGameData against the games archived.
+ */
+public class ArchivedGameDataTest {
+
+    // Number of games and of athletes kept in the caches.
+    private static final int CACHE = 50;
+
+    public static void main(String[] args) throws IOException {
+        SimulationContext context = new SimulationContext(0, 0, 6);
+        List<Athlete> athletes = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            athletes.add(context.getFactory().createAthlete());
+        }
+        Map<Integer, String> games = new HashMap<>();
+        Path file = Files.createTempFile("archive", ".oza");
+        try {
+            try (ArchiveWriter writer = new ArchiveWriter(file)) {
+                for (int g = 0; g < ColumnBlock.MAX_GAMES + 300; g++) {
+                    Game game = GameData.createGame(context, athletes);
+                    game.startGame(false);
+                    writer.add(game);
+                    games.put(game.getNumber(), game.getResult().toCsv());
+                }
+            }
+            try (ArchivedGameData data = ArchivedGameData.open(file, CACHE)) {
+                gamesMatchTheArchive(data, games);
+            }
+            try (ArchivedGameData data = ArchivedGameData.open(file, CACHE)) {
+                gamesAreCachedUpToTheirBound(data);
+            }
+            try (ArchivedGameData data = ArchivedGameData.open(file, CACHE)) {
+                athletesAreRankedByPoints(data, athletes);
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Reads every game, each in its result as written, whatever block it
+     * was stored in.
+     */
+    static void gamesMatchTheArchive(ArchivedGameData data,
+                                     Map<Integer, String> games) {
+        equal(games.size(), data.getGames().size(), "games");
+        Map<Integer, String> read = new HashMap<>();
+        for (Game game : data.getGames()) {
+            check(game.isFinished(), "archived game is finished");
+            check(game.getReferee() == null, "referees are not archived");
+            read.put(game.getNumber(), game.getResult().toCsv());
+        }
+        equal(games, read, "results read");
+        equal(games.size(), data.getGamesRead(), "games read once");
+        fails(data::getQuery, "query of an archive");
+        try {
+            data.getGames().get(games.size());
+            check(false, "game after the last");
+        } catch (IndexOutOfBoundsException e) {
+            equal(games.size(), data.getGamesRead(), "games read");
+        }
+    }
+
+    /**
+     * Games used last are given again without reading them, games used
+     * before are evicted, and the games held never outgrow the cache.
+     */
+    static void gamesAreCachedUpToTheirBound(ArchivedGameData data) {
+        MemoryAccounting memory = data.getContext().getMemory();
+        List<Game> list = data.getGames();
+        long largest = 0;
+        for (int i = 0; i < CACHE; i++) {
+            long before = memory.getReport().getBytes(Subsystem.GAMES);
+            list.get(i);
+            largest = Math.max(largest, memory.getReport().getBytes(
+                    Subsystem.GAMES) - before);
+        }
+        long read = data.getGamesRead();
+        Game first = list.get(0);
+        check(list.get(0) == first, "cached game given again");
+        equal(read, data.getGamesRead(), "cached games are not read again");
+
+        for (int i = CACHE; i < list.size(); i++) {
+            list.get(i);
+            check(memory.getReport().getBytes(Subsystem.GAMES)
+                    <= CACHE * largest, "games held within the cache");
+        }
+        long evicted = data.getGamesRead();
+        check(list.get(0) != first, "evicted game read again");
+        equal(evicted + 1, data.getGamesRead(), "evicted game read");
+        equal(first.getResult().toCsv(), list.get(0).getResult().toCsv(),
+                "game read again");
+    }
+
+    /**
+     * Ranks the athletes by points, and by id on a tie, as the athletes
+     * archived, and reads only the athletes of the page asked for.
+     */
+    static void athletesAreRankedByPoints(ArchivedGameData data,
+                                          List<Athlete> athletes) {
+        List<Athlete> expected = new ArrayList<>(athletes);
+        expected.sort((a, b) -> a.getPoints() != b.getPoints()
+                ? b.getPoints() - a.getPoints() : a.getId() - b.getId());
+        MemoryAccounting memory = data.getContext().getMemory();
+        List<Athlete> ranked = data.getAthletesByPoints();
+        equal(expected.size(), ranked.size(), "athletes ranked");
+        for (int i = 0; i < 10; i++) {
+            equal(expected.get(i).toString(), ranked.get(i).toString(),
+                    "athlete of rank " + (i + 1));
+        }
+        long page = memory.getReport().getBytes(Subsystem.ATHLETES);
+        check(page > 0, "athletes of the page read");
+        for (int i = 10; i < ranked.size(); i++) {
+            equal(expected.get(i).toString(), ranked.get(i).toString(),
+                    "athlete of rank " + (i + 1));
+        }
+        check(memory.getReport().getBytes(Subsystem.ATHLETES)
+                <= page * CACHE / 5, "athletes held within the cache");
+        equal(0, data.getGamesRead(), "no game read for a ranking");
+        for (int i = 0; i < athletes.size(); i++) {
+            equal(athletes.get(i).toString(), data.getAthletes().get(i)
+                    .toString(), "athlete " + i);
+        }
+    }
+}
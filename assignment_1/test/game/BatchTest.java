@@ -0,0 +1,106 @@
+package game;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static game.Check.check;
+import static game.Check.equal;
+import static game.Check.fails;
+
+/**
+ * Tests of Batch.
+ */
+public class BatchTest {
+
+    public static void main(String[] args) throws IOException {
+        numbersAreParsedInRange();
+        scriptsRunTheirCommands();
+        seasonsAddToTheStatistics();
+        failingCommandsStopTheBatch();
+    }
+
+    static void numbersAreParsedInRange() {
+        String[] words = {"generate", "25", "4294967297", "-2147483648",
+                "99999999999999999999", "x"};
+        equal(25, Batch.parseInt(words, 1), "int");
+        equal(Integer.MIN_VALUE, Batch.parseInt(words, 3), "smallest int");
+        equal(4294967297L, Batch.parseLong(words, 2), "long");
+        fails(() -> Batch.parseInt(words, 2), "int out of range");
+        fails(() -> Batch.parseLong(words, 4), "long out of range");
+        fails(() -> Batch.parseLong(words, 5), "not a number");
+        fails(() -> Batch.argument(words, 6), "missing argument");
+    }
+
+    static void scriptsRunTheirCommands() throws IOException {
+        Path csv = Files.createTempFile("batch", ".csv");
+        try {
+            check(run("# comment", "", "seed 1", "generate 30 4", "run",
+                    "stream 50 100", "dump " + csv, "stats"),
+                    "script succeeds");
+            List<String> lines = Files.readAllLines(csv);
+            equal(GameResult.CSV_HEADER, lines.get(0), "CSV header");
+            Set<String> games = new HashSet<>();
+            for (String line : lines.subList(1, lines.size())) {
+                games.add(line.substring(0, line.indexOf(',')));
+            }
+            equal(4, games.size(), "games dumped");
+            check(Batch.run(new String[]{"-s", "1", "-a", "40", "-g", "3"}),
+                    "options succeed");
+        } finally {
+            Files.delete(csv);
+        }
+    }
+
+    /**
+     * Streams seasons side by side, whose games must be in the statistics
+     * displayed.
+     */
+    static void seasonsAddToTheStatistics() throws IOException {
+        PrintStream out = System.out;
+        ByteArrayOutputStream display = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(display, true, StandardCharsets.UTF_8));
+        try {
+            check(run("seed 2", "seasons 3 30 40 2", "stats"),
+                    "seasons succeed");
+        } finally {
+            System.setOut(out);
+        }
+        check(display.toString(StandardCharsets.UTF_8).contains(
+                "Games    : 120\n"), "games of the seasons in the statistics");
+    }
+
+    static void failingCommandsStopTheBatch() throws IOException {
+        check(!run("jump 1"), "unknown command fails");
+        check(!run("run"), "running without game data fails");
+        check(!run("generate 30 4294967297"), "number out of range fails");
+        check(!run("live -1 5"), "invalid context fails");
+        check(!run("seasons -1 50 10 1"),
+                "runtime exception fails the command");
+        check(!Batch.run(new String[]{"-x", "1"}), "unknown option fails");
+        check(!Batch.run(new String[]{"-g"}), "missing option value fails");
+    }
+
+    /**
+     * Runs a script of commands.
+     *
+     * @param lines the lines of the script.
+     * @return true if all commands succeeded.
+     */
+    private static boolean run(String... lines) throws IOException {
+        Path script = Files.createTempFile("batch", ".txt");
+        try {
+            Files.write(script, Arrays.asList(lines), StandardCharsets.UTF_8);
+            return Batch.run(new String[]{"-f", script.toString()});
+        } finally {
+            Files.delete(script);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package game;
+
+import participant.Athlete;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static game.Check.check;
+import static game.Check.equal;
+import static game.Check.fails;
+
+/**
+ * Tests of BulkRegistration and RegistrationReport.
+ */
+public class BulkRegistrationTest {
+
+    // Number of games registered to.
+    private static final int GAMES = 30;
+
+    // Number of time slots of the games.
+    private static final int SLOTS = 5;
+
+    public static void main(String[] args) {
+        entriesAreCheckedAsOneByOne();
+        invalidRegistrationsAreRejected();
+    }
+
+    /**
+     * Registers random entries, some of them unknown, in bulk and checks
+     * every entry with plain lists in the same order: the rejections, the
+     * counts, the rosters and the games not ready must all agree.
+     */
+    static void entriesAreCheckedAsOneByOne() {
+        SimulationContext context = new SimulationContext(0, 0, 4);
+        List<Athlete> athletes = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            athletes.add(context.getFactory().createAthlete());
+        }
+        List<Game> games = new ArrayList<>();
+        int[] slots = new int[GAMES];
+        for (int g = 0; g < GAMES; g++) {
+            Game game = new Game(context, EventType.random(
+                    context.getRandom()));
+            if (g % 7 != 3) {
+                game.setReferee(context.getFactory().createOfficial());
+            }
+            games.add(game);
+            slots[g] = g % SLOTS;
+        }
+
+        // The first game is run, so its athletes are booked and it is
+        // closed.
+        Game closed = games.get(0);
+        for (Athlete athlete : athletes) {
+            if (athlete.canPlay(closed.getEvent())
+                    && closed.getAthletes().size() < Game.MIN_ATHLETES) {
+                closed.addAthlete(athlete);
+            }
+        }
+        closed.startGame(false);
+
+        List<List<Athlete>> rosters = new ArrayList<>();
+        for (Game game : games) {
+            rosters.add(new ArrayList<>(game.getAthletes()));
+        }
+        Map<Integer, Athlete> byId = new HashMap<>();
+        for (Athlete athlete : athletes) {
+            byId.put(athlete.getId(), athlete);
+        }
+
+        int entries = 2000;
+        int[] gameIndexes = new int[entries];
+        int[] athleteIds = new int[entries];
+        RandomUtil random = context.getRandom();
+        int maxId = athletes.get(athletes.size() - 1).getId();
+        for (int i = 0; i < entries; i++) {
+            gameIndexes[i] = random.generate(-1, GAMES);
+            athleteIds[i] = random.generate(-1, maxId + 2);
+        }
+        RegistrationReport report = new BulkRegistration(games, slots,
+                athletes).register(gameIndexes, athleteIds);
+
+        int rejected = 0;
+        int[] counts = new int[Rejection.values().length];
+        for (int i = 0; i < entries; i++) {
+            Rejection expected = register(games, slots, rosters, byId,
+                    gameIndexes[i], athleteIds[i]);
+            if (expected != null) {
+                check(rejected < report.getRejected(), "entry " + i
+                        + " is rejected");
+                equal(i, report.getEntry(rejected), "rejected entry");
+                equal(expected, report.getReason(rejected),
+                        "rejection of entry " + i);
+                counts[expected.ordinal()]++;
+                rejected++;
+            }
+        }
+        equal(rejected, report.getRejected(), "entries rejected");
+        equal(entries - rejected, report.getAccepted(), "entries accepted");
+        for (Rejection reason : Rejection.values()) {
+            equal(counts[reason.ordinal()], report.getCount(reason),
+                    "entries " + reason.toString().toLowerCase());
+            check(report.getCount(reason) > 0, "some entries "
+                    + reason.toString().toLowerCase());
+        }
+        for (int g = 0; g < GAMES; g++) {
+            equal(rosters.get(g), games.get(g).getAthletes(),
+                    "athletes of game " + g);
+        }
+
+        List<Integer> unready = new ArrayList<>();
+        for (int g = 0; g < GAMES; g++) {
+            Game game = games.get(g);
+            if (!game.isFinished() && (game.getReferee() == null
+                    || game.getAthletes().size() < Game.MIN_ATHLETES)) {
+                unready.add(g);
+            }
+        }
+        List<Integer> reported = new ArrayList<>();
+        for (int g : report.getUnreadyGames()) {
+            reported.add(g);
+        }
+        equal(unready, reported, "games not ready");
+    }
+
+    static void invalidRegistrationsAreRejected() {
+        GameData data = new GameData(new SimulationContext(20, 2, 5));
+        fails(() -> new BulkRegistration(data.getGames(), new int[1],
+                data.getAthletes()), "missing time slot");
+        BulkRegistration registration = new BulkRegistration(
+                data.getGames(), null, data.getAthletes());
+        fails(() -> registration.register(new int[2], new int[1]),
+                "entries do not match");
+        RegistrationReport report = registration.register(new int[0],
+                new int[0]);
+        equal(0, report.getAccepted(), "nothing accepted");
+        equal(0, report.getRejected(), "nothing rejected");
+    }
+
+    /**
+     * Registers an entry to plain lists of athletes.
+     *
+     * @return the rejection, or null if the entry is accepted.
+     */
+    private static Rejection register(List<Game> games, int[] slots,
+                                      List<List<Athlete>> rosters,
+                                      Map<Integer, Athlete> byId, int g,
+                                      int id) {
+        Athlete athlete = byId.get(id);
+        if (g < 0 || g >= games.size() || athlete == null) {
+            return Rejection.UNKNOWN;
+        }
+        if (games.get(g).isFinished()) {
+            return Rejection.CLOSED;
+        }
+        if (!athlete.canPlay(games.get(g).getEvent())) {
+            return Rejection.INELIGIBLE;
+        }
+        if (rosters.get(g).contains(athlete)) {
+            return Rejection.DUPLICATE;
+        }
+        for (int other = 0; other < games.size(); other++) {
+            if (slots[other] == slots[g]
+                    && rosters.get(other).contains(athlete)) {
+                return Rejection.SLOT_TAKEN;
+            }
+        }
+        if (rosters.get(g).size() >= Game.MAX_ATHLETES) {
+            return Rejection.FULL;
+        }
+        rosters.get(g).add(athlete);
+        return null;
+    }
+}
@@ -0,0 +1,70 @@
+package game;
+
+/**
+ * Assertions of the tests, which are plain classes run without a test
+ * framework. From the assignment_1 directory:
+ * <pre>
+ *   javac -d out $(find src test -name '*.java')
+ *   java -cp out game.RunTests
+ * </pre>
+ */
+final class Check {
+
+    private Check() {
+    }
+
+    /**
+     * Fails unless a condition holds.
+     *
+     * @param condition the condition.
+     * @param message   what the condition means.
+     */
+    static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+
+    /**
+     * Fails unless two values are equal.
+     *
+     * @param expected the expected value.
+     * @param actual   the actual value.
+     * @param message  what the values are.
+     */
+    static void equal(Object expected, Object actual, String message) {
+        if (expected == null ? actual != null : !expected.equals(actual)) {
+            throw new AssertionError(message + ": expected " + expected
+                    + " but was " + actual);
+        }
+    }
+
+    /**
+     * Fails unless two numbers are equal.
+     *
+     * @param expected the expected number.
+     * @param actual   the actual number.
+     * @param message  what the numbers are.
+     */
+    static void equal(long expected, long actual, String message) {
+        if (expected != actual) {
+            throw new AssertionError(message + ": expected " + expected
+                    + " but was " + actual);
+        }
+    }
+
+    /**
+     * Fails unless an action throws a GameException.
+     *
+     * @param action  the action.
+     * @param message what the action is.
+     */
+    static void fails(Runnable action, String message) {
+        try {
+            action.run();
+        } catch (GameException e) {
+            return;
+        }
+        throw new AssertionError(message + ": no GameException");
+    }
+}
@@ -0,0 +1,140 @@
+package game;
+
+import participant.Athlete;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import static game.Check.check;
+import static game.Check.equal;
+import static game.Check.fails;
+
+/**
+ * Tests of EventQueue and Timeline.
+ */
+public class EventQueueTest {
+
+    public static void main(String[] args) {
+        eventsComeInOrder();
+        sessionsShareVenues(false);
+        sessionsShareVenues(true);
+        invalidSessionsAreRejected();
+    }
+
+    /**
+     * Pushes and pops random events, many at the same time, and compares
+     * every event taken with a PriorityQueue of the same events.
+     */
+    static void eventsComeInOrder() {
+        RandomUtil random = new RandomUtil(3);
+        EventQueue queue = new EventQueue();
+        PriorityQueue<long[]> expected = new PriorityQueue<>(
+                Comparator.<long[]>comparingLong(e -> e[0])
+                        .thenComparingLong(e -> e[1]));
+        for (int i = 0; i < 20000; i++) {
+            if (random.generate(0, 2) > 0 || expected.isEmpty()) {
+                long time = random.generate(0, 500);
+                int payload = random.generate(-1000, 1000);
+                queue.push(time, payload);
+                expected.add(new long[]{time, payload});
+            } else {
+                long[] first = expected.poll();
+                equal(first[0], queue.peekTime(), "time of event " + i);
+                equal(first[1], queue.pop(), "payload of event " + i);
+            }
+            equal(expected.size(), queue.size(), "events scheduled");
+        }
+        while (!expected.isEmpty()) {
+            long[] first = expected.poll();
+            equal(first[0], queue.peekTime(), "time of event left");
+            equal(first[1], queue.pop(), "payload of event left");
+        }
+        check(queue.isEmpty(), "queue emptied");
+        fails(queue::pop, "pop of an empty queue");
+        fails(queue::peekTime, "peek of an empty queue");
+    }
+
+    /**
+     * Runs sessions over venues hosting one or two events each and checks
+     * that no venue holds two sessions at once, that a session waits only
+     * while every venue of its event is busy, and that sessions of an event
+     * start in the order they were released.
+     */
+    static void sessionsShareVenues(boolean play) {
+        SimulationContext context = new SimulationContext(0, 0, 5);
+        long swimming = EventType.SWIMMING.getMask();
+        long[] venues = {swimming, swimming | EventType.CYCLING.getMask(),
+                EventType.SPRINT.getMask(), EventType.CYCLING.getMask()};
+        Timeline timeline = new Timeline(context, venues);
+        if (play) {
+            List<Athlete> athletes = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                athletes.add(context.getFactory().createAthlete());
+            }
+            timeline.setRoster(athletes, new SeasonStats());
+        }
+        int sessions = 400;
+        EventType[] events = new EventType[sessions];
+        long[] releases = new long[sessions];
+        for (int s = 0; s < sessions; s++) {
+            events[s] = EventType.random(context.getRandom());
+            releases[s] = context.getRandom().generate(0, 20000);
+            equal(s, timeline.schedule(events[s], releases[s]),
+                    "index of a session");
+        }
+        long makespan = timeline.run();
+        equal(2L * sessions, timeline.getProcessed(), "events processed");
+        equal(makespan, timeline.getClock(), "clock at the end");
+
+        long last = 0;
+        for (int s = 0; s < sessions; s++) {
+            long start = timeline.getStart(s);
+            long end = timeline.getEnd(s);
+            int venue = timeline.getVenue(s);
+            check(start >= releases[s], "session starts after its release");
+            check(events[s].isIn(venues[venue]), "venue hosts the event");
+            check(end - start >= (play ? events[s].getMinTime()
+                    : events[s].getMaxTime())
+                    && end - start <= events[s].getMaxTime(),
+                    "duration of a session");
+            last = Math.max(last, end);
+
+            boolean freed = start == releases[s];
+            for (int other = 0; other < sessions; other++) {
+                if (other == s) {
+                    continue;
+                }
+                if (timeline.getVenue(other) == venue) {
+                    check(timeline.getEnd(other) <= start
+                            || timeline.getStart(other) >= end,
+                            "sessions of a venue do not overlap");
+                    freed |= timeline.getEnd(other) == start;
+                }
+                if (events[other] == events[s]
+                        && releases[other] < releases[s]) {
+                    check(timeline.getStart(other) <= start,
+                            "sessions of an event start in release order");
+                }
+            }
+            check(freed, "a session waits only for a busy venue");
+        }
+        equal(last, makespan, "makespan");
+        for (int v = 0; v < venues.length; v++) {
+            check(timeline.getUtilization(v) > 0
+                    && timeline.getUtilization(v) <= 1, "utilization");
+        }
+    }
+
+    static void invalidSessionsAreRejected() {
+        SimulationContext context = new SimulationContext(0, 0, 1);
+        fails(() -> new Timeline(context, new long[]{
+                EventType.SWIMMING.getMask()}), "event without a venue");
+        Timeline timeline = new Timeline(context, new long[]{EventType.ALL});
+        timeline.schedule(EventType.SPRINT, 100);
+        timeline.run();
+        fails(() -> timeline.schedule(EventType.SPRINT, 50),
+                "session released in the past");
+    }
+}
@@ -0,0 +1,103 @@
+package game;
+
+import participant.Athlete;
+import participant.Cycling;
+import participant.SuperAthlete;
+import participant.Swimmer;
+
+import static game.Check.check;
+import static game.Check.equal;
+import static game.Check.fails;
+
+/**
+ * Tests of the capability bits of EventType and athletes.
+ */
+public class EventTypeTest {
+
+    public static void main(String[] args) {
+        eventsOwnOneBitEach();
+        capabilitiesRoundTrip();
+        athletesPlayTheirCapabilities();
+    }
+
+    static void eventsOwnOneBitEach() {
+        long all = 0;
+        for (EventType event : EventType.values()) {
+            equal(1, Long.bitCount(event.getMask()), "bits of " + event);
+            check((all & event.getMask()) == 0, "bit of " + event
+                    + " is its own");
+            all |= event.getMask();
+        }
+        equal(all, EventType.ALL, "bits of every event");
+    }
+
+    /**
+     * Splits every set of capabilities into its events and joins them back,
+     * and counts the athletes of each event against a scan.
+     */
+    static void capabilitiesRoundTrip() {
+        int sets = (int) EventType.ALL + 1;
+        long[] capabilities = new long[sets];
+        for (int bits = 0; bits < sets; bits++) {
+            capabilities[bits] = bits;
+            long joined = 0;
+            EventType previous = null;
+            for (EventType event : EventType.of(bits)) {
+                check(event.isIn(bits), event + " is in " + bits);
+                check(previous == null
+                        || previous.ordinal() < event.ordinal(),
+                        "events in order");
+                joined |= event.getMask();
+                previous = event;
+            }
+            equal(bits, joined, "events of " + bits);
+        }
+        equal(0, EventType.of(~EventType.ALL).length,
+                "bits of no event are ignored");
+
+        for (EventType event : EventType.values()) {
+            int expected = 0;
+            for (int i = 0; i < sets - 1; i++) {
+                if (event.isIn(capabilities[i])) {
+                    expected++;
+                }
+            }
+            equal(expected, event.count(capabilities, sets - 1),
+                    "athletes of " + event);
+        }
+    }
+
+    static void athletesPlayTheirCapabilities() {
+        SimulationContext context = new SimulationContext(0, 0, 1);
+        Athlete swimmer = new Swimmer(1, "A", 20, "NSW");
+        Athlete cyclist = new Cycling(2, "B", 20, "NSW");
+        Athlete all = new SuperAthlete(3, "C", 20, "NSW");
+        long mask = EventType.SWIMMING.getMask() | EventType.SPRINT.getMask();
+        Athlete both = context.getFactory().createAthlete(mask | 1L << 40);
+        equal(EventType.SWIMMING.getMask(), swimmer.getCapabilities(),
+                "capabilities of a swimmer");
+        equal(EventType.CYCLING.getMask(), cyclist.getCapabilities(),
+                "capabilities of a cyclist");
+        equal(EventType.ALL, all.getCapabilities(),
+                "capabilities of a super athlete");
+        equal(mask, both.getCapabilities(), "bits of no event are dropped");
+
+        for (EventType event : EventType.values()) {
+            check(all.canPlay(event), "super athlete plays " + event);
+            equal(event.isIn(mask), both.canPlay(event),
+                    "multi event athlete plays " + event);
+            if (both.canPlay(event)) {
+                int time = both.compete(event, context.getRandom());
+                check(time >= event.getMinTime()
+                        && time <= event.getMaxTime(), "time of " + event);
+            } else {
+                fails(() -> both.compete(event, context.getRandom()),
+                        "competing in " + event);
+            }
+        }
+        fails(() -> context.getFactory().createAthlete(0),
+                "athlete of no event");
+        fails(() -> context.getFactory().createAthlete(~EventType.ALL),
+                "athlete of unknown events");
+    }
+}
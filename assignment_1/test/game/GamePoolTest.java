@@ -0,0 +1,115 @@
+package game;
+
+import participant.Athlete;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+import static game.Check.check;
+import static game.Check.equal;
+
+/**
+ * Tests of GamePool.
+ */
+public class GamePoolTest {
+
+    public static void main(String[] args) {
+        releasedGamesAreReused();
+        resetGamesTakeTheNextNumber();
+        resultsAreDroppedOnRematchAndReset();
+        streamingAllocatesNothingOnceWarm();
+    }
+
+    static void releasedGamesAreReused() {
+        GamePool pool = new GamePool(new SimulationContext(0, 0, 1));
+        Game game = pool.acquire(EventType.SWIMMING);
+        pool.release(game);
+        check(pool.acquire(EventType.SWIMMING) == game,
+                "released game is acquired again");
+        check(pool.acquire(EventType.SWIMMING) != game,
+                "acquired game is not free");
+        check(pool.acquire(EventType.CYCLING).getEvent()
+                == EventType.CYCLING, "free games are kept per event");
+    }
+
+    static void resetGamesTakeTheNextNumber() {
+        GamePool pool = new GamePool(new SimulationContext(0, 0, 1));
+        Game game = pool.acquire(EventType.SPRINT);
+        int number = game.getNumber();
+        String id = game.getId();
+        pool.release(game);
+        Game again = pool.acquire(EventType.SPRINT);
+        check(again.getNumber() > number, "reset game is renumbered");
+        check(!again.getId().equals(id), "reset game has a new id");
+        equal(0, again.getAthletes().size(), "athletes of a reset game");
+        check(!again.isFinished(), "reset game is not finished");
+    }
+
+    /**
+     * Runs a game, then runs it again and releases it: a rematch and a
+     * reset drop the result and give back its accounted memory.
+     */
+    static void resultsAreDroppedOnRematchAndReset() {
+        SimulationContext context = new SimulationContext(0, 0, 2);
+        List<Athlete> athletes = new ArrayList<>();
+        for (int i = 0; i < Game.MAX_ATHLETES; i++) {
+            athletes.add(context.getFactory().createAthlete(
+                    EventType.SPRINT.getMask()));
+        }
+        MemoryAccounting memory = context.getMemory();
+        GamePool pool = new GamePool(context);
+        Game game = pool.acquire(EventType.SPRINT);
+        long empty = memory.getReport().getBytes(Subsystem.GAMES);
+        for (Athlete athlete : athletes) {
+            game.addAthlete(athlete);
+        }
+        long ready = memory.getReport().getBytes(Subsystem.GAMES);
+        game.startGame(false);
+        check(memory.getReport().getBytes(Subsystem.GAMES) > ready,
+                "result accounted");
+
+        game.rematch();
+        check(game.getResult() == null, "no result once rematched");
+        equal(ready, memory.getReport().getBytes(Subsystem.GAMES),
+                "result of a rematched game released");
+        game.startGame(false);
+        check(game.getResult() != null, "result of the rematch");
+
+        pool.release(game);
+        check(game.getResult() == null, "no result once reset");
+        equal(empty, memory.getReport().getBytes(Subsystem.GAMES),
+                "result of a reset game released");
+    }
+
+    /**
+     * Streams games once the pool is warm and checks that this thread
+     * allocated nothing, if the JVM measures allocations per thread.
+     */
+    static void streamingAllocatesNothingOnceWarm() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+            System.out.println("Skipped: allocations are not measured.");
+            return;
+        }
+        com.sun.management.ThreadMXBean bean =
+                (com.sun.management.ThreadMXBean) threads;
+        if (!bean.isThreadAllocatedMemorySupported()) {
+            System.out.println("Skipped: allocations are not measured.");
+            return;
+        }
+        bean.setThreadAllocatedMemoryEnabled(true);
+
+        SeasonStats stats = new SeasonStats();
+        StreamingSeason season = new StreamingSeason(
+                new SimulationContext(200, 0, 1));
+        season.run(200_000, stats);
+        long thread = Thread.currentThread().getId();
+        long before = bean.getThreadAllocatedBytes(thread);
+        season.run(200_000, stats);
+        long allocated = bean.getThreadAllocatedBytes(thread) - before;
+        check(allocated < 200_000, "streaming allocated " + allocated
+                + " bytes for 200000 games");
+    }
+}
@@ -0,0 +1,133 @@
+package game;
+
+import participant.Athlete;
+import participant.SuperAthlete;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static game.Check.check;
+import static game.Check.equal;
+
+/**
+ * Tests of GameQuery against a scan of the athletes and games.
+ */
+public class GameQueryTest {
+
+    public static void main(String[] args) {
+        GameData data = new GameData(new SimulationContext(200, 60, 1));
+        GameQuery query = data.getQuery();
+        for (Game game : data.getGames()) {
+            game.startGame(false);
+            data.gameFinished(game);
+        }
+        // Updating with a game already indexed adds no win.
+        for (Game game : data.getGames()) {
+            query.update(game);
+        }
+        findAthletesMatchesAScan(data, query);
+        leadersAreTheTopPoints(data, query);
+        findByPointsMatchesAScan(data, query);
+        gameIndexesMatchAScan(data, query);
+    }
+
+    static void findAthletesMatchesAScan(GameData data, GameQuery query) {
+        String[] states = {null, "NSW", "VIC"};
+        EventType[] events = {null, EventType.SWIMMING, EventType.SPRINT};
+        for (String state : states) {
+            for (EventType event : events) {
+                for (Class<? extends Athlete> type : types()) {
+                    List<Athlete> expected = new ArrayList<>();
+                    for (Athlete athlete : data.getAthletes()) {
+                        if ((state == null
+                                || state.equals(athlete.getState()))
+                                && (event == null || athlete.canPlay(event))
+                                && (type == null
+                                || type.isInstance(athlete))
+                                && athlete.getAge() >= 20
+                                && athlete.getAge() <= 40) {
+                            expected.add(athlete);
+                        }
+                    }
+                    checkTop(expected, query.findAthletes(event, state, type,
+                            20, 40, 5), 5, state + " " + event + " "
+                            + type);
+                }
+            }
+        }
+    }
+
+    static void leadersAreTheTopPoints(GameData data, GameQuery query) {
+        checkTop(new ArrayList<>(data.getAthletes()), query.leaders(10), 10,
+                "leaders");
+    }
+
+    static void findByPointsMatchesAScan(GameData data, GameQuery query) {
+        List<Athlete> expected = new ArrayList<>();
+        for (Athlete athlete : data.getAthletes()) {
+            if (athlete.getPoints() >= 3 && athlete.getPoints() <= 10) {
+                expected.add(athlete);
+            }
+        }
+        checkTop(expected, query.findByPoints(3, 10), Integer.MAX_VALUE,
+                "points from 3 to 10");
+        equal(0, query.findByPoints(10, 3).size(), "empty points range");
+    }
+
+    static void gameIndexesMatchAScan(GameData data, GameQuery query) {
+        for (EventType event : EventType.values()) {
+            int count = 0;
+            for (Game game : data.getGames()) {
+                if (game.getEvent() == event) {
+                    count++;
+                }
+            }
+            equal(count, query.getGames(event).size(), "games of " + event);
+        }
+        for (Athlete athlete : data.getAthletes()) {
+            int games = 0;
+            int wins = 0;
+            for (Game game : data.getGames()) {
+                if (game.getAthletes().contains(athlete)) {
+                    games++;
+                    if (game.isWinner(athlete)) {
+                        wins++;
+                    }
+                }
+            }
+            equal(games, query.getGames(athlete).size(),
+                    "games of " + athlete.getId());
+            equal(wins, query.getGamesWon(athlete).size(),
+                    "wins of " + athlete.getId());
+        }
+    }
+
+    /**
+     * @return the athlete types filtered on, with null for any type.
+     */
+    private static List<Class<? extends Athlete>> types() {
+        List<Class<? extends Athlete>> types = new ArrayList<>();
+        types.add(null);
+        types.add(SuperAthlete.class);
+        return types;
+    }
+
+    /**
+     * Checks that the athletes found are the top of the expected ones by
+     * points, in order; athletes tied on points may come in any order.
+     */
+    private static void checkTop(List<Athlete> expected, List<Athlete> found,
+                                 int limit, String message) {
+        expected.sort(Comparator.comparingInt(Athlete::getPoints)
+                .reversed());
+        equal(Math.min(limit, expected.size()), found.size(),
+                "size of " + message);
+        for (int i = 0; i < found.size(); i++) {
+            equal(expected.get(i).getPoints(), found.get(i).getPoints(),
+                    "points of rank " + (i + 1) + " of " + message);
+            check(expected.contains(found.get(i)),
+                    "athlete found matches " + message);
+        }
+    }
+}
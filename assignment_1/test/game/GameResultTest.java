@@ -0,0 +1,100 @@
+package game;
+
+import participant.Athlete;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static game.Check.check;
+import static game.Check.equal;
+
+/**
+ * Tests of GameResult.
+ */
+public class GameResultTest {
+
+    public static void main(String[] args) throws Exception {
+        resultsDoNotShareTheirArrays();
+        resultsOutliveRematches();
+        readersSeeWholeResults();
+    }
+
+    static void resultsDoNotShareTheirArrays() {
+        GameData data = new GameData(new SimulationContext(20, 1, 1));
+        List<Athlete> athletes = new ArrayList<>(data.getAthletes().subList(
+                0, 3));
+        int[] times = {10, 10, 12};
+        int[] ranks = {1, 1, 3};
+        GameResult result = new GameResult("S01", EventType.SPRINT, athletes,
+                times, ranks);
+        Athlete first = athletes.get(0);
+        athletes.clear();
+        times[0] = 99;
+        ranks[0] = 7;
+        equal(3, result.size(), "size");
+        check(result.getAthlete(0) == first, "athlete");
+        equal(10, result.getTime(0), "time");
+        equal(1, result.getRank(0), "rank");
+        equal(Game.getPoints(1), result.getScore(1), "score of a tie");
+        check(result.isWinner(first), "first on a tie wins");
+        check(result.isWinner(result.getAthlete(1)), "second on a tie wins");
+        check(!result.isWinner(result.getAthlete(2)), "third does not win");
+    }
+
+    static void resultsOutliveRematches() {
+        GameData data = new GameData(new SimulationContext(20, 1, 2));
+        Game game = data.getGames().get(0);
+        check(game.getResult() == null, "no result before the game is run");
+        game.startGame(false);
+        GameResult result = game.getResult();
+        String csv = result.toCsv();
+        for (int i = 0; i < 10; i++) {
+            game.rematch();
+            game.startGame(false);
+        }
+        check(game.getResult() != result, "a run publishes a new result");
+        game.rematch();
+        check(game.getResult() == null, "no result once rematched");
+        equal(csv, result.toCsv(), "an old result does not change");
+    }
+
+    /**
+     * Reads the results of a game on another thread while the game is run
+     * again and again: every result read, if any, must be whole and sorted.
+     */
+    static void readersSeeWholeResults() throws Exception {
+        GameData data = new GameData(new SimulationContext(20, 1, 3));
+        Game game = data.getGames().get(0);
+        game.startGame(false);
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<String> failure = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            while (running.get() && failure.get() == null) {
+                GameResult result = game.getResult();
+                if (result == null) {
+                    continue;
+                }
+                if (result.size() != game.getAthletes().size()
+                        || result.getRank(0) != 1) {
+                    failure.set("incomplete result " + result.toCsv());
+                }
+                for (int i = 1; i < result.size(); i++) {
+                    if (result.getTime(i) < result.getTime(i - 1)
+                            || result.getRank(i) < result.getRank(i - 1)) {
+                        failure.set("unsorted result " + result.toCsv());
+                    }
+                }
+            }
+        });
+        reader.start();
+        for (int i = 0; i < 20000 && failure.get() == null; i++) {
+            game.rematch();
+            game.startGame(false);
+        }
+        running.set(false);
+        reader.join();
+        check(failure.get() == null, String.valueOf(failure.get()));
+    }
+}
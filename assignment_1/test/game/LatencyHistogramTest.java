@@ -0,0 +1,139 @@
+package game;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static game.Check.check;
+import static game.Check.equal;
+import static game.Check.fails;
+
+/**
+ * Tests of LatencyHistogram and LoadHarness.
+ */
+public class LatencyHistogramTest {
+
+    public static void main(String[] args) {
+        smallLatenciesAreExact();
+        quantilesAreWithinTheirBucket();
+        mergedHistogramsEqualOneHistogram();
+        loadIsMeasuredAndReported();
+    }
+
+    static void smallLatenciesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        equal(0, histogram.getQuantile(0.5), "quantile of no latency");
+        equal(0.0, histogram.getMean(), "mean of no latency");
+        for (int nanos = 31; nanos >= 0; nanos--) {
+            histogram.record(nanos);
+        }
+        for (int rank = 1; rank <= 32; rank++) {
+            equal(rank - 1, histogram.getQuantile(rank / 32.0),
+                    "latency of rank " + rank);
+        }
+        histogram.record(-5);
+        equal(0, histogram.getQuantile(0), "negative latency is 0");
+        equal(33, histogram.getCount(), "latencies recorded");
+    }
+
+    /**
+     * Records latencies of every magnitude, including both ends of the
+     * powers of 2 and the largest long, and checks every percentile against
+     * the sorted latencies: it is never below, and above by at most a
+     * 32nd of the latency.
+     */
+    static void quantilesAreWithinTheirBucket() {
+        Random random = new Random(11);
+        long[] latencies = new long[20000];
+        for (int i = 0; i < latencies.length; i++) {
+            int bits = random.nextInt(63);
+            long value = 1L << bits;
+            switch (i % 4) {
+                case 0:
+                    break;
+                case 1:
+                    value = value - 1;
+                    break;
+                default:
+                    value += (long) (random.nextDouble() * value);
+                    break;
+            }
+            latencies[i] = value;
+        }
+        latencies[0] = Long.MAX_VALUE;
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long latency : latencies) {
+            histogram.record(latency);
+        }
+        Arrays.sort(latencies);
+        for (int p = 0; p <= 1000; p++) {
+            double quantile = p / 1000.0;
+            long rank = Math.max(1, (long) Math.ceil(quantile
+                    * latencies.length));
+            long exact = latencies[(int) rank - 1];
+            long found = histogram.getQuantile(quantile);
+            check(found >= exact && found - exact <= exact / 32,
+                    "quantile " + quantile + ": " + found + " for " + exact);
+        }
+        equal(Long.MAX_VALUE, histogram.getMax(), "largest latency");
+        equal(Long.MAX_VALUE, histogram.getQuantile(1), "quantile 1");
+    }
+
+    /**
+     * Records latencies into one histogram and into several merged in
+     * another order, which must give the same quantiles.
+     */
+    static void mergedHistogramsEqualOneHistogram() {
+        Random random = new Random(12);
+        LatencyHistogram all = new LatencyHistogram();
+        LatencyHistogram[] parts = {new LatencyHistogram(),
+                new LatencyHistogram(), new LatencyHistogram()};
+        for (int i = 0; i < 30000; i++) {
+            long nanos = (long) Math.exp(random.nextDouble() * 25);
+            all.record(nanos);
+            parts[i % parts.length].record(nanos);
+        }
+        parts[2].merge(parts[0]);
+        parts[2].merge(parts[1]);
+        LatencyHistogram merged = parts[2];
+        equal(all.getCount(), merged.getCount(), "latencies merged");
+        equal(all.getMax(), merged.getMax(), "largest latency merged");
+        equal(all.getMean(), merged.getMean(), "mean merged");
+        for (int p = 0; p <= 100; p++) {
+            equal(all.getQuantile(p / 100.0), merged.getQuantile(p / 100.0),
+                    "percentile " + p);
+        }
+        merged.merge(new LatencyHistogram());
+        equal(all.getCount(), merged.getCount(), "empty histogram merged");
+    }
+
+    /**
+     * Runs a short load without warmup: every game run is measured once and
+     * the report gives its numbers as JSON.
+     */
+    static void loadIsMeasuredAndReported() {
+        LoadHarness harness = new LoadHarness(2, 0, new int[]{1, 0, 2},
+                Game.MIN_ATHLETES, Game.MAX_ATHLETES, 50, 1);
+        LoadReport report = harness.run(0, 0.2);
+        check(report.getGames() > 0, "games run");
+        equal(report.getGames(), report.getLatencies().getCount(),
+                "games measured");
+        check(report.getThroughput() > 0, "throughput");
+        String json = report.toJson();
+        check(json.startsWith("{") && json.endsWith("}"), "JSON object");
+        check(json.contains("\"games\":" + report.getGames() + ","),
+                "games reported");
+        check(json.contains("\"mix\":{\"swimming\":1,\"cycling\":0,"
+                + "\"sprint\":2}"), "mix reported");
+        check(json.contains("\"memory\":{"), "memory reported");
+
+        fails(() -> new LoadHarness(0, 0, new int[]{1, 1, 1}, 4, 8, 50, 1),
+                "no thread");
+        fails(() -> new LoadHarness(1, 0, new int[]{0, 0, 0}, 4, 8, 50, 1),
+                "no event");
+        fails(() -> new LoadHarness(1, 0, new int[]{1, 1}, 4, 8, 50, 1),
+                "missing weight");
+        fails(() -> new LoadHarness(1, 0, new int[]{1, 1, 1}, 3, 8, 50, 1),
+                "field too small");
+        fails(() -> harness.run(-1, 1), "negative warmup");
+    }
+}
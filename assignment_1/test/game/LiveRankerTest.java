@@ -0,0 +1,181 @@
+package game;
+
+import participant.Athlete;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static game.Check.check;
+import static game.Check.equal;
+import static game.Check.fails;
+
+/**
+ * Tests of LiveRanker against ranks counted from the times recorded.
+ */
+public class LiveRankerTest {
+
+    public static void main(String[] args) {
+        for (EventType event : EventType.values()) {
+            ranksMatchACount(event);
+        }
+        batchesAreRecordedWhole();
+        closingAwardsPoints();
+        leadersAreShownByRank();
+    }
+
+    /**
+     * Records finish times one by one and in batches, and after each
+     * checks the ranks of the finishers, of every time and of the positions
+     * against the sorted times.
+     */
+    static void ranksMatchACount(EventType event) {
+        SimulationContext context = new SimulationContext(0, 0, 7);
+        LiveRanker ranker = new LiveRanker(event);
+        List<Athlete> athletes = new ArrayList<>();
+        List<Integer> times = new ArrayList<>();
+        int from = event.getMinTime();
+        int to = event.getMaxTime();
+        for (int i = 0; i < 300; i++) {
+            Athlete athlete = context.getFactory().createAthlete(
+                    event.getMask());
+            // Many finishers share the ends of the time range.
+            int time = i % 10 == 0 ? from : i % 10 == 1 ? to
+                    : event.getTime(context.getRandom());
+            if (i % 3 == 0) {
+                ranker.record(athlete, time);
+            } else {
+                ranker.record(Collections.singletonList(athlete),
+                        new int[]{time});
+            }
+            athletes.add(athlete);
+            times.add(time);
+            if (i % 37 != 0) {
+                continue;
+            }
+
+            equal(athletes.size(), ranker.getFinished(), "finishers");
+            for (int t = from - 2; t <= to + 2; t++) {
+                equal(rank(times, t), ranker.getRank(t), event + " rank of "
+                        + t);
+            }
+            for (int a = 0; a < athletes.size(); a++) {
+                equal(rank(times, times.get(a)),
+                        ranker.getRank(athletes.get(a)), "rank of athlete");
+            }
+            List<Integer> sorted = new ArrayList<>(times);
+            Collections.sort(sorted);
+            for (int k = 1; k <= sorted.size(); k++) {
+                equal((long) sorted.get(k - 1), ranker.getTime(k), event
+                        + " time at " + k);
+            }
+        }
+        fails(() -> ranker.getTime(0), "position 0");
+        fails(() -> ranker.getTime(athletes.size() + 1), "position after "
+                + "the last");
+        fails(() -> ranker.getRank(context.getFactory().createAthlete(
+                event.getMask())), "rank of an athlete not finished");
+    }
+
+    /**
+     * A batch with an invalid finish time records none of its times.
+     */
+    static void batchesAreRecordedWhole() {
+        SimulationContext context = new SimulationContext(0, 0, 8);
+        EventType event = EventType.SPRINT;
+        LiveRanker ranker = new LiveRanker(event);
+        Athlete first = context.getFactory().createAthlete(event.getMask());
+        Athlete second = context.getFactory().createAthlete(event.getMask());
+        Athlete swimmer = context.getFactory().createAthlete(
+                EventType.SWIMMING.getMask());
+        ranker.record(first, 12);
+
+        int time = event.getMinTime();
+        fails(() -> ranker.record(Arrays.asList(second, first),
+                new int[]{time, time}), "athlete finished before");
+        fails(() -> ranker.record(Arrays.asList(second, second),
+                new int[]{time, time}), "athlete finished twice");
+        fails(() -> ranker.record(Arrays.asList(second, swimmer),
+                new int[]{time, time}), "athlete of another event");
+        fails(() -> ranker.record(Arrays.asList(second),
+                new int[]{event.getMaxTime() + 1}), "time too long");
+        fails(() -> ranker.record(Arrays.asList(second), new int[2]),
+                "times do not match");
+        equal(1, ranker.getFinished(), "finishers after failed batches");
+        equal(1, ranker.getRank(time), "rank of the best time");
+    }
+
+    static void closingAwardsPoints() {
+        SimulationContext context = new SimulationContext(0, 0, 9);
+        EventType event = EventType.SWIMMING;
+        LiveRanker ranker = new LiveRanker(event);
+        int[] finishes = {150, 120, 120, 180, 200};
+        List<Athlete> athletes = new ArrayList<>();
+        for (int i = 0; i < finishes.length; i++) {
+            athletes.add(context.getFactory().createAthlete(event.getMask()));
+        }
+        ranker.record(athletes, finishes);
+        ranker.close();
+        check(ranker.isClosed(), "closed");
+        int[] ranks = {3, 1, 1, 4, 5};
+        for (int i = 0; i < finishes.length; i++) {
+            equal(Game.getPoints(ranks[i]), athletes.get(i).getPoints(),
+                    "points of rank " + ranks[i]);
+        }
+        fails(ranker::close, "closing twice");
+        fails(() -> ranker.record(context.getFactory().createAthlete(
+                event.getMask()), 150), "recording after closing");
+    }
+
+    /**
+     * Displays the leaders of a field with ties: tied finishers share a
+     * rank in the order they finished, and the next rank skips them.
+     */
+    static void leadersAreShownByRank() {
+        SimulationContext context = new SimulationContext(0, 0, 10);
+        EventType event = EventType.SPRINT;
+        LiveRanker ranker = new LiveRanker(event);
+        int[] finishes = {14, 11, 17, 11, 12, 14};
+        List<Athlete> athletes = new ArrayList<>();
+        for (int i = 0; i < finishes.length; i++) {
+            athletes.add(context.getFactory().createAthlete(event.getMask()));
+        }
+        ranker.record(athletes, finishes);
+
+        PrintStream out = System.out;
+        ByteArrayOutputStream display = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(display, true, StandardCharsets.UTF_8));
+        try {
+            ranker.displayLeaders(5);
+        } finally {
+            System.setOut(out);
+        }
+        String[] lines = display.toString(StandardCharsets.UTF_8)
+                .split("\n");
+        int[] order = {1, 3, 4, 0, 5};
+        int[] ranks = {1, 1, 3, 4, 4};
+        equal(order.length + 1, lines.length, "leaders shown");
+        for (int i = 0; i < order.length; i++) {
+            equal(String.format("%-8d%-8d%s", ranks[i], finishes[order[i]],
+                    athletes.get(order[i]).toShortString()), lines[i + 1],
+                    "leader " + (i + 1));
+        }
+    }
+
+    /**
+     * @return the rank of a time: one more than the faster times.
+     */
+    private static int rank(List<Integer> times, int time) {
+        int rank = 1;
+        for (int other : times) {
+            if (other < time) {
+                rank++;
+            }
+        }
+        return rank;
+    }
+}
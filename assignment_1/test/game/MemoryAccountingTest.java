@@ -0,0 +1,133 @@
+package game;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static game.Check.check;
+import static game.Check.equal;
+
+/**
+ * Tests of MemoryAccounting and MemoryReport.
+ */
+public class MemoryAccountingTest {
+
+    public static void main(String[] args) throws Exception {
+        sizesFollowTheLayout();
+        objectsAreAddedAndTakenBack();
+        threadsAreAccountedExactly();
+        reportsAreSummed();
+        gamesAreAccountedUntilDiscarded();
+    }
+
+    static void sizesFollowTheLayout() {
+        equal(16, MemoryAccounting.align(13), "size padded");
+        equal(16, MemoryAccounting.align(16), "size already padded");
+        equal(32, MemoryAccounting.array(4, 3), "array of 3 ints");
+        equal(16, MemoryAccounting.array(8, 0), "empty array");
+        equal(32 + 24, MemoryAccounting.string("abc"), "string of 3 chars");
+        equal(0, MemoryAccounting.string(null), "no string");
+    }
+
+    static void objectsAreAddedAndTakenBack() {
+        MemoryAccounting memory = new MemoryAccounting();
+        memory.allocate(Subsystem.GAMES, 100);
+        memory.allocate(Subsystem.GAMES, 60);
+        memory.resize(Subsystem.GAMES, 20);
+        memory.allocate(Subsystem.CACHES, 40);
+        MemoryReport before = memory.getReport();
+        memory.release(Subsystem.GAMES, 120);
+        MemoryReport after = memory.getReport();
+
+        equal(180, before.getBytes(Subsystem.GAMES), "bytes of 2 games");
+        equal(2, before.getObjects(Subsystem.GAMES), "2 games");
+        equal(90.0, before.getBytesPerObject(Subsystem.GAMES),
+                "bytes per game");
+        equal(220, before.getTotalBytes(), "total bytes");
+        equal(60, after.getBytes(Subsystem.GAMES), "bytes of the game kept");
+        equal(1, after.getObjects(Subsystem.GAMES), "game kept");
+        equal(0.0, after.getBytesPerObject(Subsystem.ATHLETES),
+                "bytes per object of no object");
+        equal(180, before.getBytes(Subsystem.GAMES), "a report is a copy");
+    }
+
+    /**
+     * Allocates and releases from several threads at once: nothing is
+     * lost.
+     */
+    static void threadsAreAccountedExactly() throws Exception {
+        MemoryAccounting memory = new MemoryAccounting();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 20000; i++) {
+                    memory.allocate(Subsystem.ATHLETES, 48);
+                    memory.resize(Subsystem.ATHLETES, 8);
+                    if (i % 2 == 0) {
+                        memory.release(Subsystem.ATHLETES, 56);
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        MemoryReport report = memory.getReport();
+        equal(4 * 10000 * 56, report.getBytes(Subsystem.ATHLETES),
+                "bytes of the athletes kept");
+        equal(4 * 10000, report.getObjects(Subsystem.ATHLETES),
+                "athletes kept");
+    }
+
+    static void reportsAreSummed() {
+        MemoryAccounting one = new MemoryAccounting();
+        MemoryAccounting two = new MemoryAccounting();
+        one.allocate(Subsystem.ATHLETES, 40);
+        one.allocate(Subsystem.LEADERBOARD, 10);
+        two.allocate(Subsystem.ATHLETES, 24);
+        two.allocate(Subsystem.CACHES, 7);
+        MemoryReport sum = MemoryReport.sum(Arrays.asList(one.getReport(),
+                two.getReport()));
+        equal(64, sum.getBytes(Subsystem.ATHLETES), "bytes of athletes");
+        equal(2, sum.getObjects(Subsystem.ATHLETES), "athletes");
+        equal(81, sum.getTotalBytes(), "total bytes");
+        equal(0, MemoryReport.sum(new ArrayList<>()).getTotalBytes(),
+                "sum of no report");
+
+        String json = sum.toJson();
+        equal("{\"athletes\":{\"bytes\":64,\"objects\":2,"
+                + "\"bytesPerObject\":32.0},\"games\":{\"bytes\":0,"
+                + "\"objects\":0,\"bytesPerObject\":0.0},\"leaderboard\":"
+                + "{\"bytes\":10,\"objects\":1,\"bytesPerObject\":10.0},"
+                + "\"caches\":{\"bytes\":7,\"objects\":1,"
+                + "\"bytesPerObject\":7.0},\"total\":81}", json, "JSON");
+    }
+
+    /**
+     * Accounts for the games of a season, with their results once run, and
+     * takes them back when they are discarded.
+     */
+    static void gamesAreAccountedUntilDiscarded() {
+        GameData data = new GameData(new SimulationContext(30, 20, 1));
+        MemoryAccounting memory = data.getContext().getMemory();
+        equal(20, memory.getReport().getObjects(Subsystem.GAMES),
+                "games created");
+        long created = memory.getReport().getBytes(Subsystem.GAMES);
+        check(created >= 20 * Game.SIZE, "bytes of the games created");
+        for (Game game : data.getGames()) {
+            game.startGame(false);
+        }
+        check(memory.getReport().getBytes(Subsystem.GAMES) > created,
+                "results accounted");
+        for (Game game : data.getGames()) {
+            game.discard();
+        }
+        equal(0, memory.getReport().getObjects(Subsystem.GAMES),
+                "games discarded");
+        equal(0, memory.getReport().getBytes(Subsystem.GAMES),
+                "bytes of the games discarded");
+    }
+}
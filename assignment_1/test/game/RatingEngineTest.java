@@ -0,0 +1,155 @@
+package game;
+
+import participant.Athlete;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static game.Check.check;
+import static game.Check.equal;
+import static game.Check.fails;
+
+/**
+ * Tests of RatingEngine and RatingBatch.
+ */
+public class RatingEngineTest {
+
+    public static void main(String[] args) {
+        pairsFollowTheEloFormula();
+        gamesMoveRatingsByAtMostK();
+        mergedBatchesEqualOneBatch();
+        unfinishedGamesAreRejected();
+    }
+
+    static void pairsFollowTheEloFormula() {
+        List<Athlete> pair = athletes(2);
+        Athlete first = pair.get(0);
+        Athlete second = pair.get(1);
+        MemoryAccounting memory = new MemoryAccounting();
+        RatingEngine engine = new RatingEngine(memory);
+
+        rate(engine, pair, 10, 10);
+        close(RatingEngine.INITIAL_RATING, engine.getRating(first),
+                "rating after a draw of equals");
+
+        rate(engine, pair, 10, 12);
+        close(RatingEngine.INITIAL_RATING + RatingEngine.K / 2,
+                engine.getRating(first), "rating of the winner of equals");
+        close(RatingEngine.INITIAL_RATING - RatingEngine.K / 2,
+                engine.getRating(second), "rating of the loser of equals");
+
+        // The weaker athlete now wins: it gains K times its surprise.
+        double expected = 1 / (1 + Math.pow(10, RatingEngine.K / 400));
+        double gain = RatingEngine.K * (1 - expected);
+        rate(engine, Arrays.asList(second, first), 10, 12);
+        close(RatingEngine.INITIAL_RATING - RatingEngine.K / 2 + gain,
+                engine.getRating(second), "rating of an upset winner");
+        close(RatingEngine.INITIAL_RATING + RatingEngine.K / 2 - gain,
+                engine.getRating(first), "rating of an upset loser");
+
+        // Only the published ratings are accounted for.
+        int length = Math.max(first.getId(), second.getId()) + 1;
+        MemoryReport report = memory.getReport();
+        equal(1, report.getObjects(Subsystem.LEADERBOARD), "ratings");
+        check(report.getBytes(Subsystem.LEADERBOARD)
+                >= MemoryAccounting.array(8, length), "bytes of the ratings");
+    }
+
+    static void gamesMoveRatingsByAtMostK() {
+        GameData data = new GameData(new SimulationContext(50, 100, 1));
+        RatingEngine engine = new RatingEngine(new MemoryAccounting());
+        for (Game game : data.getGames()) {
+            game.startGame(false);
+            double[] before = ratings(engine, game.getAthletes());
+            engine.record(game);
+            double[] after = ratings(engine, game.getAthletes());
+            double sum = 0;
+            for (int i = 0; i < before.length; i++) {
+                check(Math.abs(after[i] - before[i])
+                        <= RatingEngine.K + 1e-9, "change of at most K");
+                sum += after[i] - before[i];
+            }
+            close(0, sum, "changes of a game add up to nothing");
+        }
+    }
+
+    /**
+     * Rates the same games into one batch and into several batches merged
+     * in another order, which must give the same ratings.
+     */
+    static void mergedBatchesEqualOneBatch() {
+        GameData data = new GameData(new SimulationContext(50, 60, 2));
+        RatingEngine one = new RatingEngine(new MemoryAccounting());
+        RatingEngine merged = new RatingEngine(new MemoryAccounting());
+        RatingBatch all = new RatingBatch();
+        RatingBatch[] parts = {new RatingBatch(), new RatingBatch(),
+                new RatingBatch()};
+        for (int i = 0; i < data.getGames().size(); i++) {
+            Game game = data.getGames().get(i);
+            game.startGame(false);
+            one.rate(game.getResult(), all);
+            merged.rate(game.getResult(), parts[i % parts.length]);
+        }
+        parts[2].merge(parts[0]);
+        parts[2].merge(parts[1]);
+        one.apply(all);
+        merged.apply(parts[2]);
+        for (Athlete athlete : data.getAthletes()) {
+            close(one.getRating(athlete), merged.getRating(athlete),
+                    "rating of " + athlete.getId());
+        }
+
+        // Applying empties a batch.
+        double[] before = ratings(one, data.getAthletes());
+        one.apply(all);
+        check(Arrays.equals(before, ratings(one, data.getAthletes())),
+                "applied batch is empty");
+    }
+
+    static void unfinishedGamesAreRejected() {
+        GameData data = new GameData(new SimulationContext(20, 1, 3));
+        RatingEngine engine = new RatingEngine(new MemoryAccounting());
+        fails(() -> engine.record(data.getGames().get(0)), "unfinished game");
+    }
+
+    /**
+     * @return new athletes who can play sprint.
+     */
+    private static List<Athlete> athletes(int count) {
+        SimulationContext context = new SimulationContext(0, 0, 1);
+        List<Athlete> athletes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            athletes.add(context.getFactory().createAthlete(
+                    EventType.SPRINT.getMask()));
+        }
+        return athletes;
+    }
+
+    /**
+     * Rates a game of two athletes with their times.
+     */
+    private static void rate(RatingEngine engine, List<Athlete> pair,
+                             int first, int second) {
+        RatingBatch batch = new RatingBatch();
+        engine.rate(new GameResult("R01", EventType.SPRINT, pair,
+                new int[]{first, second}, new int[]{1,
+                first == second ? 1 : 2}), batch);
+        engine.apply(batch);
+    }
+
+    private static double[] ratings(RatingEngine engine,
+                                    List<Athlete> athletes) {
+        double[] ratings = new double[athletes.size()];
+        for (int i = 0; i < ratings.length; i++) {
+            ratings[i] = engine.getRating(athletes.get(i));
+        }
+        return ratings;
+    }
+
+    private static void close(double expected, double actual,
+                              String message) {
+        check(Math.abs(expected - actual) <= 1e-9,
+                message + ": expected " + expected + " but was " + actual);
+    }
+}
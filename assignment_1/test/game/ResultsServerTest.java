@@ -0,0 +1,140 @@
+package game;
+
+import participant.Athlete;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import static game.Check.check;
+import static game.Check.equal;
+
+/**
+ * Tests of ResultsServer over the loopback address.
+ */
+public class ResultsServerTest {
+
+    public static void main(String[] args) throws Exception {
+        GameData data = new GameData(new SimulationContext(30, 5, 1));
+        ResultsServer server = new ResultsServer(data, 0);
+        data.addListener(server);
+        server.start();
+        try {
+            listsFollowFinishedGames(data, server);
+            unknownRequestsAreRejected(server);
+        } finally {
+            server.stop();
+        }
+        gamesFinishedOnceStoppedAreIgnored();
+    }
+
+    /**
+     * Finishes a game after the server stopped: the game data no longer
+     * notifies the server, and a finish notified anyway is ignored.
+     */
+    static void gamesFinishedOnceStoppedAreIgnored() throws IOException {
+        GameData data = new GameData(new SimulationContext(20, 2, 2));
+        ResultsServer server = new ResultsServer(data, 0);
+        data.addListener(server);
+        server.start();
+        server.stop();
+        long caches = data.getContext().getMemory().getReport()
+                .getBytes(Subsystem.CACHES);
+        for (Game game : data.getGames()) {
+            game.startGame(false);
+            data.gameFinished(game);
+            server.gameFinished(game);
+        }
+        equal(caches, data.getContext().getMemory().getReport()
+                .getBytes(Subsystem.CACHES), "no response rebuilt");
+    }
+
+    static void listsFollowFinishedGames(GameData data, ResultsServer server)
+            throws Exception {
+        equal(5, count(get(server, "/games", 200), "\"finished\":false"),
+                "games not finished");
+        Game first = data.getGames().get(0);
+        check(get(server, "/games/" + first.getId(), 200)
+                .contains("\"results\":[{\"athlete\":"), "entries of a game");
+
+        for (Game game : data.getGames()) {
+            game.startGame(false);
+            data.gameFinished(game);
+        }
+        String game = get(server, "/games/" + first.getId() + "/", 200);
+        check(game.contains("\"finished\":true"),
+                "game response is rebuilt when the game finishes");
+        check(game.contains("\"rank\":1,"), "results of a finished game");
+
+        server.awaitRefresh();
+        equal(5, count(get(server, "/games", 200), "\"finished\":true"),
+                "games finished once refreshed");
+        int most = 0;
+        for (Athlete athlete : data.getAthletes()) {
+            most = Math.max(most, athlete.getPoints());
+        }
+        String leaderboard = get(server, "/leaderboard", 200);
+        check(leaderboard.startsWith("[{\"rank\":1,"), "leaderboard order");
+        int points = leaderboard.indexOf("\"points\":") + 9;
+        equal(String.valueOf(most), leaderboard.substring(points,
+                leaderboard.indexOf('}', points)), "points of the leader");
+        equal(data.getAthletes().size(), count(get(server, "/athletes", 200),
+                "\"id\":"), "athletes");
+        check(get(server, "/memory", 200).contains("caches"), "memory");
+    }
+
+    static void unknownRequestsAreRejected(ResultsServer server)
+            throws IOException {
+        check(get(server, "/games/X99", 404).contains("\"error\":"),
+                "unknown game");
+        HttpURLConnection connection = open(server, "/games");
+        connection.setRequestMethod("DELETE");
+        equal(405, connection.getResponseCode(), "status of a delete");
+        connection.disconnect();
+    }
+
+    /**
+     * Requests a path and checks the status.
+     *
+     * @return the response body.
+     */
+    private static String get(ResultsServer server, String path, int status)
+            throws IOException {
+        HttpURLConnection connection = open(server, path);
+        try {
+            equal(status, connection.getResponseCode(), "status of " + path);
+            InputStream in = status < 400 ? connection.getInputStream()
+                    : connection.getErrorStream();
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            for (int n; (n = in.read(buffer)) > 0; ) {
+                body.write(buffer, 0, n);
+            }
+            in.close();
+            return new String(body.toByteArray(), StandardCharsets.UTF_8);
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static HttpURLConnection open(ResultsServer server, String path)
+            throws IOException {
+        return (HttpURLConnection) new URL("http://localhost:"
+                + server.getPort() + path).openConnection();
+    }
+
+    /**
+     * @return the number of times the part occurs in the text.
+     */
+    private static int count(String text, String part) {
+        int count = 0;
+        for (int i = text.indexOf(part); i >= 0;
+             i = text.indexOf(part, i + 1)) {
+            count++;
+        }
+        return count;
+    }
+}
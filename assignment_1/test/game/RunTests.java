@@ -0,0 +1,57 @@
+package game;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Runs every test class and reports the failures.
+ */
+public class RunTests {
+
+    /**
+     * A test class, run through its main method.
+     */
+    private interface Test {
+        void run(String[] args) throws Exception;
+    }
+
+    public static void main(String[] args) {
+        Map<String, Test> tests = new LinkedHashMap<>();
+        tests.put("GameQueryTest", GameQueryTest::main);
+        tests.put("SeasonStatsTest", SeasonStatsTest::main);
+        tests.put("SketchTest", SketchTest::main);
+        tests.put("BatchTest", BatchTest::main);
+        tests.put("ResultsServerTest", ResultsServerTest::main);
+        tests.put("GamePoolTest", GamePoolTest::main);
+        tests.put("GameResultTest", GameResultTest::main);
+        tests.put("SimulationContextTest", SimulationContextTest::main);
+        tests.put("ShardCoordinatorTest", ShardCoordinatorTest::main);
+        tests.put("RatingEngineTest", RatingEngineTest::main);
+        tests.put("SimulationPipelineTest", SimulationPipelineTest::main);
+        tests.put("BulkRegistrationTest", BulkRegistrationTest::main);
+        tests.put("EventTypeTest", EventTypeTest::main);
+        tests.put("LiveRankerTest", LiveRankerTest::main);
+        tests.put("EventQueueTest", EventQueueTest::main);
+        tests.put("ArchiveTest", ArchiveTest::main);
+        tests.put("ArchivedGameDataTest", ArchivedGameDataTest::main);
+        tests.put("LatencyHistogramTest", LatencyHistogramTest::main);
+        tests.put("MemoryAccountingTest", MemoryAccountingTest::main);
+
+        int failures = 0;
+        for (Map.Entry<String, Test> test : tests.entrySet()) {
+            try {
+                test.getValue().run(args);
+                System.out.println("PASS " + test.getKey());
+            } catch (Exception | AssertionError e) {
+                failures++;
+                System.out.println("FAIL " + test.getKey() + ": " + e);
+                e.printStackTrace(System.out);
+            }
+        }
+        System.out.println(tests.size() - failures + " of " + tests.size()
+                + " test classes passed.");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package game;
+
+import participant.Athlete;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static game.Check.check;
+import static game.Check.equal;
+import static game.Check.fails;
+
+/**
+ * Tests of SeasonStats and StreamingSeason.
+ */
+public class SeasonStatsTest {
+
+    public static void main(String[] args) {
+        GameData data = new GameData(new SimulationContext(100, 200, 2));
+        for (Game game : data.getGames()) {
+            game.startGame(false);
+        }
+        recordMatchesTwoPasses(data);
+        mergeMatchesOneStats(data);
+        pointsAreKeptPerRoster(data);
+        unfinishedGamesAreRejected();
+        seasonsOnThreadsMatchSeasonsInTurn();
+    }
+
+    static void recordMatchesTwoPasses(GameData data) {
+        SeasonStats stats = new SeasonStats();
+        for (Game game : data.getGames()) {
+            stats.record(game);
+        }
+        equal(data.getGames().size(), stats.getNumGames(), "games");
+
+        Map<EventType, List<Integer>> times = new HashMap<>();
+        Map<String, long[]> medals = new HashMap<>();
+        Map<Athlete, Long> points = new HashMap<>();
+        for (Game game : data.getGames()) {
+            for (int i = 0; i < game.getAthletes().size(); i++) {
+                Athlete athlete = game.getAthletes().get(i);
+                times.computeIfAbsent(game.getEvent(),
+                        e -> new ArrayList<>()).add(game.getTime(i));
+                int rank = game.getRank(i);
+                if (rank <= 3) {
+                    medals.computeIfAbsent(athlete.getState(),
+                            s -> new long[3])[rank - 1]++;
+                    points.merge(athlete, (long) Game.getPoints(rank),
+                            Long::sum);
+                }
+            }
+        }
+
+        for (EventType event : EventType.values()) {
+            List<Integer> list = times.get(event);
+            equal(list.size(), stats.getCount(event), "count of " + event);
+            double mean = 0;
+            int min = Integer.MAX_VALUE;
+            int max = Integer.MIN_VALUE;
+            for (int time : list) {
+                mean += time;
+                min = Math.min(min, time);
+                max = Math.max(max, time);
+            }
+            mean /= list.size();
+            double variance = 0;
+            for (int time : list) {
+                variance += (time - mean) * (time - mean);
+            }
+            variance /= list.size() - 1;
+            close(mean, stats.getMean(event), "mean of " + event);
+            close(variance, stats.getVariance(event),
+                    "variance of " + event);
+            equal(min, stats.getMinTime(event), "min of " + event);
+            equal(max, stats.getMaxTime(event), "max of " + event);
+        }
+        for (Map.Entry<String, long[]> entry : medals.entrySet()) {
+            check(Arrays.equals(entry.getValue(),
+                    stats.getMedals(entry.getKey())),
+                    "medals of " + entry.getKey());
+        }
+        for (Athlete athlete : data.getAthletes()) {
+            equal((long) points.getOrDefault(athlete, 0L),
+                    stats.getPoints(athlete), "points of " + athlete.getId());
+        }
+    }
+
+    static void mergeMatchesOneStats(GameData data) {
+        SeasonStats all = new SeasonStats();
+        SeasonStats first = new SeasonStats();
+        SeasonStats second = new SeasonStats();
+        List<Game> games = data.getGames();
+        for (int i = 0; i < games.size(); i++) {
+            all.record(games.get(i));
+            (i < games.size() / 3 ? first : second).record(games.get(i));
+        }
+        first.merge(second);
+        first.merge(new SeasonStats());
+        checkSame(all, first, data.getAthletes(), "merged");
+    }
+
+    /**
+     * Merges the statistics of another context, whose athletes have the
+     * same ids: the points of each roster are kept apart.
+     */
+    static void pointsAreKeptPerRoster(GameData data) {
+        GameData other = new GameData(new SimulationContext(100, 50, 7));
+        SeasonStats mine = new SeasonStats();
+        SeasonStats theirs = new SeasonStats();
+        for (Game game : data.getGames()) {
+            mine.record(game);
+        }
+        for (Game game : other.getGames()) {
+            game.startGame(false);
+            theirs.record(game);
+        }
+        SeasonStats both = new SeasonStats();
+        both.merge(mine);
+        both.merge(theirs);
+        equal(mine.getNumGames() + theirs.getNumGames(), both.getNumGames(),
+                "games of both rosters");
+        Map<Integer, Athlete> namesakes = new HashMap<>();
+        for (Athlete athlete : other.getAthletes()) {
+            namesakes.put(athlete.getId(), athlete);
+        }
+        int shared = 0;
+        for (Athlete athlete : data.getAthletes()) {
+            Athlete namesake = namesakes.get(athlete.getId());
+            if (namesake == null) {
+                continue;
+            }
+            shared++;
+            equal(mine.getPoints(athlete), both.getPoints(data.getContext(),
+                    athlete), "points of " + athlete.getId());
+            equal(theirs.getPoints(namesake), both.getPoints(
+                    other.getContext(), namesake), "points of "
+                    + namesake.getId() + " of the other roster");
+        }
+        check(shared > 0, "ids in both rosters");
+        fails(() -> both.getPoints(data.getAthletes().get(0)),
+                "points of an athlete of several rosters");
+    }
+
+    static void unfinishedGamesAreRejected() {
+        GameData data = new GameData(new SimulationContext(20, 1, 3));
+        Game game = data.getGames().get(0);
+        fails(() -> new SeasonStats().record(game), "unfinished game");
+    }
+
+    /**
+     * Runs seasons of the same seeds one after the other and side by side
+     * on two threads, which must give the same statistics.
+     */
+    static void seasonsOnThreadsMatchSeasonsInTurn() {
+        List<StreamingSeason> inTurn = new ArrayList<>();
+        List<StreamingSeason> sideBySide = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            inTurn.add(new StreamingSeason(new SimulationContext(50, 0, i)));
+            sideBySide.add(new StreamingSeason(new SimulationContext(50, 0,
+                    i)));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        List<SeasonStats> results;
+        try {
+            results = StreamingSeason.runAll(sideBySide, 2000, executor);
+        } finally {
+            executor.shutdown();
+        }
+        for (int i = 0; i < 3; i++) {
+            SeasonStats stats = new SeasonStats();
+            inTurn.get(i).run(2000, stats);
+            equal(2000, results.get(i).getNumGames(), "games of season " + i);
+            checkSame(stats, results.get(i), inTurn.get(i).getAthletes(),
+                    "season " + i);
+        }
+    }
+
+    /**
+     * Checks that two statistics are the same, up to rounding.
+     */
+    private static void checkSame(SeasonStats expected, SeasonStats actual,
+                                  List<Athlete> athletes, String message) {
+        equal(expected.getNumGames(), actual.getNumGames(),
+                "games of " + message);
+        for (EventType event : EventType.values()) {
+            equal(expected.getCount(event), actual.getCount(event),
+                    "count of " + event + " of " + message);
+            close(expected.getMean(event), actual.getMean(event),
+                    "mean of " + event + " of " + message);
+            close(expected.getVariance(event), actual.getVariance(event),
+                    "variance of " + event + " of " + message);
+            equal(expected.getMinTime(event), actual.getMinTime(event),
+                    "min of " + event + " of " + message);
+            equal(expected.getMaxTime(event), actual.getMaxTime(event),
+                    "max of " + event + " of " + message);
+        }
+        for (Athlete athlete : athletes) {
+            check(Arrays.equals(expected.getMedals(athlete.getState()),
+                    actual.getMedals(athlete.getState())),
+                    "medals of " + athlete.getState() + " of " + message);
+            equal(expected.getPoints(athlete), actual.getPoints(athlete),
+                    "points of " + athlete.getId() + " of " + message);
+        }
+    }
+
+    /**
+     * Fails unless two numbers are equal up to rounding.
+     */
+    private static void close(double expected, double actual,
+                              String message) {
+        check(Math.abs(expected - actual)
+                        <= 1e-9 * Math.max(1, Math.abs(expected)),
+                message + ": expected " + expected + " but was " + actual);
+    }
+}
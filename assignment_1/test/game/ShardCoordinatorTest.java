@@ -0,0 +1,58 @@
+package game;
+
+import participant.Athlete;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static game.Check.equal;
+import static game.Check.fails;
+
+/**
+ * Tests of ShardCoordinator with worker processes on this machine.
+ */
+public class ShardCoordinatorTest {
+
+    public static void main(String[] args) throws IOException {
+        mergedPointsEqualTheShardsRunInTurn();
+        fails(() -> new ShardCoordinator(0, 30, 10, 1), "no shard");
+    }
+
+    /**
+     * Runs a season over three workers, each sending several updates, and
+     * compares the merged points with the shards run here one after the
+     * other.
+     */
+    static void mergedPointsEqualTheShardsRunInTurn() throws IOException {
+        int numShards = 3;
+        long numGames = 2L * numShards * ShardWorker.UPDATE_GAMES + 7;
+        long seed = 5;
+        ShardCoordinator coordinator = new ShardCoordinator(numShards, 60,
+                numGames, seed);
+        coordinator.run();
+        equal(numGames, coordinator.getGamesMerged(), "games merged");
+
+        // The shards share the roster of the seed, each in its context.
+        SeasonStats expected = new SeasonStats();
+        List<SimulationContext> rosters = new ArrayList<>();
+        List<Athlete> athletes = null;
+        for (int shard = 0; shard < numShards; shard++) {
+            StreamingSeason season = new StreamingSeason(
+                    new SimulationContext(60, 0, seed));
+            season.getContext().getRandom().setSeed(seed + 1 + shard);
+            season.run(numGames / numShards
+                    + (shard < numGames % numShards ? 1 : 0), expected);
+            rosters.add(season.getContext());
+            athletes = season.getAthletes();
+        }
+        for (Athlete athlete : athletes) {
+            long points = 0;
+            for (SimulationContext roster : rosters) {
+                points += expected.getPoints(roster, athlete);
+            }
+            equal(points, coordinator.getPoints(athlete),
+                    "points of " + athlete.getId());
+        }
+    }
+}
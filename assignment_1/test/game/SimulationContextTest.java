@@ -0,0 +1,102 @@
+package game;
+
+import participant.Athlete;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static game.Check.check;
+import static game.Check.equal;
+import static game.Check.fails;
+
+/**
+ * Tests of SimulationContext.
+ */
+public class SimulationContextTest {
+
+    public static void main(String[] args) throws Exception {
+        seasonsRunSideBySideAsAlone();
+        idsAreCountedPerContext();
+        athletesAreAccountedFor();
+        invalidSeasonsAreRejected();
+    }
+
+    /**
+     * Runs seasons of the same seeds alone and then side by side on two
+     * threads, which must give the same results.
+     */
+    static void seasonsRunSideBySideAsAlone() throws Exception {
+        String first = season(1);
+        String second = season(2);
+        check(!first.equals(second), "seeds give different seasons");
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < 5; i++) {
+                Future<String> one = executor.submit(() -> season(1));
+                Future<String> two = executor.submit(() -> season(2));
+                equal(first, one.get(), "first season side by side");
+                equal(second, two.get(), "second season side by side");
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    static void idsAreCountedPerContext() {
+        SimulationContext one = new SimulationContext(0, 0, 1);
+        SimulationContext two = new SimulationContext(0, 0, 1);
+        equal(1, one.nextGameId(), "first game id");
+        equal(2, one.nextGameId(), "second game id");
+        equal(1, two.nextGameId(), "first game id of another context");
+        Athlete athlete = one.getFactory().createAthlete();
+        equal(athlete.getId(), two.getFactory().createAthlete().getId(),
+                "first athlete id of another context");
+        equal(1, one.getAthletes().size(), "athletes registered");
+        equal(1, two.getAthletes().size(), "athletes of another context");
+    }
+
+    static void athletesAreAccountedFor() {
+        SimulationContext context = new SimulationContext(0, 0, 1);
+        Set<Athlete> dropped = new HashSet<>();
+        for (int i = 0; i < 10; i++) {
+            Athlete athlete = context.getFactory().createAthlete();
+            if (i % 2 == 0) {
+                dropped.add(athlete);
+            }
+        }
+        long each = MemoryAccounting.ATHLETE + MemoryAccounting.REFERENCE;
+        equal(10 * each, context.getMemory().getReport().getBytes(
+                Subsystem.ATHLETES), "bytes of 10 athletes");
+        context.unregister(dropped);
+        equal(5, context.getAthletes().size(), "athletes kept");
+        equal(5 * each, context.getMemory().getReport().getBytes(
+                Subsystem.ATHLETES), "bytes of the athletes kept");
+        try {
+            context.getAthletes().clear();
+            check(false, "athletes are read only");
+        } catch (UnsupportedOperationException e) {
+            equal(5, context.getAthletes().size(), "athletes left");
+        }
+    }
+
+    static void invalidSeasonsAreRejected() {
+        fails(() -> new SimulationContext(-1, 0), "negative athletes");
+        fails(() -> new SimulationContext(0, -1, 1), "negative games");
+    }
+
+    /**
+     * @return the results of a season of the seed in CSV.
+     */
+    private static String season(long seed) {
+        GameData data = new GameData(new SimulationContext(40, 30, seed));
+        StringBuilder csv = new StringBuilder();
+        for (Game game : data.getGames()) {
+            game.startGame(false);
+            csv.append(game.getResult().toCsv());
+        }
+        return csv.toString();
+    }
+}
@@ -0,0 +1,113 @@
+package game;
+
+import participant.Athlete;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static game.Check.check;
+import static game.Check.equal;
+import static game.Check.fails;
+
+/**
+ * Tests of SimulationPipeline.
+ */
+public class SimulationPipelineTest {
+
+    public static void main(String[] args) throws IOException {
+        everyGameIsPersistedAndRated();
+        stagesAreConfiguredOneByOne();
+        writeFailuresStopThePipeline();
+    }
+
+    static void everyGameIsPersistedAndRated() throws IOException {
+        SimulationContext context = new SimulationContext(100, 0, 1);
+        SimulationPipeline pipeline = new SimulationPipeline(context, 2, 8);
+        pipeline.configure(SimulationPipeline.Stage.SIMULATE, 3, 4);
+        pipeline.configure(SimulationPipeline.Stage.PERSIST, 1, 2);
+        int games = 3 * SimulationPipeline.RATING_BATCH + 11;
+        StringWriter out = new StringWriter();
+        SeasonStats stats = pipeline.run(games, out);
+
+        equal(games, pipeline.getAssembled(), "games assembled");
+        equal(games, pipeline.getPersisted(), "games persisted");
+        equal(games, stats.getNumGames(), "games aggregated");
+        String[] lines = out.toString().split(System.lineSeparator());
+        equal(GameResult.CSV_HEADER, lines[0], "CSV header");
+        Set<String> ids = new HashSet<>();
+        for (int i = 1; i < lines.length; i++) {
+            ids.add(lines[i].substring(0, lines[i].indexOf(',')));
+        }
+        equal(games, ids.size(), "games written");
+        List<StageMetrics> metrics = pipeline.getMetrics();
+        equal(5, metrics.size(), "stages measured");
+        equal("assemble", metrics.get(0).getName(), "source measured");
+        equal(games, metrics.get(0).getProcessed(), "games assembled");
+        equal("persist", metrics.get(4).getName(), "sink measured");
+        equal(games, metrics.get(4).getProcessed(), "games persisted");
+        equal(0, pipeline.getMemory().getBytes(Subsystem.GAMES),
+                "games left in flight");
+
+        // Every game is rated once: changes add up to nothing, and every
+        // athlete with points has been rated.
+        RatingEngine ratings = pipeline.getRatings();
+        double sum = 0;
+        for (Athlete athlete : context.getAthletes()) {
+            double change = ratings.getRating(athlete)
+                    - RatingEngine.INITIAL_RATING;
+            sum += change;
+            if (stats.getPoints(athlete) > 0) {
+                check(change != 0, "athlete " + athlete.getId()
+                        + " is rated");
+            }
+        }
+        check(Math.abs(sum) < 1e-6, "ratings add up to the initial ones");
+    }
+
+    static void stagesAreConfiguredOneByOne() {
+        SimulationPipeline pipeline = new SimulationPipeline(
+                new SimulationContext(50, 0, 2), 1, 4);
+        fails(() -> pipeline.configure(SimulationPipeline.Stage.AWARD, 2, 4),
+                "parallel award");
+        fails(() -> pipeline.configure(SimulationPipeline.Stage.SIMULATE, 0,
+                4), "no thread");
+        fails(() -> pipeline.configure(SimulationPipeline.Stage.PERSIST, 1,
+                0), "empty batch");
+        pipeline.configure(SimulationPipeline.Stage.AGGREGATE, 1, 1);
+    }
+
+    static void writeFailuresStopThePipeline() {
+        SimulationPipeline pipeline = new SimulationPipeline(
+                new SimulationContext(50, 0, 3), 2, 4);
+        Writer broken = new Writer() {
+            private int writes;
+
+            @Override
+            public void write(char[] buffer, int offset, int length)
+                    throws IOException {
+                if (++writes > 10) {
+                    throw new IOException("disk full");
+                }
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        try {
+            pipeline.run(1000, broken);
+            check(false, "write failure is reported");
+        } catch (IOException e) {
+            equal("disk full", e.getMessage(), "write failure");
+        }
+        check(pipeline.getAssembled() < 1000, "assembly stops early");
+    }
+}
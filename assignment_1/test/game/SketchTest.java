@@ -0,0 +1,141 @@
+package game;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static game.Check.check;
+import static game.Check.equal;
+import static game.Check.fails;
+
+/**
+ * Tests of TimeHistogram and HeavyHitters.
+ */
+public class SketchTest {
+
+    public static void main(String[] args) {
+        quantilesAreExact();
+        mergedHistogramEqualsOneHistogram();
+        histogramRejectsOtherTimes();
+        countsStayWithinTheBound();
+        mergedSummariesStayWithinTheBound();
+    }
+
+    static void quantilesAreExact() {
+        Random random = new Random(1);
+        EventType event = EventType.CYCLING;
+        TimeHistogram histogram = new TimeHistogram(event);
+        equal(0, histogram.getQuantile(0.5), "quantile of nothing");
+        int[] times = new int[5001];
+        for (int i = 0; i < times.length; i++) {
+            times[i] = event.getMinTime() + random.nextInt(
+                    event.getMaxTime() - event.getMinTime() + 1);
+            histogram.add(times[i]);
+        }
+        Arrays.sort(times);
+        equal(times.length, histogram.getCount(), "count");
+        for (double quantile : new double[]{0, 0.01, 0.25, 0.5, 0.99, 1}) {
+            int rank = Math.max(1, (int) Math.ceil(quantile * times.length));
+            equal(times[rank - 1], histogram.getQuantile(quantile),
+                    "quantile " + quantile);
+        }
+    }
+
+    static void mergedHistogramEqualsOneHistogram() {
+        Random random = new Random(2);
+        RandomUtil times = new RandomUtil(2);
+        EventType event = EventType.SWIMMING;
+        TimeHistogram all = new TimeHistogram(event);
+        TimeHistogram[] parts = new TimeHistogram[3];
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = new TimeHistogram(event);
+        }
+        for (int i = 0; i < 3000; i++) {
+            int time = event.getTime(times);
+            all.add(time);
+            parts[random.nextInt(parts.length)].add(time);
+        }
+        parts[0].merge(parts[1]);
+        parts[0].merge(parts[2]);
+        equal(all.getCount(), parts[0].getCount(), "merged count");
+        for (int q = 0; q <= 100; q++) {
+            equal(all.getQuantile(q / 100.0), parts[0].getQuantile(q / 100.0),
+                    "merged quantile " + q);
+        }
+    }
+
+    static void histogramRejectsOtherTimes() {
+        TimeHistogram histogram = new TimeHistogram(EventType.SPRINT);
+        fails(() -> histogram.add(EventType.SPRINT.getMinTime() - 1),
+                "time below the range");
+        fails(() -> histogram.add(EventType.SPRINT.getMaxTime() + 1),
+                "time above the range");
+        fails(() -> histogram.merge(new TimeHistogram(EventType.CYCLING)),
+                "merge of another event");
+    }
+
+    static void countsStayWithinTheBound() {
+        int[] ids = skewed(new Random(3), 20000, 500);
+        HeavyHitters summary = new HeavyHitters(16);
+        for (int id : ids) {
+            summary.add(id);
+        }
+        checkBound(summary, ids, 16);
+        fails(() -> new HeavyHitters(0), "no counter");
+    }
+
+    static void mergedSummariesStayWithinTheBound() {
+        Random random = new Random(4);
+        int[] ids = skewed(random, 30000, 800);
+        HeavyHitters[] parts = new HeavyHitters[4];
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = new HeavyHitters(16);
+        }
+        for (int i = 0; i < ids.length; i++) {
+            // Contiguous ranges, so each part sees a different mix.
+            parts[i * parts.length / ids.length].add(ids[i]);
+        }
+        for (int i = 1; i < parts.length; i++) {
+            parts[0].merge(parts[i]);
+        }
+        checkBound(parts[0], ids, 16);
+    }
+
+    /**
+     * @return ids drawn mostly from a few heavy ones, the rest spread over
+     * many light ones.
+     */
+    private static int[] skewed(Random random, int length, int numIds) {
+        int[] ids = new int[length];
+        for (int i = 0; i < length; i++) {
+            ids[i] = random.nextInt(4) == 0 ? random.nextInt(numIds)
+                    : random.nextInt(5);
+        }
+        return ids;
+    }
+
+    /**
+     * Checks that every count is under estimated by at most the total over
+     * the counters plus one, and never over estimated.
+     */
+    private static void checkBound(HeavyHitters summary, int[] ids,
+                                   int capacity) {
+        equal(ids.length, summary.getTotal(), "total");
+        long[] actual = new long[1000];
+        for (int id : ids) {
+            actual[id]++;
+        }
+        long bound = ids.length / (capacity + 1);
+        for (int id = 0; id < actual.length; id++) {
+            long estimate = summary.getCount(id);
+            check(estimate <= actual[id], "count of " + id
+                    + " is not over estimated");
+            check(estimate >= actual[id] - bound, "count of " + id
+                    + " is within the bound");
+        }
+        int[] top = summary.getTop(5);
+        equal(5, top.length, "top ids");
+        for (int i = 0; i < top.length; i++) {
+            check(top[i] < 5, "heavy id " + top[i] + " is in the top");
+        }
+    }
+}